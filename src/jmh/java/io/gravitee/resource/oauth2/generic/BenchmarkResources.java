@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic;
+
+import io.gravitee.node.api.Node;
+import io.gravitee.resource.api.AbstractConfigurableResource;
+import io.gravitee.resource.oauth2.generic.configuration.OAuth2ResourceConfiguration;
+import io.vertx.core.Vertx;
+import java.lang.reflect.Field;
+import org.mockito.Mockito;
+import org.springframework.context.support.GenericApplicationContext;
+
+/**
+ * Starts resources outside of a gateway, the same way the gateway does once the resource configuration has been read.
+ *
+ * @author GraviteeSource Team
+ */
+final class BenchmarkResources {
+
+    static final String INTROSPECTION_PATH = "/oauth/introspect";
+
+    static final String USERINFO_PATH = "/userinfo";
+
+    static final String INTROSPECTION_RESPONSE =
+        "{\"active\":true,\"client_id\":\"my-client\",\"username\":\"jdoe\",\"scope\":\"openid profile email read write\"," +
+        "\"sub\":\"Z5O3upPC88QrAjx00dis\",\"aud\":\"https://api.example.com\",\"iss\":\"https://server.example.com/\"," +
+        "\"exp\":1893456000,\"iat\":1893452400,\"token_type\":\"Bearer\"}";
+
+    static final String USERINFO_RESPONSE =
+        "{\"sub\":\"Z5O3upPC88QrAjx00dis\",\"name\":\"John Doe\",\"preferred_username\":\"jdoe\",\"email\":\"jdoe@example.com\"}";
+
+    private BenchmarkResources() {}
+
+    /**
+     * A configuration introspecting tokens sent as a form parameter, using client credentials.
+     */
+    static OAuth2ResourceConfiguration configuration(String authorizationServerUrl) {
+        OAuth2ResourceConfiguration configuration = new OAuth2ResourceConfiguration();
+        configuration.setAuthorizationServerUrl(authorizationServerUrl);
+        configuration.setIntrospectionEndpoint(INTROSPECTION_PATH);
+        configuration.setIntrospectionEndpointMethod("POST");
+        configuration.setUserInfoEndpoint(USERINFO_PATH);
+        configuration.setUserInfoEndpointMethod("GET");
+        configuration.setClientId("my-client");
+        configuration.setClientSecret("my-client-secret");
+        configuration.setUseClientAuthorizationHeader(true);
+        configuration.setClientAuthorizationHeaderName("Authorization");
+        configuration.setClientAuthorizationHeaderScheme("Basic");
+        configuration.setTokenIsSuppliedByFormUrlEncoded(true);
+        configuration.setTokenFormUrlEncodedName("token");
+        return configuration;
+    }
+
+    static OAuth2GenericResource start(Vertx vertx, OAuth2ResourceConfiguration configuration) throws Exception {
+        GenericApplicationContext applicationContext = new GenericApplicationContext();
+        applicationContext.registerBean(Node.class, () -> Mockito.mock(Node.class));
+        applicationContext.registerBean(Vertx.class, () -> vertx);
+        applicationContext.refresh();
+
+        OAuth2GenericResource resource = new OAuth2GenericResource();
+        Field configurationField = AbstractConfigurableResource.class.getDeclaredField("configuration");
+        configurationField.setAccessible(true);
+        configurationField.set(resource, configuration);
+        resource.setApplicationContext(applicationContext);
+        resource.start();
+        return resource;
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic;
+
+import io.gravitee.common.http.HttpHeaders;
+import io.gravitee.common.http.MediaType;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end introspection and userinfo calls against an embedded authorization server answering immediately.
+ * Each invocation issues <code>concurrency</code> calls at once, for distinct access tokens so that they are neither
+ * cached nor coalesced, and waits for all of them: the score is the time taken by such a batch.
+ *
+ * @author GraviteeSource Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class IntrospectionThroughputBenchmark {
+
+    @Param({ "1", "16", "64", "256" })
+    private int concurrency;
+
+    private final AtomicLong tokens = new AtomicLong();
+
+    private Vertx vertx;
+
+    private HttpServer authorizationServer;
+
+    private OAuth2GenericResource resource;
+
+    @Setup
+    public void setup() throws Exception {
+        vertx = Vertx.vertx();
+
+        final Buffer introspectionResponse = Buffer.buffer(BenchmarkResources.INTROSPECTION_RESPONSE);
+        final Buffer userInfoResponse = Buffer.buffer(BenchmarkResources.USERINFO_RESPONSE);
+        authorizationServer =
+            vertx
+                .createHttpServer()
+                .requestHandler(request ->
+                    request
+                        .body()
+                        .onSuccess(body ->
+                            request
+                                .response()
+                                .putHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                                .end(
+                                    BenchmarkResources.INTROSPECTION_PATH.equals(request.path())
+                                        ? introspectionResponse
+                                        : userInfoResponse
+                                )
+                        )
+                )
+                .listen(0)
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get();
+
+        resource =
+            BenchmarkResources.start(
+                vertx,
+                BenchmarkResources.configuration("http://localhost:" + authorizationServer.actualPort())
+            );
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        resource.stop();
+        authorizationServer.close().toCompletionStage().toCompletableFuture().get();
+        vertx.close();
+    }
+
+    @Benchmark
+    public void introspect() throws InterruptedException {
+        final CountDownLatch responses = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            resource.introspect(nextToken(), response -> responses.countDown());
+        }
+        await(responses);
+    }
+
+    @Benchmark
+    public void userInfo() throws InterruptedException {
+        final CountDownLatch responses = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            resource.userInfo(nextToken(), response -> responses.countDown());
+        }
+        await(responses);
+    }
+
+    private String nextToken() {
+        return "access-token-" + tokens.incrementAndGet();
+    }
+
+    private static void await(CountDownLatch responses) throws InterruptedException {
+        if (!responses.await(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("The authorization server did not answer in time");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.cache;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cache hits of the in-memory introspection cache from concurrent threads, as on the event-loops of a busy gateway:
+ * every lookup moves its entry in the access order, under the lock of the segment of its key. A cache of
+ * <code>64</code> entries has a single segment, and shows how the lookups scale with a single lock.
+ *
+ * @author GraviteeSource Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class TokenCacheBenchmark {
+
+    @Param({ "64", "10000" })
+    private int maxSize;
+
+    private LruTokenCache<String> cache;
+
+    private String[] keys;
+
+    @Setup
+    public void setup() {
+        cache = new LruTokenCache<>(maxSize);
+        keys = new String[maxSize];
+        for (int i = 0; i < maxSize; i++) {
+            keys[i] = TokenDigest.digest("access-token-" + i);
+            cache.put(keys[i], "introspection-" + i, TimeUnit.HOURS.toMillis(1));
+        }
+    }
+
+    @Benchmark
+    public TokenCache.CacheEntry<String> hit() {
+        return cache.getEntry(keys[ThreadLocalRandom.current().nextInt(keys.length)]);
+    }
+}
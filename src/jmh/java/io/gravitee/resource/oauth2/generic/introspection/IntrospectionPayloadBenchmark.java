@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.introspection;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vertx.core.buffer.Buffer;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the streaming parse of an introspection response with the tree based parse it replaces.
+ *
+ * @author GraviteeSource Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntrospectionPayloadBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String USER_CLAIM = "sub";
+
+    private Buffer response;
+
+    @Setup
+    public void setup() {
+        response =
+            Buffer.buffer(
+                "{\"active\":true,\"client_id\":\"my-client\",\"username\":\"jdoe\",\"scope\":\"openid profile email read write\"," +
+                "\"sub\":\"Z5O3upPC88QrAjx00dis\",\"aud\":[\"https://api.example.com\",\"https://gateway.example.com\"]," +
+                "\"iss\":\"https://server.example.com/\",\"exp\":1893456000,\"iat\":1893452400,\"nbf\":1893452400," +
+                "\"token_type\":\"Bearer\",\"jti\":\"6c1f9a7e-1f0e-4b8e-9a8e-6a4c3b2d1e0f\"," +
+                "\"ext\":{\"tenant\":\"acme\",\"roles\":[\"admin\",\"user\"],\"groups\":[\"engineering\",\"ops\"]}}"
+            );
+    }
+
+    @Benchmark
+    public void tree(Blackhole blackhole) throws IOException {
+        String content = response.toString();
+        JsonNode node = MAPPER.readTree(content);
+        JsonNode active = node.get("active");
+        blackhole.consume(active == null || active.asBoolean());
+        blackhole.consume(node.path("exp").asLong(-1));
+        blackhole.consume(node.path("scope").asText(null));
+        blackhole.consume(node.path(USER_CLAIM).asText(null));
+        blackhole.consume(content);
+    }
+
+    @Benchmark
+    public void streaming(Blackhole blackhole) throws IOException {
+        IntrospectionPayload payload = IntrospectionPayload.parse(response, USER_CLAIM);
+        blackhole.consume(payload.isActive());
+        blackhole.consume(payload.getExpirationTime());
+        blackhole.consume(payload.getScope());
+        blackhole.consume(payload.getUser());
+        // The raw payload is still handed over to the OAuth2 response
+        blackhole.consume(response.toString());
+    }
+}
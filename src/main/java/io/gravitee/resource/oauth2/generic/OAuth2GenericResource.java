@@ -15,15 +15,14 @@
  */
 package io.gravitee.resource.oauth2.generic;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.gravitee.common.http.HttpHeaders;
 import io.gravitee.common.http.HttpStatusCode;
 import io.gravitee.common.http.MediaType;
 import io.gravitee.common.util.VertxProxyOptionsUtils;
-import io.gravitee.common.utils.UUID;
 import io.gravitee.gateway.api.handler.Handler;
 import io.gravitee.node.api.Node;
+import io.gravitee.node.api.cache.CacheConfiguration;
+import io.gravitee.node.api.cache.CacheManager;
 import io.gravitee.node.api.configuration.Configuration;
 import io.gravitee.node.api.utils.NodeUtils;
 import io.gravitee.node.container.spring.SpringEnvironmentConfiguration;
@@ -31,20 +30,68 @@ import io.gravitee.resource.oauth2.api.OAuth2Resource;
 import io.gravitee.resource.oauth2.api.OAuth2ResourceException;
 import io.gravitee.resource.oauth2.api.OAuth2Response;
 import io.gravitee.resource.oauth2.api.openid.UserInfoResponse;
+import io.gravitee.resource.oauth2.generic.balancing.LoadBalancer;
+import io.gravitee.resource.oauth2.generic.cache.HotTokens;
+import io.gravitee.resource.oauth2.generic.cache.LruTokenCache;
+import io.gravitee.resource.oauth2.generic.cache.OffHeapTokenCache;
+import io.gravitee.resource.oauth2.generic.cache.SharedIntrospectionCache;
+import io.gravitee.resource.oauth2.generic.cache.TokenCache;
+import io.gravitee.resource.oauth2.generic.cache.TokenDigest;
+import io.gravitee.resource.oauth2.generic.coalescing.RequestCoalescer;
 import io.gravitee.resource.oauth2.generic.configuration.OAuth2ResourceConfiguration;
+import io.gravitee.resource.oauth2.generic.connection.ConnectionWarmer;
+import io.gravitee.resource.oauth2.generic.connection.DnsCache;
+import io.gravitee.resource.oauth2.generic.connection.KeyStores;
+import io.gravitee.resource.oauth2.generic.dispatch.ContextDispatcher;
+import io.gravitee.resource.oauth2.generic.introspection.BatchIntrospector;
+import io.gravitee.resource.oauth2.generic.introspection.IntrospectionPayload;
+import io.gravitee.resource.oauth2.generic.introspection.IntrospectionResponse;
+import io.gravitee.resource.oauth2.generic.introspection.ScopeDictionary;
+import io.gravitee.resource.oauth2.generic.jwt.JwksProvider;
+import io.gravitee.resource.oauth2.generic.jwt.JwtValidator;
+import io.gravitee.resource.oauth2.generic.metrics.OAuth2ResourceMetrics;
+import io.gravitee.resource.oauth2.generic.metrics.Outcome;
+import io.gravitee.resource.oauth2.generic.metrics.RequestMetrics;
+import io.gravitee.resource.oauth2.generic.request.RequestTemplate;
+import io.gravitee.resource.oauth2.generic.resilience.CircuitBreaker;
+import io.gravitee.resource.oauth2.generic.resilience.HedgingPolicy;
+import io.gravitee.resource.oauth2.generic.resilience.RateLimiter;
+import io.gravitee.resource.oauth2.generic.resilience.RequestGuard;
+import io.gravitee.resource.oauth2.generic.revocation.RevocationEvent;
+import io.gravitee.resource.oauth2.generic.revocation.RevocationListener;
+import io.gravitee.resource.oauth2.generic.revocation.RevokedTokens;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.core.SingleEmitter;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.CompositeFuture;
 import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.*;
+import io.vertx.core.net.KeyCertOptions;
+import io.vertx.core.net.OpenSSLEngineOptions;
 import io.vertx.core.net.ProxyOptions;
 import io.vertx.core.net.ProxyType;
+import io.vertx.core.net.TrustOptions;
+import io.vertx.micrometer.backends.BackendRegistries;
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -71,21 +118,115 @@ public class OAuth2GenericResource extends OAuth2Resource<OAuth2ResourceConfigur
     private static final char AUTHORIZATION_HEADER_SCHEME_SEPARATOR = ' ';
     private static final char AUTHORIZATION_HEADER_VALUE_BASE64_SEPARATOR = ':';
 
-    private ApplicationContext applicationContext;
+    private static final int DEFAULT_HTTP_CLIENT_MAX_POOL_SIZE = 100;
+    private static final int DEFAULT_HTTP_CLIENT_IDLE_TIMEOUT = 60;
+    private static final int DEFAULT_HTTP_CLIENT_CONNECT_TIMEOUT = 10000;
+    private static final int DEFAULT_HTTP2_MAX_POOL_SIZE = 1;
+    private static final int DEFAULT_CONNECTION_WARM_UP_COUNT = 2;
+    private static final long DEFAULT_DNS_CACHE_TTL = 60L;
+    private static final long DEFAULT_JWKS_REFRESH_INTERVAL = 300;
+    private static final long DEFAULT_REQUEST_TIMEOUT = 30000L;
+    private static final int DEFAULT_HEDGING_PERCENTILE = 95;
+    private static final long DEFAULT_HEDGING_MIN_DELAY = 50L;
+    private static final int DEFAULT_HEDGING_MAX_RATIO = 10;
+    private static final int DEFAULT_ENDPOINT_EJECTION_FAILURES = 5;
+    private static final long DEFAULT_ENDPOINT_EJECTION_DURATION = 30L;
+    private static final int DEFAULT_REQUEST_QUEUE_MAX_SIZE = 100;
+    private static final long DEFAULT_REQUEST_QUEUE_MAX_WAIT = 1000L;
+    private static final int DEFAULT_OFF_HEAP_CACHE_MAX_MEMORY = 256;
+    private static final String DEFAULT_REVOCATION_WEBHOOK_HOST = "127.0.0.1";
+    private static final int DEFAULT_REVOCATION_WEBHOOK_PORT = 8095;
+    private static final String DEFAULT_REVOCATION_WEBHOOK_PATH = "/revocations";
+    private static final long DEFAULT_BATCH_INTROSPECTION_WINDOW = 2L;
+    private static final int DEFAULT_BATCH_INTROSPECTION_MAX_SIZE = 20;
+    private static final long DEFAULT_HOT_TOKEN_REFRESH_INTERVAL = 5L;
+    private static final int DEFAULT_HOT_TOKEN_MIN_HITS = 10;
+    private static final int DEFAULT_HOT_TOKEN_MAX_COUNT = 100;
+    private static final int DEFAULT_HOT_TOKEN_REFRESH_CONCURRENCY = 4;
+    private static final int DEFAULT_HOT_TOKEN_REFRESH_MAX_RATE = 10;
+    private static final int DEFAULT_CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD = 50;
+    private static final int DEFAULT_CIRCUIT_BREAKER_SLOW_CALL_RATE_THRESHOLD = 100;
+    private static final long DEFAULT_CIRCUIT_BREAKER_SLOW_CALL_DURATION = 5000L;
+    private static final int DEFAULT_CIRCUIT_BREAKER_SLIDING_WINDOW_SIZE = 100;
+    private static final int DEFAULT_CIRCUIT_BREAKER_MINIMUM_NUMBER_OF_CALLS = 20;
+    private static final long DEFAULT_CIRCUIT_BREAKER_OPEN_STATE_DURATION = 30L;
+    private static final int DEFAULT_CIRCUIT_BREAKER_PERMITTED_CALLS_IN_HALF_OPEN_STATE = 5;
+
+    private static final long REVOKED_TOKENS_PURGE_INTERVAL = 60000L;
 
-    private final Map<Thread, HttpClient> httpClients = new ConcurrentHashMap<>();
+    private static final String INACTIVE_INTROSPECTION_PAYLOAD = "{\"active\":false}";
 
-    private HttpClientOptions httpClientOptions;
+    private static final String SHARED_INTROSPECTION_CACHE_PREFIX = "gravitee-resource-oauth2-introspection-";
+
+    private ApplicationContext applicationContext;
+
+    private HttpClient httpClient;
 
     private Vertx vertx;
 
+    private ContextDispatcher contextDispatcher;
+
     private String userAgent;
 
     private String introspectionEndpointURI;
 
     private String userInfoEndpointURI;
 
-    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private RequestTemplate introspectionRequestTemplate;
+
+    private RequestTemplate userInfoRequestTemplate;
+
+    private LoadBalancer introspectionLoadBalancer;
+
+    private DnsCache dnsCache;
+
+    private ConnectionWarmer connectionWarmer;
+
+    private TokenCache<OAuth2Response> introspectionCache;
+
+    private TokenCache<OAuth2Response> negativeIntrospectionCache;
+
+    private TokenCache<UserInfoResponse> userInfoCache;
+
+    private SharedIntrospectionCache sharedIntrospectionCache;
+
+    private RevokedTokens revokedTokens;
+
+    private long revokedTokensPurgeTimerId = -1;
+
+    private RevocationListener revocationListener;
+
+    private BatchIntrospector batchIntrospector;
+
+    private HotTokens hotTokens;
+
+    private long hotTokenRefreshInterval;
+
+    private long hotTokenRefreshTimerId = -1;
+
+    private JwksProvider jwksProvider;
+
+    private JwtValidator jwtValidator;
+
+    private OAuth2ResourceMetrics metrics;
+
+    private RequestGuard requestGuard;
+
+    private HedgingPolicy hedgingPolicy;
+
+    private RequestMetrics.CallListener introspectionCallListener;
+
+    private long requestTimeout;
+
+    private long staleWhileRevalidate;
+
+    private long staleIfError;
+
+    private final ScopeDictionary scopeDictionary = new ScopeDictionary();
+
+    private final RequestCoalescer<OAuth2Response> introspectionRequests = new RequestCoalescer<>(OAuth2Response::new);
+
+    private final RequestCoalescer<UserInfoResponse> userInfoRequests = new RequestCoalescer<>(UserInfoResponse::new);
 
     @Override
     protected void doStart() throws Exception {
@@ -120,16 +261,31 @@ public class OAuth2GenericResource extends OAuth2Resource<OAuth2ResourceConfigur
             : (HTTPS_SCHEME.equals(authorizationServerUrl.getScheme()) ? 443 : 80);
         String authorizationServerHost = authorizationServerUrl.getHost();
 
-        httpClientOptions =
-            new HttpClientOptions()
-                .setDefaultPort(authorizationServerPort)
-                .setDefaultHost(authorizationServerHost)
-                .setIdleTimeout(60)
-                .setConnectTimeout(10000);
+        HttpClientOptions httpClientOptions = new HttpClientOptions()
+            .setDefaultPort(authorizationServerPort)
+            .setDefaultHost(authorizationServerHost)
+            .setMaxPoolSize(positiveOrDefault(configuration().getHttpClientMaxPoolSize(), DEFAULT_HTTP_CLIENT_MAX_POOL_SIZE))
+            .setKeepAlive(configuration().isHttpClientKeepAlive())
+            .setPipelining(configuration().isHttpClientKeepAlive() && configuration().isHttpClientPipelining())
+            .setIdleTimeout(positiveOrDefault(configuration().getHttpClientIdleTimeout(), DEFAULT_HTTP_CLIENT_IDLE_TIMEOUT))
+            .setConnectTimeout(positiveOrDefault(configuration().getHttpClientConnectTimeout(), DEFAULT_HTTP_CLIENT_CONNECT_TIMEOUT));
 
         // Use SSL connection if authorization schema is set to HTTPS
         if (HTTPS_SCHEME.equalsIgnoreCase(authorizationServerUrl.getScheme())) {
-            httpClientOptions.setSsl(true).setVerifyHost(false).setTrustAll(true);
+            httpClientOptions.setSsl(true);
+        }
+        configureSsl(httpClientOptions);
+
+        if (configuration().isHttp2Enabled()) {
+            // HTTP/2 is negotiated using ALPN over TLS, or using an HTTP/1.1 upgrade for clear-text connections:
+            // in both cases, the client keeps on using HTTP/1.1 when the authorization server does not support it.
+            httpClientOptions
+                .setProtocolVersion(HttpVersion.HTTP_2)
+                .setUseAlpn(httpClientOptions.isSsl())
+                .setAlpnVersions(Arrays.asList(HttpVersion.HTTP_2, HttpVersion.HTTP_1_1))
+                .setHttp2ClearTextUpgrade(true)
+                .setHttp2MaxPoolSize(positiveOrDefault(configuration().getHttp2MaxPoolSize(), DEFAULT_HTTP2_MAX_POOL_SIZE))
+                .setHttp2MultiplexingLimit(positiveOrDefault(configuration().getHttp2MultiplexingLimit(), -1));
         }
 
         if (configuration().isUseSystemProxy()) {
@@ -146,60 +302,768 @@ public class OAuth2GenericResource extends OAuth2Resource<OAuth2ResourceConfigur
             }
         }
 
+        if (configuration().isIntrospectionCacheEnabled()) {
+            if (configuration().isIntrospectionCacheOffHeapEnabled()) {
+                int maxMemory = positiveOrDefault(
+                    configuration().getIntrospectionCacheOffHeapMaxMemory(),
+                    DEFAULT_OFF_HEAP_CACHE_MAX_MEMORY
+                );
+                introspectionCache = new OffHeapTokenCache(maxMemory * 1024L * 1024L, scopeDictionary);
+            } else {
+                introspectionCache = new LruTokenCache<>(configuration().getIntrospectionCacheMaxSize());
+            }
+            staleWhileRevalidate = TimeUnit.SECONDS.toMillis(Math.max(0, configuration().getIntrospectionCacheStaleWhileRevalidate()));
+            staleIfError = TimeUnit.SECONDS.toMillis(Math.max(0, configuration().getIntrospectionCacheStaleIfError()));
+        }
+
+        if (configuration().isNegativeCacheEnabled()) {
+            negativeIntrospectionCache = new LruTokenCache<>(configuration().getNegativeCacheMaxSize());
+        }
+
+        if (configuration().isUserInfoCacheEnabled()) {
+            userInfoCache = new LruTokenCache<>(configuration().getUserInfoCacheMaxSize());
+        }
+
         userAgent = NodeUtils.userAgent(applicationContext.getBean(Node.class));
         vertx = applicationContext.getBean(Vertx.class);
+        contextDispatcher = new ContextDispatcher(vertx);
+        requestTimeout = positiveOrDefault(configuration().getRequestTimeout(), DEFAULT_REQUEST_TIMEOUT);
+
+        if (configuration().isDnsCacheEnabled() && !configuration().isUseSystemProxy()) {
+            long dnsCacheTtl = positiveOrDefault(configuration().getDnsCacheTtl(), DEFAULT_DNS_CACHE_TTL);
+            dnsCache = new DnsCache(vertx, TimeUnit.SECONDS.toMillis(dnsCacheTtl));
+        }
+
+        if (introspectionCache != null && configuration().isSharedIntrospectionCacheEnabled()) {
+            sharedIntrospectionCache = createSharedIntrospectionCache();
+        }
+
+        if (introspectionEndpointURI != null) {
+            introspectionRequestTemplate = createIntrospectionRequestTemplate(introspectionEndpointURI);
+
+            List<String> additionalAuthorizationServerUrls = configuration().getAdditionalAuthorizationServerUrls();
+            if (additionalAuthorizationServerUrls != null && !additionalAuthorizationServerUrls.isEmpty()) {
+                introspectionLoadBalancer = createIntrospectionLoadBalancer(additionalAuthorizationServerUrls);
+            }
+        }
+
+        if (userInfoEndpointURI != null) {
+            userInfoRequestTemplate = createUserInfoRequestTemplate();
+        }
+
+        // A single client is shared by all the calling threads: its connection pool is bounded by the configuration
+        // and each request is still dispatched on the Vert.x context of its caller.
+        metrics =
+            configuration().isMetricsEnabled()
+                ? new OAuth2ResourceMetrics(meterRegistry(), name(), introspectionEndpointURI, userInfoEndpointURI)
+                : OAuth2ResourceMetrics.noop();
+
+        httpClient = vertx.createHttpClient(httpClientOptions).connectionHandler(metrics::connectionOpened);
+
+        if (introspectionLoadBalancer != null) {
+            metrics.bindLoadBalancer(introspectionLoadBalancer);
+        }
+
+        if (introspectionCache instanceof OffHeapTokenCache) {
+            metrics.bindOffHeapCache((OffHeapTokenCache) introspectionCache);
+        }
+
+        // Revocations of a client or of a subject are kept as long as the results of their tokens may be cached
+        revokedTokens =
+            new RevokedTokens(
+                TimeUnit.SECONDS.toMillis(configuration().getIntrospectionCacheMaxTtl()) + Math.max(staleWhileRevalidate, staleIfError)
+            );
+        revokedTokensPurgeTimerId = vertx.setPeriodic(REVOKED_TOKENS_PURGE_INTERVAL, timerId -> revokedTokens.purge());
+        revocationListener = createRevocationListener();
+
+        CircuitBreaker circuitBreaker = null;
+        if (configuration().isCircuitBreakerEnabled()) {
+            circuitBreaker = createCircuitBreaker();
+            metrics.bindCircuitBreaker(circuitBreaker);
+        }
+        RateLimiter rateLimiter = createRateLimiter();
+        metrics.bindRateLimiter(rateLimiter);
+        requestGuard = new RequestGuard(circuitBreaker, rateLimiter, configuration().getMaxInFlightRequests());
+        introspectionCallListener = requestGuard;
+
+        if (configuration().isHedgingEnabled()) {
+            hedgingPolicy =
+                new HedgingPolicy(
+                    positiveOrDefault(configuration().getHedgingPercentile(), DEFAULT_HEDGING_PERCENTILE),
+                    positiveOrDefault(configuration().getHedgingMinDelay(), DEFAULT_HEDGING_MIN_DELAY),
+                    positiveOrDefault(configuration().getHedgingMaxRatio(), DEFAULT_HEDGING_MAX_RATIO)
+                );
+            introspectionCallListener = requestGuard.andThen(hedgingPolicy);
+            metrics.bindHedgingPolicy(hedgingPolicy);
+        }
+
+        if (introspectionEndpointURI != null && configuration().isBatchIntrospectionEnabled()) {
+            batchIntrospector = createBatchIntrospector();
+        }
+
+        if (introspectionCache != null && configuration().isHotTokenRefreshEnabled()) {
+            startHotTokenRefresh();
+        }
+
+        // Without keep-alive, connections are closed as soon as the warm-up requests are done
+        if (configuration().isConnectionWarmUpEnabled() && configuration().isHttpClientKeepAlive()) {
+            connectionWarmer = createConnectionWarmer(httpClientOptions.getMaxPoolSize());
+        }
+
+        warmUp();
+
+        if (configuration().isJwtValidationEnabled()) {
+            if (configuration().getJwksUri() == null || configuration().getJwksUri().isEmpty()) {
+                logger.warn("JWT local validation requires a JWKS URI, all the access tokens will be introspected");
+            } else {
+                long jwksRefreshInterval = positiveOrDefault(configuration().getJwksRefreshInterval(), DEFAULT_JWKS_REFRESH_INTERVAL);
+                jwksProvider =
+                    new JwksProvider(
+                        vertx,
+                        httpClient,
+                        configuration().getJwksUri(),
+                        userAgent,
+                        TimeUnit.SECONDS.toMillis(jwksRefreshInterval),
+                        TimeUnit.SECONDS.toMillis(configuration().getJwksMinRefetchInterval()),
+                        requestTimeout
+                    );
+                jwksProvider.start();
+                jwtValidator =
+                    new JwtValidator(
+                        jwksProvider,
+                        configuration().getJwtIssuer(),
+                        configuration().getJwtAudience(),
+                        configuration().getJwtClockSkew()
+                    );
+            }
+        }
     }
 
     @Override
     protected void doStop() throws Exception {
         super.doStop();
 
-        httpClients
-            .values()
-            .forEach(httpClient -> {
-                try {
-                    httpClient.close();
-                } catch (IllegalStateException ise) {
-                    logger.warn(ise.getMessage());
+        if (jwksProvider != null) {
+            jwksProvider.stop();
+        }
+
+        if (revocationListener != null) {
+            revocationListener.close();
+            revocationListener = null;
+        }
+
+        if (revokedTokensPurgeTimerId != -1) {
+            vertx.cancelTimer(revokedTokensPurgeTimerId);
+            revokedTokensPurgeTimerId = -1;
+        }
+
+        if (hotTokenRefreshTimerId != -1) {
+            vertx.cancelTimer(hotTokenRefreshTimerId);
+            hotTokenRefreshTimerId = -1;
+        }
+
+        if (hotTokens != null) {
+            hotTokens.clear();
+        }
+
+        if (connectionWarmer != null) {
+            connectionWarmer.stop();
+        }
+
+        if (httpClient != null) {
+            try {
+                httpClient.close();
+            } catch (IllegalStateException ise) {
+                logger.warn(ise.getMessage());
+            }
+        }
+
+        if (sharedIntrospectionCache != null) {
+            sharedIntrospectionCache.close();
+            sharedIntrospectionCache = null;
+        }
+
+        if (introspectionCache != null) {
+            introspectionCache.clear();
+        }
+
+        if (negativeIntrospectionCache != null) {
+            negativeIntrospectionCache.clear();
+        }
+
+        if (userInfoCache != null) {
+            userInfoCache.clear();
+        }
+
+        if (dnsCache != null) {
+            dnsCache.clear();
+        }
+
+        if (metrics != null) {
+            metrics.close();
+        }
+    }
+
+    /**
+     * Introspects the access token, from a Vert.x context or from any other thread. Cached results are given back
+     * right away, the future being already completed. Otherwise, the future is completed on the context of the caller,
+     * or on one of the event-loop contexts of the resource when not called from a Vert.x thread. It is completed with
+     * the response, including when it is a failure: see {@link Future#toCompletionStage()} to compose it as a
+     * {@link java.util.concurrent.CompletionStage}.
+     */
+    public Future<OAuth2Response> introspect(String accessToken) {
+        final String tokenDigest = TokenDigest.digest(accessToken);
+
+        if (revokedTokens.isRevoked(tokenDigest)) {
+            logger.debug("Access token has been revoked by the authorization server");
+            return Future.succeededFuture(new OAuth2Response(false, INACTIVE_INTROSPECTION_PAYLOAD));
+        }
+
+        if (introspectionCache != null) {
+            if (hotTokens != null) {
+                hotTokens.record(tokenDigest, accessToken);
+            }
+
+            TokenCache.CacheEntry<OAuth2Response> cachedEntry = introspectionCache.getEntry(tokenDigest);
+            if (cachedEntry != null && revokedTokens.isRevoked(cachedEntry.getValue())) {
+                logger.debug("Access token introspection result found in cache belongs to a revoked client or subject");
+                introspectionCache.evict(tokenDigest);
+                cachedEntry = null;
+            }
+
+            if (cachedEntry != null && !cachedEntry.isStale()) {
+                metrics.introspectionCacheLookup(true);
+                logger.debug("Access token introspection result found in cache");
+                return Future.succeededFuture(cachedEntry.getValue());
+            }
+
+            if (cachedEntry != null && System.currentTimeMillis() < cachedEntry.getFreshUntil() + staleWhileRevalidate) {
+                // Serve the previous result right away, the next requests will get the refreshed one
+                metrics.introspectionCacheStaleLookup();
+                logger.debug("Stale access token introspection result found in cache, refreshing it in the background");
+                runOnResourceContext(() -> requestIntrospection(accessToken, tokenDigest, refreshedResponse -> {}));
+                return Future.succeededFuture(cachedEntry.getValue());
+            }
+
+            metrics.introspectionCacheLookup(false);
+        }
+
+        if (negativeIntrospectionCache != null) {
+            OAuth2Response rejectedResponse = negativeIntrospectionCache.get(tokenDigest);
+            metrics.negativeCacheLookup(rejectedResponse != null);
+            if (rejectedResponse != null) {
+                logger.debug("Access token has been recently rejected by the authorization server");
+                return Future.succeededFuture(rejectedResponse);
+            }
+        }
+
+        final Promise<OAuth2Response> promise = Promise.promise();
+        runOnResourceContext(() -> validateOrIntrospect(accessToken, tokenDigest, promise::complete));
+        return promise.future();
+    }
+
+    private void validateOrIntrospect(String accessToken, String tokenDigest, Handler<OAuth2Response> responseHandler) {
+        if (jwtValidator == null) {
+            requestIntrospection(accessToken, tokenDigest, responseHandler);
+            return;
+        }
+
+        jwtValidator.validate(
+            accessToken,
+            result -> {
+                switch (result.getStatus()) {
+                    case VALID:
+                        responseHandler.handle(jwtResponse(result.getPayload()));
+                        break;
+                    case INVALID:
+                        logger.debug("Access token rejected by local JWT validation: {}", result.getPayload());
+                        OAuth2Response oAuth2Response = new OAuth2Response(false, INACTIVE_INTROSPECTION_PAYLOAD);
+                        cacheRejection(tokenDigest, oAuth2Response, false);
+                        responseHandler.handle(oAuth2Response);
+                        break;
+                    default:
+                        requestIntrospection(accessToken, tokenDigest, responseHandler);
                 }
-            });
+            }
+        );
+    }
+
+    /**
+     * Runs the action right away from a Vert.x context, on an event-loop of the resource otherwise rather than on a new
+     * context created for the calling thread. Everything past the in-memory caches runs there, local JWT validation
+     * and its JWKS fetches included.
+     */
+    private void runOnResourceContext(Runnable action) {
+        if (Vertx.currentContext() == null) {
+            contextDispatcher.context().runOnContext(v -> action.run());
+        } else {
+            action.run();
+        }
     }
 
+    /**
+     * Same as {@link #introspect(String)}, the handler being called with the response on the context of the caller, or
+     * on one of the event-loop contexts of the resource when not called from a Vert.x thread.
+     */
     @Override
     public void introspect(String accessToken, Handler<OAuth2Response> responseHandler) {
-        HttpClient httpClient = httpClients.computeIfAbsent(Thread.currentThread(), context -> vertx.createHttpClient(httpClientOptions));
+        runOnResourceContext(() ->
+            introspect(accessToken)
+                .onComplete(result -> responseHandler.handle(result.succeeded() ? result.result() : new OAuth2Response(result.cause())))
+        );
+    }
+
+    /**
+     * Same as {@link #introspect(String)}, the access token being introspected on each subscription.
+     */
+    public Single<OAuth2Response> rxIntrospect(String accessToken) {
+        return Single.create(emitter -> introspect(accessToken).onComplete(result -> emit(result, emitter)));
+    }
+
+    /**
+     * Removes the introspection result and the userinfo of the access token from the caches, on all the gateway nodes
+     * when the introspection cache is shared.
+     */
+    public void invalidate(String accessToken) {
+        final String tokenDigest = TokenDigest.digest(accessToken);
+
+        if (introspectionCache != null) {
+            introspectionCache.evict(tokenDigest);
+        }
+
+        if (sharedIntrospectionCache != null) {
+            sharedIntrospectionCache.evict(tokenDigest);
+        }
+
+        if (userInfoCache != null) {
+            userInfoCache.evict(tokenDigest);
+        }
+    }
+
+    /**
+     * Evicts the tokens of a revocation event pushed by the authorization server from the caches: a revoked token is
+     * rejected right away, while the cached results of the tokens of a revoked client or subject are not served
+     * anymore.
+     */
+    public void revoke(RevocationEvent event) {
+        metrics.revoked(event);
+
+        String tokenDigest = event.getToken() != null ? TokenDigest.digest(event.getToken()) : event.getTokenDigest();
+        if (tokenDigest != null) {
+            logger.debug("Access token revoked by the authorization server");
+            revokedTokens.revokeToken(tokenDigest);
+            cacheRejection(tokenDigest, new OAuth2Response(false, INACTIVE_INTROSPECTION_PAYLOAD), true);
+        }
+
+        if (event.getClientId() != null || event.getSubject() != null) {
+            logger.debug(
+                "Access tokens of client {} or subject {} revoked by the authorization server",
+                event.getClientId(),
+                event.getSubject()
+            );
+            if (event.getClientId() != null) {
+                revokedTokens.revokeClient(event.getClientId());
+            }
+            if (event.getSubject() != null) {
+                revokedTokens.revokeSubject(event.getSubject());
+            }
+            // Userinfo results do not tell the client of the token: drop them all, they are fetched again on demand
+            if (userInfoCache != null) {
+                userInfoCache.clear();
+            }
+        }
+    }
+
+    private void requestIntrospection(String accessToken, String tokenDigest, Handler<OAuth2Response> responseHandler) {
+        // Concurrent introspections of the same access token share a single call to the authorization server
+        introspectionRequests.execute(
+            tokenDigest,
+            responseHandler,
+            handler -> {
+                if (sharedIntrospectionCache == null) {
+                    introspectRemotely(accessToken, tokenDigest, handler);
+                    return;
+                }
+
+                sharedIntrospectionCache.get(
+                    accessToken,
+                    tokenDigest,
+                    sharedEntry -> {
+                        metrics.sharedCacheLookup(sharedEntry != null);
+                        if (sharedEntry == null) {
+                            introspectRemotely(accessToken, tokenDigest, handler);
+                            return;
+                        }
+
+                        final OAuth2Response oAuth2Response;
+                        try {
+                            String content = sharedEntry.getPayload();
+                            IntrospectionPayload payload = IntrospectionPayload.parse(Buffer.buffer(content), getUserClaim());
+                            oAuth2Response = introspectionResponse(payload, content, sharedEntry.getInsertedAt());
+                        } catch (IOException ioe) {
+                            introspectRemotely(accessToken, tokenDigest, handler);
+                            return;
+                        }
+
+                        if (revokedTokens.isRevoked(oAuth2Response)) {
+                            introspectRemotely(accessToken, tokenDigest, handler);
+                            return;
+                        }
+
+                        logger.debug("Access token introspection result found in the shared cache");
+                        long now = System.currentTimeMillis();
+                        introspectionCache.put(
+                            tokenDigest,
+                            oAuth2Response,
+                            sharedEntry.getFreshUntil() - now,
+                            sharedEntry.getExpiresAt() - now
+                        );
+                        handler.handle(oAuth2Response);
+                    }
+                );
+            }
+        );
+    }
+
+    private void startHotTokenRefresh() {
+        OAuth2ResourceConfiguration configuration = configuration();
+        hotTokens =
+            new HotTokens(
+                positiveOrDefault(configuration.getHotTokenMinHits(), DEFAULT_HOT_TOKEN_MIN_HITS),
+                positiveOrDefault(configuration.getHotTokenMaxCount(), DEFAULT_HOT_TOKEN_MAX_COUNT)
+            );
+        metrics.bindHotTokens(hotTokens);
+
+        hotTokenRefreshInterval =
+            TimeUnit.SECONDS.toMillis(positiveOrDefault(configuration.getHotTokenRefreshInterval(), DEFAULT_HOT_TOKEN_REFRESH_INTERVAL));
+        final int concurrency = positiveOrDefault(configuration.getHotTokenRefreshConcurrency(), DEFAULT_HOT_TOKEN_REFRESH_CONCURRENCY);
+        final long maxRefreshes = Math.max(
+            1,
+            positiveOrDefault(configuration.getHotTokenRefreshMaxRate(), DEFAULT_HOT_TOKEN_REFRESH_MAX_RATE) *
+            TimeUnit.MILLISECONDS.toSeconds(hotTokenRefreshInterval)
+        );
+
+        hotTokenRefreshTimerId = vertx.setPeriodic(hotTokenRefreshInterval, timerId -> refreshHotTokens(concurrency, maxRefreshes));
+    }
+
+    /**
+     * Introspects again, the hottest first, the hot tokens whose cached result becomes stale within the next two refresh
+     * intervals: they are refreshed before any request can miss the cache.
+     */
+    private void refreshHotTokens(int concurrency, long maxRefreshes) {
+        final long refreshBefore = System.currentTimeMillis() + 2 * hotTokenRefreshInterval;
+        final Queue<HotTokens.HotToken> refreshes = new ConcurrentLinkedQueue<>();
+
+        for (HotTokens.HotToken hotToken : hotTokens.hottest()) {
+            if (refreshes.size() >= maxRefreshes) {
+                break;
+            }
+
+            TokenCache.CacheEntry<OAuth2Response> cachedEntry = introspectionCache.getEntry(hotToken.getTokenDigest());
+            if (cachedEntry == null) {
+                // Either expired or not active anymore, the next request introspects it again
+                hotTokens.remove(hotToken.getTokenDigest());
+            } else if (cachedEntry.getFreshUntil() <= refreshBefore) {
+                refreshes.add(hotToken);
+            }
+        }
+
+        hotTokens.decay();
+
+        if (!refreshes.isEmpty()) {
+            logger.debug("Refreshing {} hot access token introspection(s)", refreshes.size());
+            for (int i = 0; i < concurrency; i++) {
+                refreshNextHotToken(refreshes);
+            }
+        }
+    }
+
+    private void refreshNextHotToken(Queue<HotTokens.HotToken> refreshes) {
+        HotTokens.HotToken hotToken = refreshes.poll();
+        if (hotToken == null) {
+            return;
+        }
+
+        metrics.hotTokenRefreshed();
+        // Skip the shared cache, which holds the same result as the local one
+        introspectionRequests.execute(
+            hotToken.getTokenDigest(),
+            oAuth2Response -> refreshNextHotToken(refreshes),
+            handler -> introspectRemotely(hotToken.getAccessToken(), hotToken.getTokenDigest(), handler)
+        );
+    }
+
+    private void introspectRemotely(String accessToken, String tokenDigest, Handler<OAuth2Response> responseHandler) {
+        if (batchIntrospector == null) {
+            doIntrospect(accessToken, tokenDigest, responseHandler);
+            return;
+        }
+
+        batchIntrospector.introspect(
+            accessToken,
+            result -> {
+                if (result.succeeded()) {
+                    introspected(accessToken, tokenDigest, result.result(), null, responseHandler);
+                } else {
+                    doIntrospect(accessToken, tokenDigest, responseHandler);
+                }
+            }
+        );
+    }
+
+    private void doIntrospect(String accessToken, String tokenDigest, Handler<OAuth2Response> responseHandler) {
+        if (hedgingPolicy == null) {
+            sendIntrospection(accessToken, tokenDigest, responseHandler);
+            return;
+        }
+
+        final HedgedIntrospection hedgedIntrospection = new HedgedIntrospection(responseHandler);
+        final long hedgingTimerId = vertx.setTimer(
+            hedgingPolicy.delay(),
+            timerId -> {
+                // Never adds load to an authorization server the circuit breaker found failing
+                if (hedgedIntrospection.hedge(() -> isCircuitClosed() && hedgingPolicy.tryHedge())) {
+                    logger.debug("Access token introspection is late, sending a second request");
+                    metrics.introspectionHedged();
+                    sendIntrospection(accessToken, tokenDigest, hedgedIntrospection::handle);
+                }
+            }
+        );
+        sendIntrospection(
+            accessToken,
+            tokenDigest,
+            oAuth2Response -> {
+                if (hedgedIntrospection.handle(oAuth2Response)) {
+                    vertx.cancelTimer(hedgingTimerId);
+                }
+            }
+        );
+    }
+
+    private boolean isCircuitClosed() {
+        CircuitBreaker circuitBreaker = requestGuard.getCircuitBreaker();
+        return circuitBreaker == null || circuitBreaker.getState() == CircuitBreaker.State.CLOSED;
+    }
+
+    private void sendIntrospection(String accessToken, String tokenDigest, Handler<OAuth2Response> responseHandler) {
+        requestGuard.acquire(
+            RateLimiter.Priority.HIGH,
+            rejection -> {
+                if (rejection != null) {
+                    logger.debug("Access token introspection rejected: {}", rejection.tagValue());
+                    metrics.introspection().reject(rejection);
+                    introspectionFailed(tokenDigest, rejection, new OAuth2Response(rejectionException(rejection)), responseHandler);
+                    return;
+                }
+
+                callIntrospection(accessToken, tokenDigest, responseHandler);
+            }
+        );
+    }
+
+    private void callIntrospection(String accessToken, String tokenDigest, Handler<OAuth2Response> responseHandler) {
+        // The selected authorization server is notified of the end of the call along with the other listeners
+        final LoadBalancer.Endpoint endpoint = introspectionLoadBalancer == null ? null : introspectionLoadBalancer.acquire();
+        final RequestTemplate requestTemplate = endpoint == null ? introspectionRequestTemplate : endpoint.getRequestTemplate();
+        final RequestOptions reqOptions = introspectionRequest(requestTemplate, accessToken);
+        final RequestMetrics.Call call = metrics
+            .introspection(endpoint)
+            .start(endpoint == null ? introspectionCallListener : introspectionCallListener.andThen(endpoint));
 
+        httpClient
+            .request(reqOptions)
+            .compose(request -> {
+                requestTemplate.prepare(request, accessToken);
+                requestTemplate.expire(vertx, request);
+
+                String body = requestTemplate.body(accessToken);
+                return body == null ? request.send() : request.send(body);
+            })
+            .onComplete(asyncResponse -> {
+                if (asyncResponse.failed()) {
+                    introspectionCallFailed(tokenDigest, asyncResponse.cause(), call, responseHandler);
+                    return;
+                }
+
+                final HttpClientResponse response = asyncResponse.result();
+                response
+                    .body()
+                    .onComplete(asyncBody -> {
+                        if (asyncBody.failed()) {
+                            introspectionCallFailed(tokenDigest, asyncBody.cause(), call, responseHandler);
+                        } else {
+                            introspectionAnswered(accessToken, tokenDigest, response, asyncBody.result(), call, responseHandler);
+                        }
+                    });
+            });
+    }
+
+    private void introspectionCallFailed(
+        String tokenDigest,
+        Throwable throwable,
+        RequestMetrics.Call call,
+        Handler<OAuth2Response> responseHandler
+    ) {
+        logger.error("An error occurs while checking OAuth2 token", throwable);
+        Outcome outcome = Outcome.of(throwable);
+        call.end(outcome);
+        introspectionFailed(tokenDigest, outcome, new OAuth2Response(throwable), responseHandler);
+    }
+
+    private void introspectionAnswered(
+        String accessToken,
+        String tokenDigest,
+        HttpClientResponse response,
+        Buffer buffer,
+        RequestMetrics.Call call,
+        Handler<OAuth2Response> responseHandler
+    ) {
+        if (response.statusCode() == HttpStatusCode.OK_200) {
+            // According to RFC 7662 : Note that a properly formed and authorized query for an inactive or otherwise
+            // invalid token (or a token the protected resource is not allowed to know about) is not considered an
+            // error response by this specification. In these cases, the authorization server MUST instead respond
+            // with an introspection response with the "active" field set to "false" as described in Section 2.2.
+            introspected(accessToken, tokenDigest, buffer, call, responseHandler);
+            return;
+        }
+
+        logger.error(
+            "An error occurs while checking OAuth2 token. " + "Request ends with status {}: {}",
+            response.statusCode(),
+            buffer.toString()
+        );
+        OAuth2Response oAuth2Response = new OAuth2Response(new OAuth2ResourceException("An error occurs while checking OAuth2 " + "token"));
+        Outcome outcome = Outcome.of(response.statusCode());
+        call.end(outcome);
+        requestGuard.onResponse(response.statusCode(), response.getHeader(HttpHeaders.RETRY_AFTER));
+        if (response.statusCode() == HttpStatusCode.UNAUTHORIZED_401) {
+            cacheRejection(tokenDigest, oAuth2Response, false);
+        }
+        introspectionFailed(tokenDigest, outcome, oAuth2Response, responseHandler);
+    }
+
+    /**
+     * Builds the introspection request of the given access token, visible for benchmarking purpose.
+     */
+    RequestOptions introspectionRequest(String accessToken) {
+        return introspectionRequest(introspectionRequestTemplate, accessToken);
+    }
+
+    private RequestOptions introspectionRequest(RequestTemplate requestTemplate, String accessToken) {
+        RequestOptions reqOptions = requestTemplate.options(accessToken);
+        logger.debug("Introspect access token by requesting {} [{}]", reqOptions.getURI(), reqOptions.getMethod());
+        return reqOptions;
+    }
+
+    private RequestTemplate createIntrospectionRequestTemplate(String endpointURI) {
         OAuth2ResourceConfiguration configuration = configuration();
-        StringBuilder introspectionUriBuilder = new StringBuilder(introspectionEndpointURI);
+        HttpMethod httpMethod = httpMethod(configuration.getIntrospectionEndpointMethod());
+
+        RequestTemplate.Builder builder = introspectionRequestTemplateBuilder(httpMethod, endpointURI);
 
         if (configuration.isTokenIsSuppliedByQueryParam()) {
-            introspectionUriBuilder.append('?').append(configuration.getTokenQueryParamName()).append('=').append(accessToken);
+            builder.tokenQueryParam(configuration.getTokenQueryParamName());
+        }
+
+        if (configuration.isTokenIsSuppliedByHttpHeader()) {
+            builder.tokenHeader(configuration.getTokenHeaderName(), null);
+        }
+
+        if (httpMethod == HttpMethod.POST && configuration.isTokenIsSuppliedByFormUrlEncoded()) {
+            builder.tokenFormParam(configuration.getTokenFormUrlEncodedName());
         }
 
-        String introspectionEndpointURI = introspectionUriBuilder.toString();
-        logger.debug(
-            "Introspect access token by requesting {} [{}]",
-            introspectionEndpointURI,
-            configuration.getIntrospectionEndpointMethod()
+        return builder.build();
+    }
+
+    /**
+     * Balances the introspections between the configured authorization server and the additional ones, which only
+     * differ by their URL.
+     */
+    private LoadBalancer createIntrospectionLoadBalancer(List<String> additionalAuthorizationServerUrls) {
+        OAuth2ResourceConfiguration configuration = configuration();
+
+        Map<String, RequestTemplate> endpoints = new LinkedHashMap<>();
+        endpoints.put(introspectionEndpointURI, introspectionRequestTemplate);
+        for (String additionalAuthorizationServerUrl : additionalAuthorizationServerUrls) {
+            String endpointURI;
+            if (configuration.getAuthorizationServerUrl() != null && !configuration.getAuthorizationServerUrl().isEmpty()) {
+                endpointURI = additionalAuthorizationServerUrl + '/' + configuration.getIntrospectionEndpoint();
+            } else {
+                // Only the scheme, host and port of the absolute introspection endpoint are replaced
+                URI introspectionEndpoint = URI.create(introspectionEndpointURI);
+                endpointURI =
+                    additionalAuthorizationServerUrl +
+                    '/' +
+                    introspectionEndpoint.getRawPath() +
+                    (introspectionEndpoint.getRawQuery() == null ? "" : '?' + introspectionEndpoint.getRawQuery());
+            }
+            endpointURI = DUPLICATE_SLASH_REMOVER.matcher(endpointURI).replaceAll("/");
+            endpoints.putIfAbsent(endpointURI, createIntrospectionRequestTemplate(endpointURI));
+        }
+
+        logger.info("Balancing token introspections between authorization servers {}", endpoints.keySet());
+
+        return new LoadBalancer(
+            LoadBalancer.Strategy.of(configuration.getLoadBalancingStrategy()),
+            endpoints,
+            positiveOrDefault(configuration.getEndpointEjectionFailures(), DEFAULT_ENDPOINT_EJECTION_FAILURES),
+            TimeUnit.SECONDS.toMillis(positiveOrDefault(configuration.getEndpointEjectionDuration(), DEFAULT_ENDPOINT_EJECTION_DURATION))
         );
+    }
 
-        final HttpMethod httpMethod = HttpMethod.valueOf(configuration.getIntrospectionEndpointMethod().toUpperCase());
+    private BatchIntrospector createBatchIntrospector() {
+        OAuth2ResourceConfiguration configuration = configuration();
+        String batchIntrospectionEndpointURI = introspectionEndpointURI;
+        if (configuration.getBatchIntrospectionEndpoint() != null && !configuration.getBatchIntrospectionEndpoint().isEmpty()) {
+            batchIntrospectionEndpointURI = configuration.getBatchIntrospectionEndpoint();
+            if (configuration.getAuthorizationServerUrl() != null && !configuration.getAuthorizationServerUrl().isEmpty()) {
+                batchIntrospectionEndpointURI = configuration.getAuthorizationServerUrl() + '/' + batchIntrospectionEndpointURI;
+            }
+            batchIntrospectionEndpointURI = DUPLICATE_SLASH_REMOVER.matcher(batchIntrospectionEndpointURI).replaceAll("/");
+        }
 
-        final RequestOptions reqOptions = new RequestOptions()
-            .setMethod(httpMethod)
-            .setAbsoluteURI(introspectionEndpointURI)
-            .setTimeout(30000L)
-            .putHeader(HttpHeaders.USER_AGENT, userAgent)
-            .putHeader("X-Gravitee-Request-Id", UUID.toString(UUID.random()));
+        RequestTemplate requestTemplate = introspectionRequestTemplateBuilder(HttpMethod.POST, batchIntrospectionEndpointURI)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+            .build();
 
-        if (configuration().isUseClientAuthorizationHeader()) {
+        return new BatchIntrospector(
+            vertx,
+            httpClient,
+            requestTemplate,
+            metrics.batchIntrospection(batchIntrospectionEndpointURI),
+            requestGuard,
+            positiveOrDefault(configuration.getBatchIntrospectionWindow(), DEFAULT_BATCH_INTROSPECTION_WINDOW),
+            positiveOrDefault(configuration.getBatchIntrospectionMaxSize(), DEFAULT_BATCH_INTROSPECTION_MAX_SIZE),
+            configuration.getBatchIntrospectionTokensField(),
+            configuration.getBatchIntrospectionResultsPath(),
+            configuration.getBatchIntrospectionTokenPath()
+        );
+    }
+
+    /**
+     * The parts shared by the introspection requests: timeout, user agent, expected content and client credentials.
+     */
+    private RequestTemplate.Builder introspectionRequestTemplateBuilder(HttpMethod httpMethod, String endpointURI) {
+        OAuth2ResourceConfiguration configuration = configuration();
+
+        RequestTemplate.Builder builder = RequestTemplate
+            .builder(httpMethod, endpointURI)
+            .timeout(requestTimeout)
+            .totalTimeout(configuration().getRequestTotalTimeout())
+            .dnsCache(dnsCache)
+            .header(HttpHeaders.USER_AGENT, userAgent)
+            // Set `Accept` header to ask for application/json content
+            .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+
+        if (configuration.isUseClientAuthorizationHeader()) {
             String authorizationHeader = configuration.getClientAuthorizationHeaderName();
             String authorizationValue =
                 configuration.getClientAuthorizationHeaderScheme().trim() +
                 AUTHORIZATION_HEADER_SCHEME_SEPARATOR +
                 (
-                    configuration().getUseClientToken()
-                        ? configuration().getClientToken()
+                    configuration.getUseClientToken()
+                        ? configuration.getClientToken()
                         : Base64
                             .getEncoder()
                             .encodeToString(
@@ -210,198 +1074,537 @@ public class OAuth2GenericResource extends OAuth2Resource<OAuth2ResourceConfigur
                                 ).getBytes()
                             )
                 );
-            reqOptions.putHeader(authorizationHeader, authorizationValue);
+            builder.header(authorizationHeader, authorizationValue);
             logger.debug("Set client authorization using HTTP header {} with value {}", authorizationHeader, authorizationValue);
         }
 
-        // Set `Accept` header to ask for application/json content
-        reqOptions.putHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+        return builder;
+    }
 
-        if (configuration.isTokenIsSuppliedByHttpHeader()) {
-            reqOptions.putHeader(configuration.getTokenHeaderName(), accessToken);
+    /**
+     * Gets the userinfo of the access token, the same way as {@link #introspect(String)}.
+     */
+    public Future<UserInfoResponse> userInfo(String accessToken) {
+        final String tokenDigest = TokenDigest.digest(accessToken);
+
+        if (userInfoCache != null) {
+            UserInfoResponse cachedResponse = userInfoCache.get(tokenDigest);
+            metrics.userInfoCacheLookup(cachedResponse != null);
+            if (cachedResponse != null) {
+                logger.debug("Userinfo found in cache");
+                return Future.succeededFuture(cachedResponse);
+            }
+        }
+
+        final Promise<UserInfoResponse> promise = Promise.promise();
+        runOnResourceContext(() -> requestUserInfo(accessToken, tokenDigest, promise::complete));
+        return promise.future();
+    }
+
+    /**
+     * Same as {@link #userInfo(String)}, the handler being called with the response on the same context as
+     * {@link #introspect(String, Handler)}.
+     */
+    @Override
+    public void userInfo(String accessToken, Handler<UserInfoResponse> responseHandler) {
+        runOnResourceContext(() ->
+            userInfo(accessToken)
+                .onComplete(result -> responseHandler.handle(result.succeeded() ? result.result() : new UserInfoResponse(result.cause())))
+        );
+    }
+
+    /**
+     * Same as {@link #userInfo(String)}, the userinfo being requested on each subscription.
+     */
+    public Single<UserInfoResponse> rxUserInfo(String accessToken) {
+        return Single.create(emitter -> userInfo(accessToken).onComplete(result -> emit(result, emitter)));
+    }
+
+    private static <T> void emit(AsyncResult<T> result, SingleEmitter<T> emitter) {
+        if (result.succeeded()) {
+            emitter.onSuccess(result.result());
+        } else {
+            emitter.onError(result.cause());
         }
+    }
+
+    private void requestUserInfo(String accessToken, String tokenDigest, Handler<UserInfoResponse> responseHandler) {
+        // Concurrent requests of the same userinfo share a single call to the authorization server
+        userInfoRequests.execute(tokenDigest, responseHandler, handler -> doUserInfo(accessToken, tokenDigest, handler));
+    }
+
+    private void doUserInfo(String accessToken, String tokenDigest, Handler<UserInfoResponse> responseHandler) {
+        // Userinfo requests wait for the introspections, which the requests to the gateway depend on
+        requestGuard.acquire(
+            RateLimiter.Priority.LOW,
+            rejection -> {
+                if (rejection != null) {
+                    logger.debug("Userinfo request rejected: {}", rejection.tagValue());
+                    metrics.userInfo().reject(rejection);
+                    responseHandler.handle(new UserInfoResponse(rejectionException(rejection)));
+                    return;
+                }
+
+                callUserInfo(accessToken, tokenDigest, responseHandler);
+            }
+        );
+    }
+
+    private void callUserInfo(String accessToken, String tokenDigest, Handler<UserInfoResponse> responseHandler) {
+        final RequestOptions reqOptions = userInfoRequest(accessToken);
+        final RequestMetrics.Call call = metrics.userInfo().start(requestGuard);
 
         httpClient
             .request(reqOptions)
-            .onFailure(
-                new io.vertx.core.Handler<Throwable>() {
-                    @Override
-                    public void handle(Throwable event) {
-                        logger.error("An error occurs while checking OAuth2 token", event);
-                        responseHandler.handle(new OAuth2Response(event));
-                    }
+            .compose(request -> {
+                userInfoRequestTemplate.prepare(request, accessToken);
+                userInfoRequestTemplate.expire(vertx, request);
+                return request.send();
+            })
+            .onComplete(asyncResponse -> {
+                if (asyncResponse.failed()) {
+                    userInfoCallFailed(asyncResponse.cause(), call, responseHandler);
+                    return;
                 }
-            )
-            .onSuccess(
-                new io.vertx.core.Handler<HttpClientRequest>() {
-                    @Override
-                    public void handle(HttpClientRequest request) {
-                        request
-                            .response(
-                                new io.vertx.core.Handler<AsyncResult<HttpClientResponse>>() {
-                                    @Override
-                                    public void handle(AsyncResult<HttpClientResponse> asyncResponse) {
-                                        if (asyncResponse.failed()) {
-                                            logger.error("An error occurs while checking OAuth2 token", asyncResponse.cause());
-                                            responseHandler.handle(new OAuth2Response(asyncResponse.cause()));
-                                        } else {
-                                            final HttpClientResponse response = asyncResponse.result();
-                                            response.bodyHandler(buffer -> {
-                                                if (response.statusCode() == HttpStatusCode.OK_200) {
-                                                    // According to RFC 7662 : Note that a properly formed
-                                                    // and authorized query for an inactive or otherwise
-                                                    // invalid token (or a token the protected resource is
-                                                    // not allowed to know about) is not considered an
-                                                    // error response by this specification.  In these
-                                                    // cases, the authorization server MUST instead
-                                                    // respond with an introspection response with the
-                                                    // "active" field set to "false" as described in
-                                                    // Section 2.2.
-                                                    String content = buffer.toString();
-
-                                                    try {
-                                                        JsonNode introspectNode = MAPPER.readTree(content);
-                                                        JsonNode activeNode = introspectNode.get("active");
-                                                        if (activeNode != null) {
-                                                            boolean isActive = activeNode.asBoolean();
-                                                            responseHandler.handle(new OAuth2Response(isActive, content));
-                                                        } else {
-                                                            responseHandler.handle(new OAuth2Response(true, content));
-                                                        }
-                                                    } catch (IOException e) {
-                                                        logger.error(
-                                                            "Unable to validate introspection " + "endpoint payload: {}",
-                                                            content,
-                                                            e
-                                                        );
-                                                        responseHandler.handle(new OAuth2Response(e));
-                                                    }
-                                                } else {
-                                                    logger.error(
-                                                        "An error occurs while checking OAuth2 token. " + "Request ends with status {}: {}",
-                                                        response.statusCode(),
-                                                        buffer.toString()
-                                                    );
-                                                    responseHandler.handle(
-                                                        new OAuth2Response(
-                                                            new OAuth2ResourceException("An error occurs while checking OAuth2 " + "token")
-                                                        )
-                                                    );
-                                                }
-                                            });
-                                        }
-                                    }
-                                }
-                            )
-                            .exceptionHandler(
-                                new io.vertx.core.Handler<Throwable>() {
-                                    @Override
-                                    public void handle(Throwable event) {
-                                        logger.error("An error occurs while checking OAuth2 token", event);
-                                        responseHandler.handle(new OAuth2Response(event));
-                                    }
-                                }
-                            );
-
-                        if (httpMethod == HttpMethod.POST && configuration.isTokenIsSuppliedByFormUrlEncoded()) {
-                            request.headers().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED);
-                            request.end(configuration.getTokenFormUrlEncodedName() + '=' + accessToken);
+
+                // The body may fail after the status, the call ends there too so that its permit is released
+                final HttpClientResponse response = asyncResponse.result();
+                response
+                    .body()
+                    .onComplete(asyncBody -> {
+                        if (asyncBody.failed()) {
+                            userInfoCallFailed(asyncBody.cause(), call, responseHandler);
                         } else {
-                            request.end();
+                            userInfoAnswered(tokenDigest, response, asyncBody.result(), call, responseHandler);
                         }
-                    }
-                }
-            );
+                    });
+            });
     }
 
-    @Override
-    public void userInfo(String accessToken, Handler<UserInfoResponse> responseHandler) {
-        HttpClient httpClient = httpClients.computeIfAbsent(Thread.currentThread(), context -> vertx.createHttpClient(httpClientOptions));
+    private void userInfoCallFailed(Throwable throwable, RequestMetrics.Call call, Handler<UserInfoResponse> responseHandler) {
+        logger.error("An error occurs while getting userinfo from access token", throwable);
+        call.end(Outcome.of(throwable));
+        responseHandler.handle(new UserInfoResponse(throwable));
+    }
 
+    private void userInfoAnswered(
+        String tokenDigest,
+        HttpClientResponse response,
+        Buffer buffer,
+        RequestMetrics.Call call,
+        Handler<UserInfoResponse> responseHandler
+    ) {
+        logger.debug("Userinfo endpoint returns a response with a {} status code", response.statusCode());
+
+        if (response.statusCode() == HttpStatusCode.OK_200) {
+            call.end(Outcome.SUCCESS);
+            UserInfoResponse userInfoResponse = new UserInfoResponse(true, buffer.toString());
+            if (userInfoCache != null) {
+                cacheUserInfo(tokenDigest, userInfoResponse);
+            }
+            responseHandler.handle(userInfoResponse);
+            return;
+        }
+
+        logger.error(
+            "An error occurs while getting userinfo from access token. Request ends with status {}: {}",
+            response.statusCode(),
+            buffer.toString()
+        );
+        call.end(Outcome.of(response.statusCode()));
+        requestGuard.onResponse(response.statusCode(), response.getHeader(HttpHeaders.RETRY_AFTER));
+        responseHandler.handle(
+            new UserInfoResponse(new OAuth2ResourceException("An error occurs while getting userinfo from access token"))
+        );
+    }
+
+    /**
+     * Builds the userinfo request of the given access token, visible for benchmarking purpose.
+     */
+    RequestOptions userInfoRequest(String accessToken) {
+        RequestOptions reqOptions = userInfoRequestTemplate.options(accessToken);
+        logger.debug("Get userinfo by requesting {} [{}]", reqOptions.getURI(), reqOptions.getMethod());
+        return reqOptions;
+    }
+
+    private RequestTemplate createUserInfoRequestTemplate() {
+        return RequestTemplate
+            .builder(httpMethod(configuration().getUserInfoEndpointMethod()), userInfoEndpointURI)
+            .timeout(requestTimeout)
+            .totalTimeout(configuration().getRequestTotalTimeout())
+            .dnsCache(dnsCache)
+            .header(HttpHeaders.USER_AGENT, userAgent)
+            .tokenHeader(HttpHeaders.AUTHORIZATION, AUTHORIZATION_HEADER_BEARER_SCHEME)
+            .build();
+    }
+
+    private static HttpMethod httpMethod(String method) {
+        // Both endpoints are requested using GET unless configured otherwise
+        return method == null ? HttpMethod.GET : HttpMethod.valueOf(method.toUpperCase());
+    }
+
+    /**
+     * Handles the introspection response of an access token.
+     *
+     * @param call the call to the authorization server, <code>null</code> if the response is part of a batch.
+     */
+    private void introspected(
+        String accessToken,
+        String tokenDigest,
+        Buffer buffer,
+        RequestMetrics.Call call,
+        Handler<OAuth2Response> responseHandler
+    ) {
+        String content = buffer.toString();
+
+        try {
+            IntrospectionPayload payload = IntrospectionPayload.parse(buffer, getUserClaim());
+            OAuth2Response oAuth2Response = introspectionResponse(payload, content, System.currentTimeMillis());
+            if (call != null) {
+                call.end(payload.isActive() ? Outcome.ACTIVE : Outcome.INACTIVE);
+            }
+            if (!payload.isActive()) {
+                cacheRejection(tokenDigest, oAuth2Response, false);
+            } else if (introspectionCache != null) {
+                cacheIntrospection(accessToken, tokenDigest, oAuth2Response, payload.getExpirationTime());
+            }
+            responseHandler.handle(oAuth2Response);
+        } catch (IOException e) {
+            logger.error("Unable to validate introspection " + "endpoint payload: {}", content, e);
+            if (call != null) {
+                call.end(Outcome.PARSE_FAILURE);
+            }
+            responseHandler.handle(new OAuth2Response(e));
+        }
+    }
+
+    /**
+     * Reads the scopes of the token once, so that they are not split again for each request using the response.
+     */
+    private IntrospectionResponse introspectionResponse(IntrospectionPayload payload, String content, long introspectedAt) {
+        return new IntrospectionResponse(payload, content, scopeDictionary.parse(payload.getScope(), getScopeSeparator()), introspectedAt);
+    }
+
+    /**
+     * Reads the claims of a JWT validated locally the same way as an introspection response, its scopes included, then
+     * rejects it if it belongs to a revoked client or subject.
+     */
+    private OAuth2Response jwtResponse(String content) {
+        final IntrospectionResponse jwtResponse;
+        try {
+            jwtResponse = introspectionResponse(IntrospectionPayload.parse(content, getUserClaim()), content, System.currentTimeMillis());
+        } catch (IOException ioe) {
+            // Not expected, the payload being built from the claims of the token
+            return new OAuth2Response(true, content);
+        }
+
+        // The token is not cached: revocations must be kept until it expires
+        revokedTokens.retain(jwtResponse);
+        if (revokedTokens.isRevoked(jwtResponse)) {
+            logger.debug("Access token validated locally belongs to a revoked client or subject");
+            return new OAuth2Response(false, INACTIVE_INTROSPECTION_PAYLOAD);
+        }
+        return jwtResponse;
+    }
+
+    private void cacheIntrospection(String accessToken, String tokenDigest, OAuth2Response oAuth2Response, long expirationTime) {
+        long now = System.currentTimeMillis();
+        long freshUntil = now + TimeUnit.SECONDS.toMillis(configuration().getIntrospectionCacheMaxTtl());
+        long expiresAt = freshUntil + Math.max(staleWhileRevalidate, staleIfError);
+
+        // Never keep an introspection result, even a stale one, longer than the token itself is valid
+        if (expirationTime > 0) {
+            freshUntil = Math.min(freshUntil, TimeUnit.SECONDS.toMillis(expirationTime));
+            expiresAt = Math.min(expiresAt, TimeUnit.SECONDS.toMillis(expirationTime));
+        }
+
+        introspectionCache.put(tokenDigest, oAuth2Response, freshUntil - now, expiresAt - now);
+
+        if (sharedIntrospectionCache != null) {
+            sharedIntrospectionCache.put(accessToken, tokenDigest, oAuth2Response.getPayload(), freshUntil, expiresAt);
+        }
+    }
+
+    /**
+     * Serves the last known result of the token instead of the failure when the authorization server is unavailable
+     * and the result has not been stale for longer than the stale-if-error window.
+     */
+    private void introspectionFailed(String tokenDigest, Outcome outcome, OAuth2Response failure, Handler<OAuth2Response> responseHandler) {
+        if (introspectionCache != null && outcome.isUnavailable()) {
+            TokenCache.CacheEntry<OAuth2Response> cachedEntry = introspectionCache.getEntry(tokenDigest);
+            if (
+                cachedEntry != null &&
+                System.currentTimeMillis() < cachedEntry.getFreshUntil() + staleIfError &&
+                !revokedTokens.isRevoked(cachedEntry.getValue())
+            ) {
+                metrics.introspectionCacheStaleLookup();
+                logger.debug("Authorization server is unavailable ({}), serving the last known introspection result", outcome.tagValue());
+                responseHandler.handle(cachedEntry.getValue());
+                return;
+            }
+        }
+
+        responseHandler.handle(failure);
+    }
+
+    private void cacheUserInfo(String tokenDigest, UserInfoResponse userInfoResponse) {
+        long ttl = TimeUnit.SECONDS.toMillis(configuration().getUserInfoCacheMaxTtl());
+
+        // Never keep userinfo longer than the token is known to be valid
+        OAuth2Response introspection = introspectionCache == null ? null : introspectionCache.get(tokenDigest);
+        if (introspection instanceof IntrospectionResponse && ((IntrospectionResponse) introspection).getExpirationTime() > 0) {
+            long expirationTime = ((IntrospectionResponse) introspection).getExpirationTime();
+            ttl = Math.min(ttl, TimeUnit.SECONDS.toMillis(expirationTime) - System.currentTimeMillis());
+        }
+
+        userInfoCache.put(tokenDigest, userInfoResponse, ttl);
+    }
+
+    /**
+     * @param revoked whether the token has been revoked by the authorization server, its result being then evicted from
+     * the shared cache even though it is not cached by this node.
+     */
+    private void cacheRejection(String tokenDigest, OAuth2Response oAuth2Response, boolean revoked) {
+        boolean cached = false;
+        if (introspectionCache != null && introspectionCache.getEntry(tokenDigest) != null) {
+            // A stale result must not be served anymore once the token is known to be rejected
+            introspectionCache.evict(tokenDigest);
+            cached = true;
+        }
+
+        // The results read from the shared cache are cached locally: unknown tokens, such as random ones, are not
+        // evicted from the whole cluster
+        if (sharedIntrospectionCache != null && (cached || revoked)) {
+            sharedIntrospectionCache.evict(tokenDigest);
+        }
+
+        if (userInfoCache != null) {
+            userInfoCache.evict(tokenDigest);
+        }
+
+        if (negativeIntrospectionCache != null) {
+            negativeIntrospectionCache.put(tokenDigest, oAuth2Response, TimeUnit.SECONDS.toMillis(configuration().getNegativeCacheTtl()));
+        }
+    }
+
+    /**
+     * The TLS options also apply to the other HTTPS endpoints requested by the client, such as the JWKS URI.
+     *
+     * A single TLS context is created by the client: sessions are cached by the engine and resumed when reconnecting to
+     * the same server, saving the full handshake once pooled connections have been closed.
+     */
+    private void configureSsl(HttpClientOptions httpClientOptions) {
         OAuth2ResourceConfiguration configuration = configuration();
 
-        HttpMethod httpMethod = HttpMethod.valueOf(configuration.getUserInfoEndpointMethod().toUpperCase());
+        TrustOptions trustOptions = KeyStores.trustOptions(
+            configuration.getSslTrustStoreType(),
+            configuration.getSslTrustStorePath(),
+            configuration.getSslTrustStoreContent(),
+            configuration.getSslTrustStorePassword()
+        );
+        if (trustOptions != null) {
+            httpClientOptions.setTrustOptions(trustOptions).setVerifyHost(configuration.isSslVerifyHost());
+        } else if (httpClientOptions.isSsl()) {
+            httpClientOptions.setTrustAll(configuration.isSslTrustAll()).setVerifyHost(configuration.isSslVerifyHost());
+        }
 
-        logger.debug("Get userinfo by requesting {} [{}]", userInfoEndpointURI, configuration.getUserInfoEndpointMethod());
+        KeyCertOptions keyCertOptions = KeyStores.keyCertOptions(
+            configuration.getSslKeyStoreType(),
+            configuration.getSslKeyStorePath(),
+            configuration.getSslKeyStoreContent(),
+            configuration.getSslKeyStorePassword(),
+            configuration.getSslKeyStoreKeyPath(),
+            configuration.getSslKeyStoreKeyContent()
+        );
+        if (keyCertOptions != null) {
+            httpClientOptions.setKeyCertOptions(keyCertOptions);
+        }
 
-        final RequestOptions reqOptions = new RequestOptions()
-            .setMethod(httpMethod)
-            .setAbsoluteURI(userInfoEndpointURI)
-            .setTimeout(30000L)
-            .putHeader(HttpHeaders.USER_AGENT, userAgent)
-            .putHeader("X-Gravitee-Request-Id", UUID.toString(UUID.random()))
-            .putHeader(HttpHeaders.AUTHORIZATION, AUTHORIZATION_HEADER_BEARER_SCHEME + accessToken);
+        if (configuration.isSslOpenSslEnabled()) {
+            if (OpenSSLEngineOptions.isAvailable()) {
+                httpClientOptions.setSslEngineOptions(new OpenSSLEngineOptions().setSessionCacheEnabled(true));
+            } else {
+                logger.warn("OpenSSL is not available, using the JDK TLS engine");
+            }
+        }
+    }
 
-        httpClient
-            .request(reqOptions)
-            .onFailure(
-                new io.vertx.core.Handler<Throwable>() {
-                    @Override
-                    public void handle(Throwable event) {
-                        logger.error("An error occurs while getting userinfo from access token", event);
-                        responseHandler.handle(new UserInfoResponse(event));
-                    }
+    private ConnectionWarmer createConnectionWarmer(int maxPoolSize) {
+        List<RequestTemplate> requestTemplates = new ArrayList<>(2);
+        if (introspectionLoadBalancer != null) {
+            for (LoadBalancer.Endpoint endpoint : introspectionLoadBalancer.getEndpoints()) {
+                requestTemplates.add(endpoint.getRequestTemplate());
+            }
+        } else if (introspectionRequestTemplate != null) {
+            requestTemplates.add(introspectionRequestTemplate);
+        }
+        if (userInfoRequestTemplate != null) {
+            requestTemplates.add(userInfoRequestTemplate);
+        }
+
+        return new ConnectionWarmer(
+            vertx,
+            httpClient,
+            requestGuard,
+            requestTemplates,
+            requestTemplate -> introspectionLoadBalancer == null || introspectionLoadBalancer.isAvailable(requestTemplate),
+            Math.min(positiveOrDefault(configuration().getConnectionWarmUpCount(), DEFAULT_CONNECTION_WARM_UP_COUNT), maxPoolSize),
+            TimeUnit.SECONDS.toMillis(Math.max(0, configuration().getConnectionWarmUpInterval())),
+            metrics
+        );
+    }
+
+    /**
+     * Resolves the authorization server hosts and opens the first connections, if enabled, so that the first requests
+     * do not have to.
+     */
+    private void warmUp() {
+        List<Future> resolutions = new ArrayList<>(2);
+        if (dnsCache != null) {
+            List<String> endpointURIs = new ArrayList<>(Arrays.asList(introspectionEndpointURI, userInfoEndpointURI));
+            if (introspectionLoadBalancer != null) {
+                for (LoadBalancer.Endpoint endpoint : introspectionLoadBalancer.getEndpoints()) {
+                    endpointURIs.add(endpoint.getUri());
                 }
-            )
-            .onSuccess(
-                new io.vertx.core.Handler<HttpClientRequest>() {
-                    @Override
-                    public void handle(HttpClientRequest request) {
-                        request
-                            .response(
-                                new io.vertx.core.Handler<AsyncResult<HttpClientResponse>>() {
-                                    @Override
-                                    public void handle(AsyncResult<HttpClientResponse> asyncResponse) {
-                                        if (asyncResponse.failed()) {
-                                            logger.error(
-                                                "An error occurs while getting userinfo " + "from access token",
-                                                asyncResponse.cause()
-                                            );
-                                            responseHandler.handle(new UserInfoResponse(asyncResponse.cause()));
-                                        } else {
-                                            final HttpClientResponse response = asyncResponse.result();
-                                            response.bodyHandler(buffer -> {
-                                                logger.debug(
-                                                    "Userinfo endpoint returns a response " + "with a {} status code",
-                                                    response.statusCode()
-                                                );
-
-                                                if (response.statusCode() == HttpStatusCode.OK_200) {
-                                                    responseHandler.handle(new UserInfoResponse(true, buffer.toString()));
-                                                } else {
-                                                    logger.error(
-                                                        "An error occurs while getting userinfo from " +
-                                                        "access token. Request ends with status " +
-                                                        "{}: {}",
-                                                        response.statusCode(),
-                                                        buffer.toString()
-                                                    );
-                                                    responseHandler.handle(
-                                                        new UserInfoResponse(
-                                                            new OAuth2ResourceException(
-                                                                "An error occurs while getting userinfo " + "from access token"
-                                                            )
-                                                        )
-                                                    );
-                                                }
-                                            });
-                                        }
-                                    }
-                                }
-                            )
-                            .exceptionHandler(
-                                new io.vertx.core.Handler<Throwable>() {
-                                    @Override
-                                    public void handle(Throwable event) {
-                                        logger.error("An error occurs while getting userinfo " + "from access token", event);
-                                        responseHandler.handle(new UserInfoResponse(event));
-                                    }
-                                }
-                            )
-                            .end();
-                    }
+            }
+            for (String endpointURI : endpointURIs) {
+                if (endpointURI != null) {
+                    resolutions.add(dnsCache.resolve(URI.create(endpointURI).getHost()));
                 }
+            }
+        }
+
+        if (connectionWarmer != null) {
+            // Connections are opened to the cached addresses, once resolved
+            CompositeFuture.join(resolutions).onComplete(resolved -> connectionWarmer.start());
+        }
+    }
+
+    private SharedIntrospectionCache createSharedIntrospectionCache() {
+        final CacheManager cacheManager;
+        try {
+            cacheManager = applicationContext.getBean(CacheManager.class);
+        } catch (BeansException be) {
+            logger.warn("No cache available on the node, introspection results will not be shared across gateway nodes");
+            return null;
+        }
+
+        CacheConfiguration cacheConfiguration = new CacheConfiguration();
+        cacheConfiguration.setMaxSize(configuration().getIntrospectionCacheMaxSize());
+        cacheConfiguration.setTimeToLiveSeconds(configuration().getIntrospectionCacheMaxTtl());
+
+        // Results depend on the authorization server and on the client the resource introspects tokens as
+        String cacheName =
+            SHARED_INTROSPECTION_CACHE_PREFIX + TokenDigest.digest(introspectionEndpointURI + ' ' + configuration().getClientId());
+
+        return new SharedIntrospectionCache(
+            vertx,
+            cacheManager.getOrCreateCache(cacheName, cacheConfiguration),
+            // Another node invalidated a token or learnt it is not active anymore
+            tokenDigest -> {
+                introspectionCache.evict(tokenDigest);
+                if (userInfoCache != null) {
+                    userInfoCache.evict(tokenDigest);
+                }
+            }
+        );
+    }
+
+    private RevocationListener createRevocationListener() {
+        OAuth2ResourceConfiguration configuration = configuration();
+        String eventBusAddress = configuration.getRevocationEventBusAddress();
+        boolean eventBusEnabled = eventBusAddress != null && !eventBusAddress.isEmpty();
+        if (!eventBusEnabled && !configuration.isRevocationWebhookEnabled()) {
+            return null;
+        }
+
+        RevocationListener listener = new RevocationListener(vertx, this::revoke);
+        metrics.bindRevocations();
+
+        if (eventBusEnabled) {
+            listener.listen(eventBusAddress);
+        }
+
+        if (configuration.isRevocationWebhookEnabled()) {
+            String host = configuration.getRevocationWebhookHost();
+            String path = configuration.getRevocationWebhookPath();
+            listener.listen(
+                host == null || host.isEmpty() ? DEFAULT_REVOCATION_WEBHOOK_HOST : host,
+                positiveOrDefault(configuration.getRevocationWebhookPort(), DEFAULT_REVOCATION_WEBHOOK_PORT),
+                path == null || path.isEmpty() ? DEFAULT_REVOCATION_WEBHOOK_PATH : path,
+                configuration.getRevocationWebhookSecret()
             );
+        }
+
+        return listener;
+    }
+
+    /**
+     * The budget of calls to the authorization server. Without rate limit, calls are still held back while the
+     * authorization server asked to retry later.
+     */
+    private RateLimiter createRateLimiter() {
+        OAuth2ResourceConfiguration configuration = configuration();
+        int rateLimit = configuration.getRequestRateLimit();
+        return new RateLimiter(
+            vertx,
+            rateLimit,
+            positiveOrDefault(configuration.getRequestRateLimitBurst(), rateLimit),
+            positiveOrDefault(configuration.getRequestQueueMaxSize(), DEFAULT_REQUEST_QUEUE_MAX_SIZE),
+            // Waiting for a turn counts in the total time of the request
+            Math.min(positiveOrDefault(configuration.getRequestQueueMaxWait(), DEFAULT_REQUEST_QUEUE_MAX_WAIT), requestTimeout)
+        );
+    }
+
+    private CircuitBreaker createCircuitBreaker() {
+        OAuth2ResourceConfiguration configuration = configuration();
+        return new CircuitBreaker(
+            positiveOrDefault(configuration.getCircuitBreakerFailureRateThreshold(), DEFAULT_CIRCUIT_BREAKER_FAILURE_RATE_THRESHOLD),
+            positiveOrDefault(configuration.getCircuitBreakerSlowCallRateThreshold(), DEFAULT_CIRCUIT_BREAKER_SLOW_CALL_RATE_THRESHOLD),
+            positiveOrDefault(configuration.getCircuitBreakerSlowCallDuration(), DEFAULT_CIRCUIT_BREAKER_SLOW_CALL_DURATION),
+            positiveOrDefault(configuration.getCircuitBreakerSlidingWindowSize(), DEFAULT_CIRCUIT_BREAKER_SLIDING_WINDOW_SIZE),
+            positiveOrDefault(configuration.getCircuitBreakerMinimumNumberOfCalls(), DEFAULT_CIRCUIT_BREAKER_MINIMUM_NUMBER_OF_CALLS),
+            TimeUnit.SECONDS.toMillis(
+                positiveOrDefault(configuration.getCircuitBreakerOpenStateDuration(), DEFAULT_CIRCUIT_BREAKER_OPEN_STATE_DURATION)
+            ),
+            positiveOrDefault(
+                configuration.getCircuitBreakerPermittedCallsInHalfOpenState(),
+                DEFAULT_CIRCUIT_BREAKER_PERMITTED_CALLS_IN_HALF_OPEN_STATE
+            )
+        );
+    }
+
+    private static OAuth2ResourceException rejectionException(Outcome rejection) {
+        switch (rejection) {
+            case CIRCUIT_OPEN:
+                return new OAuth2ResourceException("Authorization server is unavailable (circuit breaker is open)");
+            case THROTTLED:
+                return new OAuth2ResourceException("Budget of requests to the authorization server is exhausted");
+            default:
+                return new OAuth2ResourceException("Too many pending requests to the authorization server");
+        }
+    }
+
+    private static MeterRegistry meterRegistry() {
+        // The registry of the Vert.x metrics when enabled on the gateway, the global one otherwise
+        MeterRegistry registry = BackendRegistries.getDefaultNow();
+        return registry != null ? registry : Metrics.globalRegistry;
+    }
+
+    private static int positiveOrDefault(int value, int defaultValue) {
+        return value > 0 ? value : defaultValue;
+    }
+
+    private static long positiveOrDefault(long value, long defaultValue) {
+        return value > 0 ? value : defaultValue;
+    }
+
+    @Override
+    public String getScopeSeparator() {
+        if (configuration().getScopeSeparator() != null && !configuration().getScopeSeparator().isEmpty()) {
+            return configuration().getScopeSeparator();
+        }
+        return super.getScopeSeparator();
     }
 
     @Override
@@ -416,4 +1619,49 @@ public class OAuth2GenericResource extends OAuth2Resource<OAuth2ResourceConfigur
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         this.applicationContext = applicationContext;
     }
+
+    /**
+     * An introspection which may be sent twice: the first answer of the authorization server is used, a failure is
+     * only used once no other answer can be expected.
+     */
+    private static final class HedgedIntrospection {
+
+        private final Handler<OAuth2Response> responseHandler;
+
+        private int pending = 1;
+
+        private boolean done;
+
+        private HedgedIntrospection(Handler<OAuth2Response> responseHandler) {
+            this.responseHandler = responseHandler;
+        }
+
+        /**
+         * @param permitted whether a second request is permitted, asked only if the introspection is still pending.
+         * @return whether a second request has to be sent.
+         */
+        synchronized boolean hedge(BooleanSupplier permitted) {
+            if (done || !permitted.getAsBoolean()) {
+                return false;
+            }
+            pending++;
+            return true;
+        }
+
+        /**
+         * @return whether the introspection is done, no second request has to be sent then.
+         */
+        boolean handle(OAuth2Response oAuth2Response) {
+            synchronized (this) {
+                pending--;
+                if (done || (oAuth2Response.getThrowable() != null && pending > 0)) {
+                    return done;
+                }
+                done = true;
+            }
+
+            responseHandler.handle(oAuth2Response);
+            return true;
+        }
+    }
 }
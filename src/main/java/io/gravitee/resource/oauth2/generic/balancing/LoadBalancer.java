@@ -0,0 +1,293 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.balancing;
+
+import io.gravitee.resource.oauth2.generic.metrics.Outcome;
+import io.gravitee.resource.oauth2.generic.metrics.RequestMetrics;
+import io.gravitee.resource.oauth2.generic.request.RequestTemplate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Balances the calls between the servers of an authorization server cluster, and stops calling the servers which keep
+ * on failing.
+ *
+ * Servers are checked passively: a server is ejected once a number of consecutive calls failed, and called again once
+ * the ejection is over. When all the servers are ejected, the calls are sent to the server whose ejection ends first
+ * rather than failing without reaching any server.
+ *
+ * @author GraviteeSource Team
+ */
+public class LoadBalancer {
+
+    private final Logger logger = LoggerFactory.getLogger(LoadBalancer.class);
+
+    /**
+     * Weight of the last call in the average latency of a server.
+     */
+    private static final double LATENCY_DECAY = 0.2;
+
+    /**
+     * Latency given to the servers faster than it, not to give all the calls to a server answering instantly.
+     */
+    private static final long MIN_LATENCY = TimeUnit.MILLISECONDS.toNanos(1);
+
+    public enum Strategy {
+        /**
+         * Servers are called in turn.
+         */
+        ROUND_ROBIN,
+
+        /**
+         * The server with the fewest calls waiting for a response is called.
+         */
+        LEAST_IN_FLIGHT,
+
+        /**
+         * Servers are called randomly, in inverse proportion to their average latency.
+         */
+        LATENCY_WEIGHTED;
+
+        /**
+         * The strategy of the given name, round-robin if not set.
+         */
+        public static Strategy of(String name) {
+            return name == null || name.isEmpty() ? ROUND_ROBIN : valueOf(name.toUpperCase());
+        }
+    }
+
+    private final Strategy strategy;
+
+    private final List<Endpoint> endpoints;
+
+    private final int ejectionFailures;
+
+    private final long ejectionDuration;
+
+    private final AtomicInteger turn = new AtomicInteger();
+
+    /**
+     * @param endpoints the request templates of the servers, by endpoint URI.
+     * @param ejectionFailures the number of consecutive failed calls after which a server is ejected.
+     * @param ejectionDuration the time, in milliseconds, after which an ejected server is called again.
+     */
+    public LoadBalancer(Strategy strategy, Map<String, RequestTemplate> endpoints, int ejectionFailures, long ejectionDuration) {
+        this.strategy = strategy;
+        this.ejectionFailures = ejectionFailures;
+        this.ejectionDuration = ejectionDuration;
+
+        List<Endpoint> list = new ArrayList<>(endpoints.size());
+        endpoints.forEach((uri, requestTemplate) -> list.add(new Endpoint(uri, requestTemplate)));
+        this.endpoints = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Selects the server of the next call. Once done, the call must be reported to the returned endpoint.
+     */
+    public Endpoint acquire() {
+        final long now = System.currentTimeMillis();
+        final int start = Math.floorMod(turn.getAndIncrement(), endpoints.size());
+
+        Endpoint selected;
+        switch (strategy) {
+            case LEAST_IN_FLIGHT:
+                selected = leastInFlight(start, now);
+                break;
+            case LATENCY_WEIGHTED:
+                selected = latencyWeighted(now);
+                break;
+            default:
+                selected = next(start, now);
+        }
+
+        if (selected == null) {
+            selected = firstReadmitted();
+        }
+
+        selected.inFlight.incrementAndGet();
+        return selected;
+    }
+
+    private Endpoint next(int start, long now) {
+        for (int i = 0; i < endpoints.size(); i++) {
+            Endpoint endpoint = endpoints.get((start + i) % endpoints.size());
+            if (endpoint.isAvailable(now)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    private Endpoint leastInFlight(int start, long now) {
+        // Starting from the next server in turn so that ties are broken in a round-robin way
+        Endpoint selected = null;
+        for (int i = 0; i < endpoints.size(); i++) {
+            Endpoint endpoint = endpoints.get((start + i) % endpoints.size());
+            if (endpoint.isAvailable(now) && (selected == null || endpoint.inFlight.get() < selected.inFlight.get())) {
+                selected = endpoint;
+            }
+        }
+        return selected;
+    }
+
+    private Endpoint latencyWeighted(long now) {
+        double totalWeight = 0;
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.isAvailable(now)) {
+                totalWeight += endpoint.weight();
+            }
+        }
+
+        if (totalWeight == 0) {
+            return null;
+        }
+
+        double random = ThreadLocalRandom.current().nextDouble(totalWeight);
+        Endpoint selected = null;
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.isAvailable(now)) {
+                selected = endpoint;
+                random -= endpoint.weight();
+                if (random < 0) {
+                    break;
+                }
+            }
+        }
+        return selected;
+    }
+
+    private Endpoint firstReadmitted() {
+        Endpoint selected = endpoints.get(0);
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.ejectedUntil < selected.ejectedUntil) {
+                selected = endpoint;
+            }
+        }
+        return selected;
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Whether the server of the given request is not ejected, <code>true</code> if it is not one of the servers of the
+     * cluster.
+     */
+    public boolean isAvailable(RequestTemplate requestTemplate) {
+        final long now = System.currentTimeMillis();
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.requestTemplate == requestTemplate) {
+                return endpoint.isAvailable(now);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The number of servers which are not ejected.
+     */
+    public int available() {
+        final long now = System.currentTimeMillis();
+        int available = 0;
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.isAvailable(now)) {
+                available++;
+            }
+        }
+        return available;
+    }
+
+    /**
+     * A server of the cluster, along with the state of the calls sent to it.
+     */
+    public final class Endpoint implements RequestMetrics.CallListener {
+
+        private final String uri;
+
+        private final RequestTemplate requestTemplate;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+        private volatile long latency;
+
+        private volatile long ejectedUntil;
+
+        private Endpoint(String uri, RequestTemplate requestTemplate) {
+            this.uri = uri;
+            this.requestTemplate = requestTemplate;
+        }
+
+        public String getUri() {
+            return uri;
+        }
+
+        public RequestTemplate getRequestTemplate() {
+            return requestTemplate;
+        }
+
+        /**
+         * The number of calls waiting for a response of the server.
+         */
+        public int inFlight() {
+            return inFlight.get();
+        }
+
+        /**
+         * The average latency, in nanoseconds, of the calls answered by the server, <code>0</code> if none yet.
+         */
+        public long latency() {
+            return latency;
+        }
+
+        private boolean isAvailable(long now) {
+            return ejectedUntil <= now;
+        }
+
+        private double weight() {
+            return 1d / Math.max(MIN_LATENCY, latency);
+        }
+
+        @Override
+        public void onCallEnd(long duration, Outcome outcome) {
+            inFlight.decrementAndGet();
+
+            if (!outcome.isFailure()) {
+                consecutiveFailures.set(0);
+                long average = latency;
+                latency = average == 0 ? duration : (long) (average + LATENCY_DECAY * (duration - average));
+            } else if (consecutiveFailures.incrementAndGet() >= ejectionFailures) {
+                consecutiveFailures.set(0);
+                ejectedUntil = System.currentTimeMillis() + ejectionDuration;
+                logger.warn(
+                    "Authorization server {} ejected for {} ms after {} consecutive failures",
+                    uri,
+                    ejectionDuration,
+                    ejectionFailures
+                );
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks how often each token is used with a count-min sketch, and keeps the few most used ones so that their
+ * introspection can be refreshed before it expires from the cache.
+ *
+ * The sketch only holds counters: the raw access token is kept for hot tokens only, as it is needed to introspect
+ * them again. Counters are halved by {@link #decay()} so that tokens which are not used anymore cool down.
+ *
+ * Counting is approximate by design: counters may be over-estimated by collisions and concurrent increments may be
+ * lost, which is harmless to find the hottest tokens.
+ *
+ * @author GraviteeSource Team
+ */
+public class HotTokens {
+
+    private static final int DEPTH = 4;
+
+    private static final int[] SEEDS = { 0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F };
+
+    private static final int MIN_WIDTH = 1024;
+
+    private static final int WIDTH_PER_HOT_TOKEN = 16;
+
+    private final int[][] counters;
+
+    private final int mask;
+
+    private final int minHits;
+
+    private final int maxCount;
+
+    private final Map<String, HotToken> hotTokens = new ConcurrentHashMap<>();
+
+    /**
+     * @param minHits the estimated number of uses from which a token is hot.
+     * @param maxCount the maximum number of hot tokens.
+     */
+    public HotTokens(int minHits, int maxCount) {
+        this.minHits = minHits;
+        this.maxCount = maxCount;
+
+        int width = Integer.highestOneBit(Math.max(MIN_WIDTH, maxCount * WIDTH_PER_HOT_TOKEN) - 1) << 1;
+        this.counters = new int[DEPTH][width];
+        this.mask = width - 1;
+    }
+
+    /**
+     * Records a use of the token.
+     */
+    public void record(String tokenDigest, String accessToken) {
+        int hash = tokenDigest.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            int[] row = counters[i];
+            int index = index(hash, i);
+            int count = row[index];
+            if (count < Integer.MAX_VALUE) {
+                row[index] = ++count;
+            }
+            estimate = Math.min(estimate, count);
+        }
+
+        if (estimate < minHits) {
+            return;
+        }
+
+        HotToken hotToken = hotTokens.get(tokenDigest);
+        if (hotToken != null) {
+            hotToken.estimate = estimate;
+        } else if (hotTokens.size() < maxCount) {
+            hotTokens.put(tokenDigest, new HotToken(tokenDigest, accessToken, estimate));
+        } else if (estimate % minHits == 0) {
+            // Looking for the coldest hot token is linear: only give warm tokens a chance from time to time
+            admit(new HotToken(tokenDigest, accessToken, estimate));
+        }
+    }
+
+    private synchronized void admit(HotToken candidate) {
+        HotToken coldest = null;
+        for (HotToken hotToken : hotTokens.values()) {
+            if (coldest == null || hotToken.estimate < coldest.estimate) {
+                coldest = hotToken;
+            }
+        }
+
+        if (coldest != null && coldest.estimate < candidate.estimate) {
+            hotTokens.remove(coldest.tokenDigest);
+            hotTokens.put(candidate.tokenDigest, candidate);
+        }
+    }
+
+    /**
+     * The hot tokens, the hottest first.
+     */
+    public List<HotToken> hottest() {
+        List<HotToken> hottest = new ArrayList<>(hotTokens.values());
+        hottest.sort(Comparator.comparingInt((HotToken hotToken) -> hotToken.estimate).reversed());
+        return hottest;
+    }
+
+    /**
+     * Halves all the counters, tokens falling under the minimum number of uses are not hot anymore.
+     */
+    public void decay() {
+        for (int[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>>= 1;
+            }
+        }
+
+        hotTokens
+            .values()
+            .removeIf(hotToken -> {
+                hotToken.estimate >>>= 1;
+                return hotToken.estimate < minHits;
+            });
+    }
+
+    public void remove(String tokenDigest) {
+        hotTokens.remove(tokenDigest);
+    }
+
+    public int size() {
+        return hotTokens.size();
+    }
+
+    public void clear() {
+        hotTokens.clear();
+        for (int[] row : counters) {
+            Arrays.fill(row, 0);
+        }
+    }
+
+    private int index(int hash, int row) {
+        int h = hash * SEEDS[row];
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public static final class HotToken {
+
+        private final String tokenDigest;
+
+        private final String accessToken;
+
+        private volatile int estimate;
+
+        private HotToken(String tokenDigest, String accessToken, int estimate) {
+            this.tokenDigest = tokenDigest;
+            this.accessToken = accessToken;
+            this.estimate = estimate;
+        }
+
+        public String getTokenDigest() {
+            return tokenDigest;
+        }
+
+        public String getAccessToken() {
+            return accessToken;
+        }
+
+        /**
+         * The estimated number of recent uses of the token.
+         */
+        public int getEstimate() {
+            return estimate;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size-bounded, least-recently-used cache whose entries expire after a per-entry time to live, kept on the heap.
+ *
+ * Keeping the entries in access order makes every lookup a write: rather than all the lookups contending for a single
+ * lock, the entries are split by key into segments, each one with its own lock and its own share of the maximum size.
+ * The least recently used entry of a segment is evicted when the segment is full, which approximates the least
+ * recently used entry of the whole cache as token digests are spread evenly between the segments. Small caches keep a
+ * single segment, and an exact eviction order.
+ *
+ * @author GraviteeSource Team
+ */
+public class LruTokenCache<V> implements TokenCache<V> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    private final Segment<V>[] segments;
+
+    @SuppressWarnings("unchecked")
+    public LruTokenCache(int maxSize) {
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && maxSize / (segmentCount * 2) >= MIN_SEGMENT_SIZE) {
+            segmentCount *= 2;
+        }
+
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(maxSize / segmentCount + (i < maxSize % segmentCount ? 1 : 0));
+        }
+    }
+
+    private Segment<V> segment(String key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    @Override
+    public CacheEntry<V> getEntry(String key) {
+        Segment<V> segment = segment(key);
+        synchronized (segment) {
+            CacheEntry<V> entry = segment.get(key);
+            if (entry == null) {
+                return null;
+            }
+
+            if (entry.getExpiresAt() <= System.currentTimeMillis()) {
+                segment.remove(key);
+                return null;
+            }
+
+            return entry;
+        }
+    }
+
+    @Override
+    public void put(String key, V value, long ttlInMillis, long staleTtlInMillis) {
+        if (ttlInMillis <= 0) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        CacheEntry<V> entry = new CacheEntry<>(value, now + ttlInMillis, now + Math.max(ttlInMillis, staleTtlInMillis));
+        Segment<V> segment = segment(key);
+        synchronized (segment) {
+            segment.put(key, entry);
+        }
+    }
+
+    @Override
+    public void evict(String key) {
+        Segment<V> segment = segment(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * The entries of a segment, in access order, guarded by the segment itself.
+     */
+    private static final class Segment<V> extends LinkedHashMap<String, CacheEntry<V>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        private Segment(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CacheEntry<V>> eldest) {
+            return size() > maxSize;
+        }
+    }
+}
@@ -0,0 +1,437 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.cache;
+
+import io.gravitee.resource.oauth2.api.OAuth2Response;
+import io.gravitee.resource.oauth2.generic.introspection.IntrospectionResponse;
+import io.gravitee.resource.oauth2.generic.introspection.ScopeDictionary;
+import io.gravitee.resource.oauth2.generic.introspection.ScopeSet;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * A cache of introspection results kept in direct memory, for token populations too large to be cached as objects
+ * on the heap. The memory used is bounded by a budget, allocated as the cache fills up.
+ *
+ * The memory is split between an index and segments of serialized results:
+ * <ul>
+ *     <li>the index is made of buckets of a few slots, each slot holding the digest of a token and the location of its
+ *     result. When all the slots of a bucket are used, the oldest result of the bucket is replaced.</li>
+ *     <li>results are appended to the current segment. Once full, the oldest segment is reused as a whole, evicting all
+ *     the results it held.</li>
+ * </ul>
+ * Responses are only created when a result is read from the cache. The scopes of the tokens are kept as read, using the
+ * scope dictionary of the resource.
+ *
+ * @author GraviteeSource Team
+ */
+public class OffHeapTokenCache implements TokenCache<OAuth2Response> {
+
+    private static final int SEGMENTS = 16;
+
+    private static final int WAYS = 8;
+
+    /**
+     * The size of the token digests, which are SHA-256 hashes.
+     */
+    private static final int KEY_SIZE = 32;
+
+    // A slot is made of the key, then of the generation, the segment and the offset of the result
+    private static final int SLOT_GENERATION = KEY_SIZE;
+    private static final int SLOT_SEGMENT = SLOT_GENERATION + 4;
+    private static final int SLOT_OFFSET = SLOT_SEGMENT + 4;
+    private static final int SLOT_SIZE = SLOT_OFFSET + 4;
+
+    // A result is made of its expiry times, of the claims of the token, then of the scopes, of the client, of the
+    // subject and of the payload
+    private static final int FRESH_UNTIL = 0;
+    private static final int EXPIRES_AT = 8;
+    private static final int EXPIRATION_TIME = 16;
+    private static final int ISSUED_AT = 24;
+    private static final int INTROSPECTED_AT = 32;
+    private static final int ACTIVE = 40;
+    private static final int PAYLOAD_LENGTH = 41;
+    private static final int SCOPE_WORDS = 45;
+    private static final int UNINDEXED_SCOPES_LENGTH = 49;
+    private static final int CLIENT_ID_LENGTH = 53;
+    private static final int SUBJECT_LENGTH = 57;
+    private static final int HEADER_SIZE = 61;
+
+    private static final String UNINDEXED_SCOPES_SEPARATOR = " ";
+
+    /**
+     * The expected average size of a result, used to size the index from the memory budget.
+     */
+    private static final int AVERAGE_RESULT_SIZE = 512;
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ScopeDictionary scopeDictionary;
+
+    private final ByteBuffer index;
+
+    private final int buckets;
+
+    private final ByteBuffer[] segments = new ByteBuffer[SEGMENTS];
+
+    private final int segmentSize;
+
+    /**
+     * The generation of each segment, increased each time the segment is reused: slots pointing to a previous
+     * generation of their segment are free.
+     */
+    private final int[] generations = new int[SEGMENTS];
+
+    /**
+     * The number of slots pointing to each segment.
+     */
+    private final int[] entries = new int[SEGMENTS];
+
+    private int generation;
+
+    private int segment;
+
+    private int position;
+
+    /**
+     * @param maxMemory the maximum direct memory, in bytes, used by the cache.
+     * @param scopeDictionary the dictionary the scopes of the cached responses have been read with.
+     */
+    public OffHeapTokenCache(long maxMemory, ScopeDictionary scopeDictionary) {
+        this.scopeDictionary = scopeDictionary;
+        long slots = Math.max(WAYS, maxMemory / AVERAGE_RESULT_SIZE);
+        this.buckets = (int) Math.min(slots / WAYS, Integer.MAX_VALUE / (WAYS * SLOT_SIZE));
+        this.index = ByteBuffer.allocateDirect(buckets * WAYS * SLOT_SIZE);
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE, Math.max(HEADER_SIZE, (maxMemory - index.capacity()) / SEGMENTS));
+
+        for (int i = 0; i < SEGMENTS; i++) {
+            generations[i] = ++generation;
+        }
+    }
+
+    @Override
+    public CacheEntry<OAuth2Response> getEntry(String key) {
+        final byte[] digest = decode(key);
+        final long freshUntil;
+        final long expiresAt;
+        final long expirationTime;
+        final long issuedAt;
+        final long introspectedAt;
+        final boolean active;
+        final long[] scopeWords;
+        final byte[] unindexedScopes;
+        final byte[] clientId;
+        final byte[] subject;
+        final byte[] payload;
+
+        synchronized (this) {
+            int slot = find(digest);
+            if (slot < 0) {
+                return null;
+            }
+
+            ByteBuffer buffer = segments[index.getInt(slot + SLOT_SEGMENT)];
+            int offset = index.getInt(slot + SLOT_OFFSET);
+            expiresAt = buffer.getLong(offset + EXPIRES_AT);
+            if (expiresAt <= System.currentTimeMillis()) {
+                free(slot);
+                return null;
+            }
+
+            freshUntil = buffer.getLong(offset + FRESH_UNTIL);
+            expirationTime = buffer.getLong(offset + EXPIRATION_TIME);
+            issuedAt = buffer.getLong(offset + ISSUED_AT);
+            introspectedAt = buffer.getLong(offset + INTROSPECTED_AT);
+            active = buffer.get(offset + ACTIVE) != 0;
+            scopeWords = new long[buffer.getInt(offset + SCOPE_WORDS)];
+            unindexedScopes = new byte[buffer.getInt(offset + UNINDEXED_SCOPES_LENGTH)];
+
+            buffer.position(offset + HEADER_SIZE);
+            for (int i = 0; i < scopeWords.length; i++) {
+                scopeWords[i] = buffer.getLong();
+            }
+            buffer.get(unindexedScopes);
+            clientId = read(buffer, buffer.getInt(offset + CLIENT_ID_LENGTH));
+            subject = read(buffer, buffer.getInt(offset + SUBJECT_LENGTH));
+            payload = read(buffer, buffer.getInt(offset + PAYLOAD_LENGTH));
+        }
+
+        ScopeSet scopes = scopeDictionary.restore(
+            scopeWords,
+            unindexedScopes.length == 0
+                ? null
+                : Arrays.asList(new String(unindexedScopes, StandardCharsets.UTF_8).split(UNINDEXED_SCOPES_SEPARATOR))
+        );
+        return new CacheEntry<>(
+            new IntrospectionResponse(
+                active,
+                toString(payload),
+                expirationTime,
+                scopes,
+                toString(clientId),
+                toString(subject),
+                issuedAt,
+                introspectedAt
+            ),
+            freshUntil,
+            expiresAt
+        );
+    }
+
+    @Override
+    public void put(String key, OAuth2Response value, long ttlInMillis, long staleTtlInMillis) {
+        if (ttlInMillis <= 0) {
+            return;
+        }
+
+        final byte[] digest = decode(key);
+        final byte[] payload = toBytes(value.getPayload());
+        final long expirationTime;
+        final long issuedAt;
+        final long introspectedAt;
+        final ScopeSet scopes;
+        final byte[] clientId;
+        final byte[] subject;
+        if (value instanceof IntrospectionResponse) {
+            IntrospectionResponse response = (IntrospectionResponse) value;
+            expirationTime = response.getExpirationTime();
+            issuedAt = response.getIssuedAt();
+            introspectedAt = response.getIntrospectedAt();
+            scopes = response.getScopes();
+            clientId = toBytes(response.getClientId());
+            subject = toBytes(response.getSubject());
+        } else {
+            expirationTime = -1;
+            issuedAt = -1;
+            introspectedAt = System.currentTimeMillis();
+            scopes = ScopeSet.EMPTY;
+            clientId = null;
+            subject = null;
+        }
+        final long[] scopeWords = scopes.toLongArray();
+        final byte[] unindexedScopes = String
+            .join(UNINDEXED_SCOPES_SEPARATOR, scopes.getUnindexedScopes())
+            .getBytes(StandardCharsets.UTF_8);
+
+        final int size =
+            HEADER_SIZE + scopeWords.length * 8 + unindexedScopes.length + length(clientId) + length(subject) + length(payload);
+        if (size > segmentSize) {
+            return;
+        }
+
+        final long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            if (segments[segment] == null) {
+                segments[segment] = ByteBuffer.allocateDirect(segmentSize);
+            } else if (position + size > segmentSize) {
+                nextSegment();
+            }
+
+            ByteBuffer buffer = segments[segment];
+            buffer.putLong(position + FRESH_UNTIL, now + ttlInMillis);
+            buffer.putLong(position + EXPIRES_AT, now + Math.max(ttlInMillis, staleTtlInMillis));
+            buffer.putLong(position + EXPIRATION_TIME, expirationTime);
+            buffer.putLong(position + ISSUED_AT, issuedAt);
+            buffer.putLong(position + INTROSPECTED_AT, introspectedAt);
+            buffer.put(position + ACTIVE, (byte) (value.isSuccess() ? 1 : 0));
+            buffer.putInt(position + PAYLOAD_LENGTH, payload == null ? -1 : payload.length);
+            buffer.putInt(position + SCOPE_WORDS, scopeWords.length);
+            buffer.putInt(position + UNINDEXED_SCOPES_LENGTH, unindexedScopes.length);
+            buffer.putInt(position + CLIENT_ID_LENGTH, clientId == null ? -1 : clientId.length);
+            buffer.putInt(position + SUBJECT_LENGTH, subject == null ? -1 : subject.length);
+            buffer.position(position + HEADER_SIZE);
+            for (long scopeWord : scopeWords) {
+                buffer.putLong(scopeWord);
+            }
+            buffer.put(unindexedScopes);
+            write(buffer, clientId);
+            write(buffer, subject);
+            write(buffer, payload);
+
+            int slot = find(digest);
+            if (slot < 0) {
+                slot = victim(digest);
+                index.position(slot);
+                index.put(digest);
+            }
+            free(slot);
+            index.putInt(slot + SLOT_GENERATION, generations[segment]);
+            index.putInt(slot + SLOT_SEGMENT, segment);
+            index.putInt(slot + SLOT_OFFSET, position);
+            entries[segment]++;
+
+            position += size;
+        }
+    }
+
+    @Override
+    public synchronized void evict(String key) {
+        int slot = find(decode(key));
+        if (slot >= 0) {
+            free(slot);
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            generations[i] = ++generation;
+            entries[i] = 0;
+        }
+        position = 0;
+    }
+
+    /**
+     * The number of results in the cache, including the expired ones which have not been read since.
+     */
+    @Override
+    public synchronized int size() {
+        int size = 0;
+        for (int count : entries) {
+            size += count;
+        }
+        return size;
+    }
+
+    /**
+     * The direct memory, in bytes, allocated by the cache.
+     */
+    public synchronized long allocatedMemory() {
+        long allocated = index.capacity();
+        for (ByteBuffer buffer : segments) {
+            if (buffer != null) {
+                allocated += buffer.capacity();
+            }
+        }
+        return allocated;
+    }
+
+    /**
+     * The maximum direct memory, in bytes, the cache can allocate.
+     */
+    public long maxMemory() {
+        return index.capacity() + (long) SEGMENTS * segmentSize;
+    }
+
+    private void nextSegment() {
+        segment = (segment + 1) % SEGMENTS;
+        if (segments[segment] == null) {
+            segments[segment] = ByteBuffer.allocateDirect(segmentSize);
+        }
+        generations[segment] = ++generation;
+        entries[segment] = 0;
+        position = 0;
+    }
+
+    /**
+     * The position of the slot of the given key in the index, <code>-1</code> if the key is not cached.
+     */
+    private int find(byte[] digest) {
+        int bucket = bucket(digest);
+        for (int way = 0; way < WAYS; way++) {
+            int slot = bucket + way * SLOT_SIZE;
+            if (isUsed(slot) && matches(slot, digest)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The slot where a new key is cached: a free slot of its bucket if any, the slot of the oldest result otherwise.
+     */
+    private int victim(byte[] digest) {
+        int bucket = bucket(digest);
+        int victim = bucket;
+        for (int way = 0; way < WAYS; way++) {
+            int slot = bucket + way * SLOT_SIZE;
+            if (!isUsed(slot)) {
+                return slot;
+            }
+            if (index.getInt(slot + SLOT_GENERATION) < index.getInt(victim + SLOT_GENERATION)) {
+                victim = slot;
+            }
+        }
+        return victim;
+    }
+
+    private int bucket(byte[] digest) {
+        int hash = (digest[0] & 0xFF) | (digest[1] & 0xFF) << 8 | (digest[2] & 0xFF) << 16 | (digest[3] & 0xFF) << 24;
+        return Math.floorMod(hash, buckets) * WAYS * SLOT_SIZE;
+    }
+
+    private boolean isUsed(int slot) {
+        int slotGeneration = index.getInt(slot + SLOT_GENERATION);
+        return slotGeneration != 0 && slotGeneration == generations[index.getInt(slot + SLOT_SEGMENT)];
+    }
+
+    private boolean matches(int slot, byte[] digest) {
+        for (int i = 0; i < KEY_SIZE; i++) {
+            if (index.get(slot + i) != digest[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void free(int slot) {
+        if (isUsed(slot)) {
+            entries[index.getInt(slot + SLOT_SEGMENT)]--;
+        }
+        index.putInt(slot + SLOT_GENERATION, 0);
+    }
+
+    /**
+     * Reads a string of the given length, <code>-1</code> standing for <code>null</code>, at the position of the buffer.
+     */
+    private static byte[] read(ByteBuffer buffer, int length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static void write(ByteBuffer buffer, byte[] bytes) {
+        if (bytes != null) {
+            buffer.put(bytes);
+        }
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static byte[] toBytes(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String toString(byte[] bytes) {
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] decode(String key) {
+        byte[] digest = DECODER.decode(key);
+        if (digest.length != KEY_SIZE) {
+            throw new IllegalArgumentException("Keys of the off-heap cache must be token digests");
+        }
+        return digest;
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.cache;
+
+import io.gravitee.gateway.api.handler.Handler;
+import io.gravitee.node.api.cache.Cache;
+import io.gravitee.node.api.cache.CacheListener;
+import io.gravitee.node.api.cache.EntryEventType;
+import io.vertx.core.Vertx;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An introspection cache shared by all the gateway nodes through a cache of the node, which is distributed when the
+ * gateway runs in a cluster.
+ *
+ * Results are stored under the token digest and encrypted (AES-GCM) using a key derived from the token itself: the
+ * shared cache never holds anything which can be read without knowing the token. Removing an entry from any node
+ * is notified to all the nodes, so that they also drop their local copy. Entries evicted by the shared cache itself,
+ * to make room, are still valid: local copies are kept.
+ *
+ * The cache of the node may involve remote calls: it is never used from an event-loop.
+ *
+ * @author GraviteeSource Team
+ */
+public class SharedIntrospectionCache {
+
+    private final Logger logger = LoggerFactory.getLogger(SharedIntrospectionCache.class);
+
+    private static final String CIPHER_ALGORITHM = "AES/GCM/NoPadding";
+    private static final String KEY_ALGORITHM = "AES";
+    private static final String KEY_DERIVATION_ALGORITHM = "SHA-256";
+    private static final byte[] KEY_DERIVATION_CONTEXT = "gravitee-resource-oauth2-introspection:".getBytes(StandardCharsets.UTF_8);
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+    private static final int HEADER_LENGTH = 3 * Long.BYTES + IV_LENGTH;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Vertx vertx;
+
+    private final Cache<String, byte[]> cache;
+
+    private final CacheListener<String, byte[]> removalListener;
+
+    /**
+     * @param removalHandler called with the digest of each token explicitly removed from the shared cache, by any node.
+     */
+    public SharedIntrospectionCache(Vertx vertx, Cache<String, byte[]> cache, Consumer<String> removalHandler) {
+        this.vertx = vertx;
+        this.cache = cache;
+        this.removalListener =
+            event -> {
+                if (event.getEventType() == EntryEventType.REMOVED) {
+                    removalHandler.accept(event.getKey());
+                }
+            };
+        cache.addCacheListener(removalListener);
+    }
+
+    /**
+     * Looks for the introspection result of the token, the handler is called with <code>null</code> if there is none
+     * or if it can not be read.
+     */
+    public void get(String accessToken, String tokenDigest, Handler<Entry> entryHandler) {
+        vertx.<Entry>executeBlocking(
+            promise -> {
+                byte[] value = cache.get(tokenDigest);
+                promise.complete(value == null ? null : decrypt(accessToken, tokenDigest, value));
+            },
+            false,
+            result -> {
+                if (result.failed()) {
+                    logger.warn("Unable to read the shared introspection cache", result.cause());
+                }
+                Entry entry = result.succeeded() ? result.result() : null;
+                entryHandler.handle(entry != null && entry.freshUntil > System.currentTimeMillis() ? entry : null);
+            }
+        );
+    }
+
+    /**
+     * @param freshUntil the time, in milliseconds since epoch, at which the result becomes stale.
+     * @param expiresAt the time, in milliseconds since epoch, after which the stale result must not be served anymore.
+     */
+    public void put(String accessToken, String tokenDigest, String payload, long freshUntil, long expiresAt) {
+        final long insertedAt = System.currentTimeMillis();
+        vertx.executeBlocking(
+            promise -> {
+                long ttl = freshUntil - System.currentTimeMillis();
+                if (ttl > 0) {
+                    byte[] value = encrypt(accessToken, tokenDigest, payload, insertedAt, freshUntil, expiresAt);
+                    cache.put(tokenDigest, value, ttl, TimeUnit.MILLISECONDS);
+                }
+                promise.complete();
+            },
+            false,
+            result -> {
+                if (result.failed()) {
+                    logger.warn("Unable to write to the shared introspection cache", result.cause());
+                }
+            }
+        );
+    }
+
+    /**
+     * Removes the result of a token on all the nodes.
+     */
+    public void evict(String tokenDigest) {
+        vertx.executeBlocking(
+            promise -> {
+                cache.evict(tokenDigest);
+                promise.complete();
+            },
+            false,
+            result -> {
+                if (result.failed()) {
+                    logger.warn("Unable to evict from the shared introspection cache", result.cause());
+                }
+            }
+        );
+    }
+
+    public void close() {
+        cache.removeCacheListener(removalListener);
+    }
+
+    static byte[] encrypt(String accessToken, String tokenDigest, String payload, long insertedAt, long freshUntil, long expiresAt) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            RANDOM.nextBytes(iv);
+
+            Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+            cipher.init(Cipher.ENCRYPT_MODE, key(accessToken), new GCMParameterSpec(TAG_LENGTH, iv));
+
+            byte[] plaintext = payload.getBytes(StandardCharsets.UTF_8);
+            byte[] value = new byte[HEADER_LENGTH + cipher.getOutputSize(plaintext.length)];
+            ByteBuffer.wrap(value).putLong(insertedAt).putLong(freshUntil).putLong(expiresAt).put(iv);
+
+            // The header is not secret but is authenticated, as well as the key the value is stored under
+            cipher.updateAAD(value, 0, HEADER_LENGTH);
+            cipher.updateAAD(tokenDigest.getBytes(StandardCharsets.UTF_8));
+            cipher.doFinal(plaintext, 0, plaintext.length, value, HEADER_LENGTH);
+            return value;
+        } catch (GeneralSecurityException gse) {
+            throw new IllegalStateException("Unable to encrypt introspection result", gse);
+        }
+    }
+
+    static Entry decrypt(String accessToken, String tokenDigest, byte[] value) {
+        if (value.length <= HEADER_LENGTH) {
+            return null;
+        }
+
+        try {
+            ByteBuffer header = ByteBuffer.wrap(value, 0, HEADER_LENGTH);
+            long insertedAt = header.getLong();
+            long freshUntil = header.getLong();
+            long expiresAt = header.getLong();
+
+            Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+            cipher.init(Cipher.DECRYPT_MODE, key(accessToken), new GCMParameterSpec(TAG_LENGTH, value, 3 * Long.BYTES, IV_LENGTH));
+            cipher.updateAAD(value, 0, HEADER_LENGTH);
+            cipher.updateAAD(tokenDigest.getBytes(StandardCharsets.UTF_8));
+            byte[] payload = cipher.doFinal(value, HEADER_LENGTH, value.length - HEADER_LENGTH);
+
+            return new Entry(new String(payload, StandardCharsets.UTF_8), insertedAt, freshUntil, expiresAt);
+        } catch (GeneralSecurityException gse) {
+            return null;
+        }
+    }
+
+    private static SecretKeySpec key(String accessToken) throws GeneralSecurityException {
+        // Distinct from the token digest, which is known to whoever can read the cache keys
+        MessageDigest digest = MessageDigest.getInstance(KEY_DERIVATION_ALGORITHM);
+        digest.update(KEY_DERIVATION_CONTEXT);
+        return new SecretKeySpec(digest.digest(accessToken.getBytes(StandardCharsets.UTF_8)), KEY_ALGORITHM);
+    }
+
+    public static final class Entry {
+
+        private final String payload;
+
+        private final long insertedAt;
+
+        private final long freshUntil;
+
+        private final long expiresAt;
+
+        private Entry(String payload, long insertedAt, long freshUntil, long expiresAt) {
+            this.payload = payload;
+            this.insertedAt = insertedAt;
+            this.freshUntil = freshUntil;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getPayload() {
+            return payload;
+        }
+
+        /**
+         * The time, in milliseconds since epoch, at which the result has been shared.
+         */
+        public long getInsertedAt() {
+            return insertedAt;
+        }
+
+        /**
+         * The time, in milliseconds since epoch, at which the result becomes stale.
+         */
+        public long getFreshUntil() {
+            return freshUntil;
+        }
+
+        /**
+         * The time, in milliseconds since epoch, after which the stale result must not be served anymore.
+         */
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
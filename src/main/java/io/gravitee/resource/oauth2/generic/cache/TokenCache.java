@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.cache;
+
+/**
+ * A bounded cache whose entries expire after a per-entry time to live.
+ * Keys are expected to be token digests (see {@link TokenDigest}).
+ *
+ * An entry may be kept stale for a while after its time to live: it is then no longer returned by {@link #get(String)}
+ * but can still be read using {@link #getEntry(String)}.
+ *
+ * @author GraviteeSource Team
+ */
+public interface TokenCache<V> {
+    /**
+     * The value of a fresh entry, <code>null</code> if there is none.
+     */
+    default V get(String key) {
+        CacheEntry<V> entry = getEntry(key);
+        return entry == null || entry.isStale() ? null : entry.getValue();
+    }
+
+    /**
+     * The fresh or stale entry, <code>null</code> if there is none.
+     */
+    CacheEntry<V> getEntry(String key);
+
+    default void put(String key, V value, long ttlInMillis) {
+        put(key, value, ttlInMillis, ttlInMillis);
+    }
+
+    /**
+     * @param ttlInMillis time during which the entry is fresh.
+     * @param staleTtlInMillis time after which the entry, then stale, is removed.
+     */
+    void put(String key, V value, long ttlInMillis, long staleTtlInMillis);
+
+    void evict(String key);
+
+    void clear();
+
+    int size();
+
+    final class CacheEntry<V> {
+
+        private final V value;
+
+        private final long freshUntil;
+
+        private final long expiresAt;
+
+        CacheEntry(V value, long freshUntil, long expiresAt) {
+            this.value = value;
+            this.freshUntil = freshUntil;
+            this.expiresAt = expiresAt;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public boolean isStale() {
+            return freshUntil <= System.currentTimeMillis();
+        }
+
+        /**
+         * The time, in milliseconds since epoch, at which the entry becomes stale.
+         */
+        public long getFreshUntil() {
+            return freshUntil;
+        }
+
+        /**
+         * The time, in milliseconds since epoch, at which the entry is removed.
+         */
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
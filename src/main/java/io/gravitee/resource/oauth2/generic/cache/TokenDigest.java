@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Computes the key under which an access token is cached, so that raw tokens are never kept as cache keys.
+ *
+ * @author GraviteeSource Team
+ */
+public final class TokenDigest {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new IllegalStateException("Unable to compute token digests", nsae);
+        }
+    });
+
+    private TokenDigest() {}
+
+    public static String digest(String accessToken) {
+        MessageDigest messageDigest = DIGESTS.get();
+        messageDigest.reset();
+        return ENCODER.encodeToString(messageDigest.digest(accessToken.getBytes(StandardCharsets.UTF_8)));
+    }
+}
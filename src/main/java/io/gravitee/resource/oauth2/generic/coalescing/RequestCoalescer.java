@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.coalescing;
+
+import io.gravitee.gateway.api.handler.Handler;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deduplicates concurrent calls sharing the same key: the first caller triggers the call, every caller arriving
+ * before it completes is registered as a waiter and receives the same result.
+ *
+ * Waiters are called back on the Vert.x context they were registered from, so that no event-loop is ever blocked
+ * nor used to run handlers belonging to another one.
+ *
+ * A call throwing before it completes is completed with the failure result, so that its key is never left in flight.
+ *
+ * @author GraviteeSource Team
+ */
+public class RequestCoalescer<T> {
+
+    private final Logger logger = LoggerFactory.getLogger(RequestCoalescer.class);
+
+    private final ConcurrentMap<String, List<Waiter<T>>> inFlight = new ConcurrentHashMap<>();
+
+    private final Function<Throwable, T> failure;
+
+    /**
+     * @param failure the result the waiters are completed with when the call throws.
+     */
+    public RequestCoalescer(Function<Throwable, T> failure) {
+        this.failure = failure;
+    }
+
+    public void execute(String key, Handler<T> handler, Consumer<Handler<T>> call) {
+        final Waiter<T> waiter = new Waiter<>(handler, Vertx.currentContext());
+        final List<List<Waiter<T>>> created = new ArrayList<>(1);
+
+        inFlight.compute(
+            key,
+            (k, waiters) -> {
+                if (waiters == null) {
+                    waiters = new ArrayList<>(1);
+                    created.add(waiters);
+                }
+                waiters.add(waiter);
+                return waiters;
+            }
+        );
+
+        if (created.isEmpty()) {
+            return;
+        }
+
+        final List<Waiter<T>> waiters = created.get(0);
+        try {
+            call.accept(result -> complete(key, waiters, result));
+        } catch (RuntimeException ex) {
+            logger.error("An error occurs while executing a coalesced request", ex);
+            complete(key, waiters, failure.apply(ex));
+        }
+    }
+
+    public int size() {
+        return inFlight.size();
+    }
+
+    private void complete(String key, List<Waiter<T>> waiters, T result) {
+        // The waiters of a later call may already be registered under the key if this call has completed before
+        if (!inFlight.remove(key, waiters)) {
+            return;
+        }
+
+        final Context currentContext = Vertx.currentContext();
+        for (Waiter<T> waiter : waiters) {
+            if (waiter.context == null || waiter.context == currentContext) {
+                notify(waiter, result);
+            } else {
+                waiter.context.runOnContext(v -> notify(waiter, result));
+            }
+        }
+    }
+
+    private void notify(Waiter<T> waiter, T result) {
+        try {
+            waiter.handler.handle(result);
+        } catch (Exception ex) {
+            logger.error("An error occurs while notifying a coalesced request", ex);
+        }
+    }
+
+    private static final class Waiter<T> {
+
+        private final Handler<T> handler;
+
+        private final Context context;
+
+        private Waiter(Handler<T> handler, Context context) {
+            this.handler = handler;
+            this.context = context;
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package io.gravitee.resource.oauth2.generic.configuration;
 
 import io.gravitee.resource.api.ResourceConfiguration;
+import java.util.List;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -28,6 +29,14 @@ public class OAuth2ResourceConfiguration implements ResourceConfiguration {
 
     private String introspectionEndpoint;
 
+    private List<String> additionalAuthorizationServerUrls;
+
+    private String loadBalancingStrategy = "ROUND_ROBIN";
+
+    private int endpointEjectionFailures = 5;
+
+    private long endpointEjectionDuration = 30;
+
     private boolean useSystemProxy;
 
     private String introspectionEndpointMethod;
@@ -66,6 +75,178 @@ public class OAuth2ResourceConfiguration implements ResourceConfiguration {
 
     private String userClaim;
 
+    private boolean introspectionCacheEnabled;
+
+    private int introspectionCacheMaxSize = 10000;
+
+    private long introspectionCacheMaxTtl = 60;
+
+    private long introspectionCacheStaleWhileRevalidate;
+
+    private long introspectionCacheStaleIfError;
+
+    private boolean introspectionCacheOffHeapEnabled;
+
+    private int introspectionCacheOffHeapMaxMemory = 256;
+
+    private boolean sharedIntrospectionCacheEnabled;
+
+    private boolean hotTokenRefreshEnabled;
+
+    private long hotTokenRefreshInterval = 5;
+
+    private int hotTokenMinHits = 10;
+
+    private int hotTokenMaxCount = 100;
+
+    private int hotTokenRefreshConcurrency = 4;
+
+    private int hotTokenRefreshMaxRate = 10;
+
+    private boolean batchIntrospectionEnabled;
+
+    private String batchIntrospectionEndpoint;
+
+    private long batchIntrospectionWindow = 2;
+
+    private int batchIntrospectionMaxSize = 20;
+
+    private String batchIntrospectionTokensField = "tokens";
+
+    private String batchIntrospectionResultsPath;
+
+    private String batchIntrospectionTokenPath;
+
+    private boolean userInfoCacheEnabled;
+
+    private int userInfoCacheMaxSize = 10000;
+
+    private long userInfoCacheMaxTtl = 60;
+
+    private boolean negativeCacheEnabled;
+
+    private int negativeCacheMaxSize = 10000;
+
+    private long negativeCacheTtl = 10;
+
+    private String revocationEventBusAddress;
+
+    private boolean revocationWebhookEnabled = false;
+
+    private String revocationWebhookHost = "127.0.0.1";
+
+    private int revocationWebhookPort = 8095;
+
+    private String revocationWebhookPath = "/revocations";
+
+    private String revocationWebhookSecret;
+
+    private int httpClientMaxPoolSize = 100;
+
+    private boolean httpClientKeepAlive = true;
+
+    private boolean httpClientPipelining;
+
+    private int httpClientIdleTimeout = 60;
+
+    private int httpClientConnectTimeout = 10000;
+
+    private boolean http2Enabled;
+
+    private int http2MaxPoolSize = 1;
+
+    private int http2MultiplexingLimit = -1;
+
+    private boolean connectionWarmUpEnabled;
+
+    private int connectionWarmUpCount = 2;
+
+    private long connectionWarmUpInterval = 30;
+
+    private boolean dnsCacheEnabled;
+
+    private long dnsCacheTtl = 60;
+
+    private boolean sslTrustAll = true;
+
+    private boolean sslVerifyHost;
+
+    private String sslTrustStoreType;
+
+    private String sslTrustStorePath;
+
+    private String sslTrustStoreContent;
+
+    private String sslTrustStorePassword;
+
+    private String sslKeyStoreType;
+
+    private String sslKeyStorePath;
+
+    private String sslKeyStoreContent;
+
+    private String sslKeyStorePassword;
+
+    private String sslKeyStoreKeyPath;
+
+    private String sslKeyStoreKeyContent;
+
+    private boolean sslOpenSslEnabled;
+
+    private boolean jwtValidationEnabled;
+
+    private String jwksUri;
+
+    private long jwksRefreshInterval = 300;
+
+    private long jwksMinRefetchInterval = 30;
+
+    private String jwtIssuer;
+
+    private String jwtAudience;
+
+    private long jwtClockSkew = 60;
+
+    private boolean metricsEnabled = true;
+
+    private long requestTimeout = 30000;
+
+    private long requestTotalTimeout;
+
+    private boolean hedgingEnabled;
+
+    private int hedgingPercentile = 95;
+
+    private long hedgingMinDelay = 50;
+
+    private int hedgingMaxRatio = 10;
+
+    private int maxInFlightRequests;
+
+    private int requestRateLimit;
+
+    private int requestRateLimitBurst;
+
+    private int requestQueueMaxSize = 100;
+
+    private long requestQueueMaxWait = 1000;
+
+    private boolean circuitBreakerEnabled;
+
+    private int circuitBreakerFailureRateThreshold = 50;
+
+    private int circuitBreakerSlowCallRateThreshold = 100;
+
+    private long circuitBreakerSlowCallDuration = 5000;
+
+    private int circuitBreakerSlidingWindowSize = 100;
+
+    private int circuitBreakerMinimumNumberOfCalls = 20;
+
+    private long circuitBreakerOpenStateDuration = 30;
+
+    private int circuitBreakerPermittedCallsInHalfOpenState = 5;
+
     public String getAuthorizationServerUrl() {
         return authorizationServerUrl;
     }
@@ -82,6 +263,38 @@ public class OAuth2ResourceConfiguration implements ResourceConfiguration {
         this.introspectionEndpoint = introspectionEndpoint;
     }
 
+    public List<String> getAdditionalAuthorizationServerUrls() {
+        return additionalAuthorizationServerUrls;
+    }
+
+    public void setAdditionalAuthorizationServerUrls(List<String> additionalAuthorizationServerUrls) {
+        this.additionalAuthorizationServerUrls = additionalAuthorizationServerUrls;
+    }
+
+    public String getLoadBalancingStrategy() {
+        return loadBalancingStrategy;
+    }
+
+    public void setLoadBalancingStrategy(String loadBalancingStrategy) {
+        this.loadBalancingStrategy = loadBalancingStrategy;
+    }
+
+    public int getEndpointEjectionFailures() {
+        return endpointEjectionFailures;
+    }
+
+    public void setEndpointEjectionFailures(int endpointEjectionFailures) {
+        this.endpointEjectionFailures = endpointEjectionFailures;
+    }
+
+    public long getEndpointEjectionDuration() {
+        return endpointEjectionDuration;
+    }
+
+    public void setEndpointEjectionDuration(long endpointEjectionDuration) {
+        this.endpointEjectionDuration = endpointEjectionDuration;
+    }
+
     public boolean isUseSystemProxy() {
         return useSystemProxy;
     }
@@ -233,4 +446,692 @@ public class OAuth2ResourceConfiguration implements ResourceConfiguration {
     public void setUserClaim(String userClaim) {
         this.userClaim = userClaim;
     }
+
+    public boolean isIntrospectionCacheEnabled() {
+        return introspectionCacheEnabled;
+    }
+
+    public void setIntrospectionCacheEnabled(boolean introspectionCacheEnabled) {
+        this.introspectionCacheEnabled = introspectionCacheEnabled;
+    }
+
+    public int getIntrospectionCacheMaxSize() {
+        return introspectionCacheMaxSize;
+    }
+
+    public void setIntrospectionCacheMaxSize(int introspectionCacheMaxSize) {
+        this.introspectionCacheMaxSize = introspectionCacheMaxSize;
+    }
+
+    public long getIntrospectionCacheMaxTtl() {
+        return introspectionCacheMaxTtl;
+    }
+
+    public void setIntrospectionCacheMaxTtl(long introspectionCacheMaxTtl) {
+        this.introspectionCacheMaxTtl = introspectionCacheMaxTtl;
+    }
+
+    public long getIntrospectionCacheStaleWhileRevalidate() {
+        return introspectionCacheStaleWhileRevalidate;
+    }
+
+    public void setIntrospectionCacheStaleWhileRevalidate(long introspectionCacheStaleWhileRevalidate) {
+        this.introspectionCacheStaleWhileRevalidate = introspectionCacheStaleWhileRevalidate;
+    }
+
+    public long getIntrospectionCacheStaleIfError() {
+        return introspectionCacheStaleIfError;
+    }
+
+    public void setIntrospectionCacheStaleIfError(long introspectionCacheStaleIfError) {
+        this.introspectionCacheStaleIfError = introspectionCacheStaleIfError;
+    }
+
+    public boolean isIntrospectionCacheOffHeapEnabled() {
+        return introspectionCacheOffHeapEnabled;
+    }
+
+    public void setIntrospectionCacheOffHeapEnabled(boolean introspectionCacheOffHeapEnabled) {
+        this.introspectionCacheOffHeapEnabled = introspectionCacheOffHeapEnabled;
+    }
+
+    public int getIntrospectionCacheOffHeapMaxMemory() {
+        return introspectionCacheOffHeapMaxMemory;
+    }
+
+    public void setIntrospectionCacheOffHeapMaxMemory(int introspectionCacheOffHeapMaxMemory) {
+        this.introspectionCacheOffHeapMaxMemory = introspectionCacheOffHeapMaxMemory;
+    }
+
+    public boolean isSharedIntrospectionCacheEnabled() {
+        return sharedIntrospectionCacheEnabled;
+    }
+
+    public void setSharedIntrospectionCacheEnabled(boolean sharedIntrospectionCacheEnabled) {
+        this.sharedIntrospectionCacheEnabled = sharedIntrospectionCacheEnabled;
+    }
+
+    public boolean isHotTokenRefreshEnabled() {
+        return hotTokenRefreshEnabled;
+    }
+
+    public void setHotTokenRefreshEnabled(boolean hotTokenRefreshEnabled) {
+        this.hotTokenRefreshEnabled = hotTokenRefreshEnabled;
+    }
+
+    public long getHotTokenRefreshInterval() {
+        return hotTokenRefreshInterval;
+    }
+
+    public void setHotTokenRefreshInterval(long hotTokenRefreshInterval) {
+        this.hotTokenRefreshInterval = hotTokenRefreshInterval;
+    }
+
+    public int getHotTokenMinHits() {
+        return hotTokenMinHits;
+    }
+
+    public void setHotTokenMinHits(int hotTokenMinHits) {
+        this.hotTokenMinHits = hotTokenMinHits;
+    }
+
+    public int getHotTokenMaxCount() {
+        return hotTokenMaxCount;
+    }
+
+    public void setHotTokenMaxCount(int hotTokenMaxCount) {
+        this.hotTokenMaxCount = hotTokenMaxCount;
+    }
+
+    public int getHotTokenRefreshConcurrency() {
+        return hotTokenRefreshConcurrency;
+    }
+
+    public void setHotTokenRefreshConcurrency(int hotTokenRefreshConcurrency) {
+        this.hotTokenRefreshConcurrency = hotTokenRefreshConcurrency;
+    }
+
+    public int getHotTokenRefreshMaxRate() {
+        return hotTokenRefreshMaxRate;
+    }
+
+    public void setHotTokenRefreshMaxRate(int hotTokenRefreshMaxRate) {
+        this.hotTokenRefreshMaxRate = hotTokenRefreshMaxRate;
+    }
+
+    public boolean isBatchIntrospectionEnabled() {
+        return batchIntrospectionEnabled;
+    }
+
+    public void setBatchIntrospectionEnabled(boolean batchIntrospectionEnabled) {
+        this.batchIntrospectionEnabled = batchIntrospectionEnabled;
+    }
+
+    public String getBatchIntrospectionEndpoint() {
+        return batchIntrospectionEndpoint;
+    }
+
+    public void setBatchIntrospectionEndpoint(String batchIntrospectionEndpoint) {
+        this.batchIntrospectionEndpoint = batchIntrospectionEndpoint;
+    }
+
+    public long getBatchIntrospectionWindow() {
+        return batchIntrospectionWindow;
+    }
+
+    public void setBatchIntrospectionWindow(long batchIntrospectionWindow) {
+        this.batchIntrospectionWindow = batchIntrospectionWindow;
+    }
+
+    public int getBatchIntrospectionMaxSize() {
+        return batchIntrospectionMaxSize;
+    }
+
+    public void setBatchIntrospectionMaxSize(int batchIntrospectionMaxSize) {
+        this.batchIntrospectionMaxSize = batchIntrospectionMaxSize;
+    }
+
+    public String getBatchIntrospectionTokensField() {
+        return batchIntrospectionTokensField;
+    }
+
+    public void setBatchIntrospectionTokensField(String batchIntrospectionTokensField) {
+        this.batchIntrospectionTokensField = batchIntrospectionTokensField;
+    }
+
+    public String getBatchIntrospectionResultsPath() {
+        return batchIntrospectionResultsPath;
+    }
+
+    public void setBatchIntrospectionResultsPath(String batchIntrospectionResultsPath) {
+        this.batchIntrospectionResultsPath = batchIntrospectionResultsPath;
+    }
+
+    public String getBatchIntrospectionTokenPath() {
+        return batchIntrospectionTokenPath;
+    }
+
+    public void setBatchIntrospectionTokenPath(String batchIntrospectionTokenPath) {
+        this.batchIntrospectionTokenPath = batchIntrospectionTokenPath;
+    }
+
+    public boolean isUserInfoCacheEnabled() {
+        return userInfoCacheEnabled;
+    }
+
+    public void setUserInfoCacheEnabled(boolean userInfoCacheEnabled) {
+        this.userInfoCacheEnabled = userInfoCacheEnabled;
+    }
+
+    public int getUserInfoCacheMaxSize() {
+        return userInfoCacheMaxSize;
+    }
+
+    public void setUserInfoCacheMaxSize(int userInfoCacheMaxSize) {
+        this.userInfoCacheMaxSize = userInfoCacheMaxSize;
+    }
+
+    public long getUserInfoCacheMaxTtl() {
+        return userInfoCacheMaxTtl;
+    }
+
+    public void setUserInfoCacheMaxTtl(long userInfoCacheMaxTtl) {
+        this.userInfoCacheMaxTtl = userInfoCacheMaxTtl;
+    }
+
+    public boolean isNegativeCacheEnabled() {
+        return negativeCacheEnabled;
+    }
+
+    public void setNegativeCacheEnabled(boolean negativeCacheEnabled) {
+        this.negativeCacheEnabled = negativeCacheEnabled;
+    }
+
+    public int getNegativeCacheMaxSize() {
+        return negativeCacheMaxSize;
+    }
+
+    public void setNegativeCacheMaxSize(int negativeCacheMaxSize) {
+        this.negativeCacheMaxSize = negativeCacheMaxSize;
+    }
+
+    public long getNegativeCacheTtl() {
+        return negativeCacheTtl;
+    }
+
+    public void setNegativeCacheTtl(long negativeCacheTtl) {
+        this.negativeCacheTtl = negativeCacheTtl;
+    }
+
+    public String getRevocationEventBusAddress() {
+        return revocationEventBusAddress;
+    }
+
+    public void setRevocationEventBusAddress(String revocationEventBusAddress) {
+        this.revocationEventBusAddress = revocationEventBusAddress;
+    }
+
+    public boolean isRevocationWebhookEnabled() {
+        return revocationWebhookEnabled;
+    }
+
+    public void setRevocationWebhookEnabled(boolean revocationWebhookEnabled) {
+        this.revocationWebhookEnabled = revocationWebhookEnabled;
+    }
+
+    public String getRevocationWebhookHost() {
+        return revocationWebhookHost;
+    }
+
+    public void setRevocationWebhookHost(String revocationWebhookHost) {
+        this.revocationWebhookHost = revocationWebhookHost;
+    }
+
+    public int getRevocationWebhookPort() {
+        return revocationWebhookPort;
+    }
+
+    public void setRevocationWebhookPort(int revocationWebhookPort) {
+        this.revocationWebhookPort = revocationWebhookPort;
+    }
+
+    public String getRevocationWebhookPath() {
+        return revocationWebhookPath;
+    }
+
+    public void setRevocationWebhookPath(String revocationWebhookPath) {
+        this.revocationWebhookPath = revocationWebhookPath;
+    }
+
+    public String getRevocationWebhookSecret() {
+        return revocationWebhookSecret;
+    }
+
+    public void setRevocationWebhookSecret(String revocationWebhookSecret) {
+        this.revocationWebhookSecret = revocationWebhookSecret;
+    }
+
+    public int getHttpClientMaxPoolSize() {
+        return httpClientMaxPoolSize;
+    }
+
+    public void setHttpClientMaxPoolSize(int httpClientMaxPoolSize) {
+        this.httpClientMaxPoolSize = httpClientMaxPoolSize;
+    }
+
+    public boolean isHttpClientKeepAlive() {
+        return httpClientKeepAlive;
+    }
+
+    public void setHttpClientKeepAlive(boolean httpClientKeepAlive) {
+        this.httpClientKeepAlive = httpClientKeepAlive;
+    }
+
+    public boolean isHttpClientPipelining() {
+        return httpClientPipelining;
+    }
+
+    public void setHttpClientPipelining(boolean httpClientPipelining) {
+        this.httpClientPipelining = httpClientPipelining;
+    }
+
+    public int getHttpClientIdleTimeout() {
+        return httpClientIdleTimeout;
+    }
+
+    public void setHttpClientIdleTimeout(int httpClientIdleTimeout) {
+        this.httpClientIdleTimeout = httpClientIdleTimeout;
+    }
+
+    public int getHttpClientConnectTimeout() {
+        return httpClientConnectTimeout;
+    }
+
+    public void setHttpClientConnectTimeout(int httpClientConnectTimeout) {
+        this.httpClientConnectTimeout = httpClientConnectTimeout;
+    }
+
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    public void setHttp2Enabled(boolean http2Enabled) {
+        this.http2Enabled = http2Enabled;
+    }
+
+    public int getHttp2MaxPoolSize() {
+        return http2MaxPoolSize;
+    }
+
+    public void setHttp2MaxPoolSize(int http2MaxPoolSize) {
+        this.http2MaxPoolSize = http2MaxPoolSize;
+    }
+
+    public int getHttp2MultiplexingLimit() {
+        return http2MultiplexingLimit;
+    }
+
+    public void setHttp2MultiplexingLimit(int http2MultiplexingLimit) {
+        this.http2MultiplexingLimit = http2MultiplexingLimit;
+    }
+
+    public boolean isConnectionWarmUpEnabled() {
+        return connectionWarmUpEnabled;
+    }
+
+    public void setConnectionWarmUpEnabled(boolean connectionWarmUpEnabled) {
+        this.connectionWarmUpEnabled = connectionWarmUpEnabled;
+    }
+
+    public int getConnectionWarmUpCount() {
+        return connectionWarmUpCount;
+    }
+
+    public void setConnectionWarmUpCount(int connectionWarmUpCount) {
+        this.connectionWarmUpCount = connectionWarmUpCount;
+    }
+
+    public long getConnectionWarmUpInterval() {
+        return connectionWarmUpInterval;
+    }
+
+    public void setConnectionWarmUpInterval(long connectionWarmUpInterval) {
+        this.connectionWarmUpInterval = connectionWarmUpInterval;
+    }
+
+    public boolean isDnsCacheEnabled() {
+        return dnsCacheEnabled;
+    }
+
+    public void setDnsCacheEnabled(boolean dnsCacheEnabled) {
+        this.dnsCacheEnabled = dnsCacheEnabled;
+    }
+
+    public long getDnsCacheTtl() {
+        return dnsCacheTtl;
+    }
+
+    public void setDnsCacheTtl(long dnsCacheTtl) {
+        this.dnsCacheTtl = dnsCacheTtl;
+    }
+
+    public boolean isSslTrustAll() {
+        return sslTrustAll;
+    }
+
+    public void setSslTrustAll(boolean sslTrustAll) {
+        this.sslTrustAll = sslTrustAll;
+    }
+
+    public boolean isSslVerifyHost() {
+        return sslVerifyHost;
+    }
+
+    public void setSslVerifyHost(boolean sslVerifyHost) {
+        this.sslVerifyHost = sslVerifyHost;
+    }
+
+    public String getSslTrustStoreType() {
+        return sslTrustStoreType;
+    }
+
+    public void setSslTrustStoreType(String sslTrustStoreType) {
+        this.sslTrustStoreType = sslTrustStoreType;
+    }
+
+    public String getSslTrustStorePath() {
+        return sslTrustStorePath;
+    }
+
+    public void setSslTrustStorePath(String sslTrustStorePath) {
+        this.sslTrustStorePath = sslTrustStorePath;
+    }
+
+    public String getSslTrustStoreContent() {
+        return sslTrustStoreContent;
+    }
+
+    public void setSslTrustStoreContent(String sslTrustStoreContent) {
+        this.sslTrustStoreContent = sslTrustStoreContent;
+    }
+
+    public String getSslTrustStorePassword() {
+        return sslTrustStorePassword;
+    }
+
+    public void setSslTrustStorePassword(String sslTrustStorePassword) {
+        this.sslTrustStorePassword = sslTrustStorePassword;
+    }
+
+    public String getSslKeyStoreType() {
+        return sslKeyStoreType;
+    }
+
+    public void setSslKeyStoreType(String sslKeyStoreType) {
+        this.sslKeyStoreType = sslKeyStoreType;
+    }
+
+    public String getSslKeyStorePath() {
+        return sslKeyStorePath;
+    }
+
+    public void setSslKeyStorePath(String sslKeyStorePath) {
+        this.sslKeyStorePath = sslKeyStorePath;
+    }
+
+    public String getSslKeyStoreContent() {
+        return sslKeyStoreContent;
+    }
+
+    public void setSslKeyStoreContent(String sslKeyStoreContent) {
+        this.sslKeyStoreContent = sslKeyStoreContent;
+    }
+
+    public String getSslKeyStorePassword() {
+        return sslKeyStorePassword;
+    }
+
+    public void setSslKeyStorePassword(String sslKeyStorePassword) {
+        this.sslKeyStorePassword = sslKeyStorePassword;
+    }
+
+    public String getSslKeyStoreKeyPath() {
+        return sslKeyStoreKeyPath;
+    }
+
+    public void setSslKeyStoreKeyPath(String sslKeyStoreKeyPath) {
+        this.sslKeyStoreKeyPath = sslKeyStoreKeyPath;
+    }
+
+    public String getSslKeyStoreKeyContent() {
+        return sslKeyStoreKeyContent;
+    }
+
+    public void setSslKeyStoreKeyContent(String sslKeyStoreKeyContent) {
+        this.sslKeyStoreKeyContent = sslKeyStoreKeyContent;
+    }
+
+    public boolean isSslOpenSslEnabled() {
+        return sslOpenSslEnabled;
+    }
+
+    public void setSslOpenSslEnabled(boolean sslOpenSslEnabled) {
+        this.sslOpenSslEnabled = sslOpenSslEnabled;
+    }
+
+    public boolean isJwtValidationEnabled() {
+        return jwtValidationEnabled;
+    }
+
+    public void setJwtValidationEnabled(boolean jwtValidationEnabled) {
+        this.jwtValidationEnabled = jwtValidationEnabled;
+    }
+
+    public String getJwksUri() {
+        return jwksUri;
+    }
+
+    public void setJwksUri(String jwksUri) {
+        this.jwksUri = jwksUri;
+    }
+
+    public long getJwksRefreshInterval() {
+        return jwksRefreshInterval;
+    }
+
+    public void setJwksRefreshInterval(long jwksRefreshInterval) {
+        this.jwksRefreshInterval = jwksRefreshInterval;
+    }
+
+    public long getJwksMinRefetchInterval() {
+        return jwksMinRefetchInterval;
+    }
+
+    public void setJwksMinRefetchInterval(long jwksMinRefetchInterval) {
+        this.jwksMinRefetchInterval = jwksMinRefetchInterval;
+    }
+
+    public String getJwtIssuer() {
+        return jwtIssuer;
+    }
+
+    public void setJwtIssuer(String jwtIssuer) {
+        this.jwtIssuer = jwtIssuer;
+    }
+
+    public String getJwtAudience() {
+        return jwtAudience;
+    }
+
+    public void setJwtAudience(String jwtAudience) {
+        this.jwtAudience = jwtAudience;
+    }
+
+    public long getJwtClockSkew() {
+        return jwtClockSkew;
+    }
+
+    public void setJwtClockSkew(long jwtClockSkew) {
+        this.jwtClockSkew = jwtClockSkew;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    public long getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(long requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public long getRequestTotalTimeout() {
+        return requestTotalTimeout;
+    }
+
+    public void setRequestTotalTimeout(long requestTotalTimeout) {
+        this.requestTotalTimeout = requestTotalTimeout;
+    }
+
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    public void setHedgingEnabled(boolean hedgingEnabled) {
+        this.hedgingEnabled = hedgingEnabled;
+    }
+
+    public int getHedgingPercentile() {
+        return hedgingPercentile;
+    }
+
+    public void setHedgingPercentile(int hedgingPercentile) {
+        this.hedgingPercentile = hedgingPercentile;
+    }
+
+    public long getHedgingMinDelay() {
+        return hedgingMinDelay;
+    }
+
+    public void setHedgingMinDelay(long hedgingMinDelay) {
+        this.hedgingMinDelay = hedgingMinDelay;
+    }
+
+    public int getHedgingMaxRatio() {
+        return hedgingMaxRatio;
+    }
+
+    public void setHedgingMaxRatio(int hedgingMaxRatio) {
+        this.hedgingMaxRatio = hedgingMaxRatio;
+    }
+
+    public int getMaxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    public void setMaxInFlightRequests(int maxInFlightRequests) {
+        this.maxInFlightRequests = maxInFlightRequests;
+    }
+
+    public int getRequestRateLimit() {
+        return requestRateLimit;
+    }
+
+    public void setRequestRateLimit(int requestRateLimit) {
+        this.requestRateLimit = requestRateLimit;
+    }
+
+    public int getRequestRateLimitBurst() {
+        return requestRateLimitBurst;
+    }
+
+    public void setRequestRateLimitBurst(int requestRateLimitBurst) {
+        this.requestRateLimitBurst = requestRateLimitBurst;
+    }
+
+    public int getRequestQueueMaxSize() {
+        return requestQueueMaxSize;
+    }
+
+    public void setRequestQueueMaxSize(int requestQueueMaxSize) {
+        this.requestQueueMaxSize = requestQueueMaxSize;
+    }
+
+    public long getRequestQueueMaxWait() {
+        return requestQueueMaxWait;
+    }
+
+    public void setRequestQueueMaxWait(long requestQueueMaxWait) {
+        this.requestQueueMaxWait = requestQueueMaxWait;
+    }
+
+    public boolean isCircuitBreakerEnabled() {
+        return circuitBreakerEnabled;
+    }
+
+    public void setCircuitBreakerEnabled(boolean circuitBreakerEnabled) {
+        this.circuitBreakerEnabled = circuitBreakerEnabled;
+    }
+
+    public int getCircuitBreakerFailureRateThreshold() {
+        return circuitBreakerFailureRateThreshold;
+    }
+
+    public void setCircuitBreakerFailureRateThreshold(int circuitBreakerFailureRateThreshold) {
+        this.circuitBreakerFailureRateThreshold = circuitBreakerFailureRateThreshold;
+    }
+
+    public int getCircuitBreakerSlowCallRateThreshold() {
+        return circuitBreakerSlowCallRateThreshold;
+    }
+
+    public void setCircuitBreakerSlowCallRateThreshold(int circuitBreakerSlowCallRateThreshold) {
+        this.circuitBreakerSlowCallRateThreshold = circuitBreakerSlowCallRateThreshold;
+    }
+
+    public long getCircuitBreakerSlowCallDuration() {
+        return circuitBreakerSlowCallDuration;
+    }
+
+    public void setCircuitBreakerSlowCallDuration(long circuitBreakerSlowCallDuration) {
+        this.circuitBreakerSlowCallDuration = circuitBreakerSlowCallDuration;
+    }
+
+    public int getCircuitBreakerSlidingWindowSize() {
+        return circuitBreakerSlidingWindowSize;
+    }
+
+    public void setCircuitBreakerSlidingWindowSize(int circuitBreakerSlidingWindowSize) {
+        this.circuitBreakerSlidingWindowSize = circuitBreakerSlidingWindowSize;
+    }
+
+    public int getCircuitBreakerMinimumNumberOfCalls() {
+        return circuitBreakerMinimumNumberOfCalls;
+    }
+
+    public void setCircuitBreakerMinimumNumberOfCalls(int circuitBreakerMinimumNumberOfCalls) {
+        this.circuitBreakerMinimumNumberOfCalls = circuitBreakerMinimumNumberOfCalls;
+    }
+
+    public long getCircuitBreakerOpenStateDuration() {
+        return circuitBreakerOpenStateDuration;
+    }
+
+    public void setCircuitBreakerOpenStateDuration(long circuitBreakerOpenStateDuration) {
+        this.circuitBreakerOpenStateDuration = circuitBreakerOpenStateDuration;
+    }
+
+    public int getCircuitBreakerPermittedCallsInHalfOpenState() {
+        return circuitBreakerPermittedCallsInHalfOpenState;
+    }
+
+    public void setCircuitBreakerPermittedCallsInHalfOpenState(int circuitBreakerPermittedCallsInHalfOpenState) {
+        this.circuitBreakerPermittedCallsInHalfOpenState = circuitBreakerPermittedCallsInHalfOpenState;
+    }
 }
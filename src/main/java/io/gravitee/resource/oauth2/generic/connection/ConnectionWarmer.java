@@ -0,0 +1,207 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.connection;
+
+import io.gravitee.resource.oauth2.generic.metrics.OAuth2ResourceMetrics;
+import io.gravitee.resource.oauth2.generic.metrics.Outcome;
+import io.gravitee.resource.oauth2.generic.request.RequestTemplate;
+import io.gravitee.resource.oauth2.generic.resilience.CircuitBreaker;
+import io.gravitee.resource.oauth2.generic.resilience.RateLimiter;
+import io.gravitee.resource.oauth2.generic.resilience.RequestGuard;
+import io.vertx.core.CompositeFuture;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.RequestOptions;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Opens connections to the authorization server before they are needed, so that the first requests do not pay for
+ * the host resolution, the TCP connection and the TLS handshake.
+ *
+ * Connections are opened by sending concurrent <code>HEAD</code> requests, without any credentials, to each endpoint
+ * host: whatever the status of the response, the connection is then kept in the pool of the client. The requests are
+ * sent again periodically so that the connections are not closed by the idle timeout of the client.
+ *
+ * Warm-up requests are calls to the authorization server like any other: they are only sent while the circuit breaker
+ * is closed and the host is not ejected by the load balancer, count against the in-flight limit and come last in the
+ * budget of calls.
+ *
+ * @author GraviteeSource Team
+ */
+public class ConnectionWarmer {
+
+    private final Logger logger = LoggerFactory.getLogger(ConnectionWarmer.class);
+
+    private final Vertx vertx;
+
+    private final HttpClient httpClient;
+
+    private final RequestGuard requestGuard;
+
+    private final List<RequestTemplate> requestTemplates;
+
+    private final Predicate<RequestTemplate> available;
+
+    private final int connections;
+
+    private final long interval;
+
+    private final OAuth2ResourceMetrics metrics;
+
+    private boolean stopped;
+
+    private long timerId = -1;
+
+    /**
+     * @param requestTemplates the requests of the endpoints to open connections to, a single endpoint is used by host.
+     * @param available whether the endpoint of a request can be called, <code>false</code> when it is ejected.
+     * @param connections the number of connections opened to each host.
+     * @param interval the time, in milliseconds, between two warm-ups, connections are only opened once when not positive.
+     */
+    public ConnectionWarmer(
+        Vertx vertx,
+        HttpClient httpClient,
+        RequestGuard requestGuard,
+        List<RequestTemplate> requestTemplates,
+        Predicate<RequestTemplate> available,
+        int connections,
+        long interval,
+        OAuth2ResourceMetrics metrics
+    ) {
+        this.vertx = vertx;
+        this.httpClient = httpClient;
+        this.requestGuard = requestGuard;
+        this.requestTemplates = requestTemplates;
+        this.available = available;
+        this.connections = connections;
+        this.interval = interval;
+        this.metrics = metrics;
+    }
+
+    public void start() {
+        final long start = System.currentTimeMillis();
+        warmUp()
+            .onSuccess(warm -> {
+                logger.info("{} connection(s) to the authorization server warmed up in {} ms", warm, System.currentTimeMillis() - start);
+
+                synchronized (this) {
+                    if (!stopped && interval > 0) {
+                        timerId = vertx.setPeriodic(interval, id -> warmUp());
+                    }
+                }
+            });
+    }
+
+    public synchronized void stop() {
+        stopped = true;
+        if (timerId != -1) {
+            vertx.cancelTimer(timerId);
+            timerId = -1;
+        }
+    }
+
+    /**
+     * Sends the warm-up requests, the future completes with the number of requests which got a response.
+     */
+    Future<Integer> warmUp() {
+        CircuitBreaker circuitBreaker = requestGuard.getCircuitBreaker();
+        if (circuitBreaker != null && circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+            // Trial calls are kept for actual calls while the authorization server is recovering
+            logger.debug("Authorization server is failing, connections are not warmed up");
+            return Future.succeededFuture(0);
+        }
+
+        List<Future> responses = new ArrayList<>();
+        for (RequestOptions options : targets()) {
+            for (int i = 0; i < connections; i++) {
+                responses.add(warmUp(options));
+            }
+        }
+
+        return CompositeFuture
+            .all(responses)
+            .map(result -> {
+                int succeeded = 0;
+                int failed = 0;
+                for (int i = 0; i < result.size(); i++) {
+                    // Requests not sent, to spare the authorization server, are counted as neither
+                    Boolean warm = result.resultAt(i);
+                    if (Boolean.TRUE.equals(warm)) {
+                        succeeded++;
+                    } else if (Boolean.FALSE.equals(warm)) {
+                        failed++;
+                    }
+                }
+                metrics.connectionsWarmedUp(succeeded, failed);
+                return succeeded;
+            });
+    }
+
+    /**
+     * Sends a warm-up request, the future completes with whether it got a response, <code>null</code> if it has not
+     * been sent.
+     */
+    private Future<Boolean> warmUp(RequestOptions options) {
+        Promise<Boolean> promise = Promise.promise();
+        requestGuard.acquire(
+            RateLimiter.Priority.LOW,
+            rejection -> {
+                if (rejection != null) {
+                    promise.complete(null);
+                    return;
+                }
+
+                final long startTime = System.nanoTime();
+                httpClient
+                    .request(options)
+                    .compose(request -> request.send())
+                    .compose(response -> response.body().map(response.statusCode()))
+                    .onComplete(result -> {
+                        final Outcome outcome;
+                        if (result.succeeded()) {
+                            outcome = result.result() < 400 ? Outcome.SUCCESS : Outcome.of(result.result());
+                        } else {
+                            outcome = Outcome.of(result.cause());
+                            logger.warn("Unable to open a connection to {}:{}", options.getHost(), options.getPort(), result.cause());
+                        }
+                        requestGuard.onCallEnd(System.nanoTime() - startTime, outcome);
+                        promise.complete(result.succeeded());
+                    });
+            }
+        );
+        return promise.future();
+    }
+
+    private Iterable<RequestOptions> targets() {
+        Map<String, RequestOptions> targets = new LinkedHashMap<>();
+        for (RequestTemplate requestTemplate : requestTemplates) {
+            if (!available.test(requestTemplate)) {
+                continue;
+            }
+            RequestOptions options = requestTemplate.warmUpOptions();
+            targets.putIfAbsent(options.isSsl() + "://" + options.getHost() + ':' + options.getPort(), options);
+        }
+        return targets.values();
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.connection;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.net.SocketAddress;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the addresses of the authorization server hosts for a configured time, so that new connections are opened
+ * without resolving the host again.
+ *
+ * Addresses are only read from the cache when sending a request: a missing address is resolved in the background and
+ * the request lets the client resolve the host itself, an expired address is still used while being resolved again.
+ * When the host can not be resolved anymore, the last known addresses are kept.
+ *
+ * All the addresses of a host are kept, and used in turn so that the requests are spread over all of them as when the
+ * client resolves the host itself.
+ *
+ * @author GraviteeSource Team
+ */
+public class DnsCache {
+
+    private final Logger logger = LoggerFactory.getLogger(DnsCache.class);
+
+    private final Vertx vertx;
+
+    private final long ttl;
+
+    private final Resolver resolver;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param ttl the time, in milliseconds, resolved addresses are used before resolving the host again.
+     */
+    public DnsCache(Vertx vertx, long ttl) {
+        this(vertx, ttl, InetAddress::getAllByName);
+    }
+
+    DnsCache(Vertx vertx, long ttl, Resolver resolver) {
+        this.vertx = vertx;
+        this.ttl = ttl;
+        this.resolver = resolver;
+    }
+
+    /**
+     * The next address to connect to the given host, <code>null</code> if it has not been resolved yet.
+     */
+    public SocketAddress address(String host, int port) {
+        Entry entry = entries.computeIfAbsent(host, Entry::new);
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            refresh(entry);
+        }
+
+        InetAddress[] addresses = entry.addresses;
+        if (addresses == null) {
+            return null;
+        }
+
+        InetAddress address = addresses[Math.floorMod(entry.turn.getAndIncrement(), addresses.length)];
+        return SocketAddress.inetSocketAddress(new InetSocketAddress(address, port));
+    }
+
+    /**
+     * Resolves the given host, if not already known.
+     */
+    public Future<List<InetAddress>> resolve(String host) {
+        Entry entry = entries.computeIfAbsent(host, Entry::new);
+        if (entry.addresses != null && entry.expiresAt > System.currentTimeMillis()) {
+            return Future.succeededFuture(Arrays.asList(entry.addresses));
+        }
+
+        return refresh(entry);
+    }
+
+    private Future<List<InetAddress>> refresh(Entry entry) {
+        if (!entry.resolving.compareAndSet(false, true)) {
+            return Future.succeededFuture(entry.addresses == null ? List.of() : Arrays.asList(entry.addresses));
+        }
+
+        Promise<List<InetAddress>> promise = Promise.promise();
+        vertx.<InetAddress[]>executeBlocking(
+            resolution -> {
+                try {
+                    resolution.complete(resolver.resolve(entry.host));
+                } catch (Exception ex) {
+                    resolution.fail(ex);
+                }
+            },
+            false,
+            result -> {
+                // Failures are not retried before the end of the TTL either, not to resolve the host for each request
+                entry.expiresAt = System.currentTimeMillis() + ttl;
+                if (result.succeeded() && result.result().length > 0) {
+                    List<InetAddress> addresses = Arrays.asList(result.result());
+                    logger.debug("Host {} resolved to {}", entry.host, addresses);
+                    entry.addresses = result.result();
+                    promise.complete(addresses);
+                } else {
+                    Throwable cause = result.succeeded() ? new UnknownHostException(entry.host) : result.cause();
+                    logger.warn("Unable to resolve host {}, keeping its last known addresses", entry.host, cause);
+                    promise.fail(cause);
+                }
+                entry.resolving.set(false);
+            }
+        );
+        return promise.future();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Resolves all the addresses of a host, blocking the calling thread.
+     */
+    interface Resolver {
+        InetAddress[] resolve(String host) throws UnknownHostException;
+    }
+
+    private static final class Entry {
+
+        private final String host;
+
+        private final AtomicBoolean resolving = new AtomicBoolean();
+
+        private final AtomicInteger turn = new AtomicInteger();
+
+        private volatile InetAddress[] addresses;
+
+        private volatile long expiresAt;
+
+        private Entry(String host) {
+            this.host = host;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.connection;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.JksOptions;
+import io.vertx.core.net.KeyCertOptions;
+import io.vertx.core.net.PemKeyCertOptions;
+import io.vertx.core.net.PemTrustOptions;
+import io.vertx.core.net.PfxOptions;
+import io.vertx.core.net.TrustOptions;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Builds the truststore and the keystore of the client from the resource configuration.
+ *
+ * Stores are read either from a path or from a content: PEM stores are given as text, JKS and PKCS12 stores are given
+ * as base64. A PEM keystore is made of the certificate, given as the store, and of its private key.
+ *
+ * @author GraviteeSource Team
+ */
+public final class KeyStores {
+
+    public static final String PEM = "PEM";
+
+    public static final String JKS = "JKS";
+
+    public static final String PKCS12 = "PKCS12";
+
+    private KeyStores() {}
+
+    /**
+     * The trusted certificates, <code>null</code> if no truststore is configured.
+     */
+    public static TrustOptions trustOptions(String type, String path, String content, String password) {
+        if (isEmpty(type)) {
+            return null;
+        }
+
+        switch (type.toUpperCase()) {
+            case PEM:
+                PemTrustOptions pemTrustOptions = new PemTrustOptions();
+                if (isEmpty(content)) {
+                    pemTrustOptions.addCertPath(requirePath(path, "truststore"));
+                } else {
+                    pemTrustOptions.addCertValue(Buffer.buffer(content, StandardCharsets.UTF_8.name()));
+                }
+                return pemTrustOptions;
+            case JKS:
+                return store(new JksOptions(), path, content, password, "truststore");
+            case PKCS12:
+                return store(new PfxOptions(), path, content, password, "truststore");
+            default:
+                throw new IllegalArgumentException("Unsupported truststore type: " + type);
+        }
+    }
+
+    /**
+     * The client certificate and its private key, <code>null</code> if no keystore is configured.
+     */
+    public static KeyCertOptions keyCertOptions(
+        String type,
+        String path,
+        String content,
+        String password,
+        String keyPath,
+        String keyContent
+    ) {
+        if (isEmpty(type)) {
+            return null;
+        }
+
+        switch (type.toUpperCase()) {
+            case PEM:
+                PemKeyCertOptions pemKeyCertOptions = new PemKeyCertOptions();
+                if (isEmpty(content)) {
+                    pemKeyCertOptions.setCertPath(requirePath(path, "keystore"));
+                } else {
+                    pemKeyCertOptions.setCertValue(Buffer.buffer(content, StandardCharsets.UTF_8.name()));
+                }
+                if (isEmpty(keyContent)) {
+                    pemKeyCertOptions.setKeyPath(requirePath(keyPath, "keystore private key"));
+                } else {
+                    pemKeyCertOptions.setKeyValue(Buffer.buffer(keyContent, StandardCharsets.UTF_8.name()));
+                }
+                return pemKeyCertOptions;
+            case JKS:
+                return store(new JksOptions(), path, content, password, "keystore");
+            case PKCS12:
+                return store(new PfxOptions(), path, content, password, "keystore");
+            default:
+                throw new IllegalArgumentException("Unsupported keystore type: " + type);
+        }
+    }
+
+    private static JksOptions store(JksOptions options, String path, String content, String password, String store) {
+        if (isEmpty(content)) {
+            options.setPath(requirePath(path, store));
+        } else {
+            options.setValue(Buffer.buffer(Base64.getMimeDecoder().decode(content)));
+        }
+        return options.setPassword(password);
+    }
+
+    private static PfxOptions store(PfxOptions options, String path, String content, String password, String store) {
+        if (isEmpty(content)) {
+            options.setPath(requirePath(path, store));
+        } else {
+            options.setValue(Buffer.buffer(Base64.getMimeDecoder().decode(content)));
+        }
+        return options.setPassword(password);
+    }
+
+    private static String requirePath(String path, String store) {
+        if (isEmpty(path)) {
+            throw new IllegalArgumentException("Either a path or a content is required for the " + store);
+        }
+        return path;
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+}
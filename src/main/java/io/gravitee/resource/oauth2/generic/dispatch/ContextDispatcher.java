@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.dispatch;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Gives a Vert.x context to the calls made from threads which are not managed by Vert.x, such as the threads of a
+ * worker pool or virtual threads: the calls are spread over event-loop contexts created once by the resource.
+ *
+ * Without it, each thread which is not managed by Vert.x gets its own context the first time it sends a request, which
+ * is costly for short-lived threads.
+ *
+ * The contexts are obtained through the public API of Vert.x: a thread which is not managed by Vert.x gets a new
+ * event-loop context, on the next event-loop, the first time it asks for one. Each context is asked for by a thread of
+ * its own, which only lives while the dispatcher is created.
+ *
+ * @author GraviteeSource Team
+ */
+public class ContextDispatcher {
+
+    private final Context[] contexts;
+
+    /**
+     * Creates a context on each event-loop of the given Vert.x instance.
+     */
+    public ContextDispatcher(Vertx vertx) {
+        int eventLoops = 0;
+        for (EventExecutor ignored : vertx.nettyEventLoopGroup()) {
+            eventLoops++;
+        }
+
+        contexts = new Context[Math.max(1, eventLoops)];
+        for (int i = 0; i < contexts.length; i++) {
+            contexts[i] = createEventLoopContext(vertx);
+        }
+    }
+
+    private static Context createEventLoopContext(Vertx vertx) {
+        AtomicReference<Context> context = new AtomicReference<>();
+        Thread thread = new Thread(() -> context.set(vertx.getOrCreateContext()), "oauth2-resource-context");
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Shares the context of the current thread when interrupted while waiting for its own one
+        return context.get() != null ? context.get() : vertx.getOrCreateContext();
+    }
+
+    /**
+     * The context of the resource the calls of the current thread run on, when it is not managed by Vert.x. A thread
+     * always gets the same context, so that its calls keep their order.
+     */
+    public Context context() {
+        return contexts[(int) Math.floorMod(Thread.currentThread().getId(), (long) contexts.length)];
+    }
+}
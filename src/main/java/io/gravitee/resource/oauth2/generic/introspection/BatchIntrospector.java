@@ -0,0 +1,341 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.introspection;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.gravitee.common.http.HttpHeaders;
+import io.gravitee.common.http.HttpStatusCode;
+import io.gravitee.gateway.api.handler.Handler;
+import io.gravitee.resource.oauth2.api.OAuth2ResourceException;
+import io.gravitee.resource.oauth2.generic.metrics.Outcome;
+import io.gravitee.resource.oauth2.generic.metrics.RequestMetrics;
+import io.gravitee.resource.oauth2.generic.request.RequestTemplate;
+import io.gravitee.resource.oauth2.generic.resilience.RateLimiter;
+import io.gravitee.resource.oauth2.generic.resilience.RequestGuard;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Groups the introspections requested within a short window, or until a maximum number of tokens is reached, into a
+ * single request to an authorization server endpoint accepting several tokens at once.
+ *
+ * The tokens are sent as a JSON array, either as the whole body or as a field of a JSON object. The results are read
+ * from a JSON array, either the whole response or the one found at a JSON pointer, and matched to the tokens by
+ * position or by the token found at a JSON pointer in each result.
+ *
+ * When the batch request fails, or when no result can be found for a token, the introspection is failed so that the
+ * caller can fall back to a single request.
+ *
+ * @author GraviteeSource Team
+ */
+public class BatchIntrospector {
+
+    private final Logger logger = LoggerFactory.getLogger(BatchIntrospector.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+
+    private final Vertx vertx;
+
+    private final HttpClient httpClient;
+
+    private final RequestTemplate requestTemplate;
+
+    private final RequestMetrics metrics;
+
+    private final RequestGuard requestGuard;
+
+    private final long window;
+
+    private final int maxSize;
+
+    private final String tokensField;
+
+    private final JsonPointer resultsPointer;
+
+    private final JsonPointer tokenPointer;
+
+    private final Object lock = new Object();
+
+    private List<PendingIntrospection> pending;
+
+    private long windowTimerId;
+
+    /**
+     * @param window the time, in milliseconds, introspections are waited for once a batch has been started.
+     * @param maxSize the number of tokens after which a batch is sent without waiting for the end of the window.
+     * @param tokensField the field of the request body holding the tokens, the body is the array of tokens when empty.
+     * @param resultsPath the JSON pointer to the results in the response, the response is the array of results when empty.
+     * @param tokenPath the JSON pointer to the token in each result, the results are in the order of the tokens when empty.
+     */
+    public BatchIntrospector(
+        Vertx vertx,
+        HttpClient httpClient,
+        RequestTemplate requestTemplate,
+        RequestMetrics metrics,
+        RequestGuard requestGuard,
+        long window,
+        int maxSize,
+        String tokensField,
+        String resultsPath,
+        String tokenPath
+    ) {
+        this.vertx = vertx;
+        this.httpClient = httpClient;
+        this.requestTemplate = requestTemplate;
+        this.metrics = metrics;
+        this.requestGuard = requestGuard;
+        this.window = window;
+        this.maxSize = maxSize;
+        this.tokensField = tokensField == null || tokensField.isEmpty() ? null : tokensField;
+        this.resultsPointer = JsonPointer.compile(resultsPath == null ? "" : resultsPath);
+        this.tokenPointer = tokenPath == null || tokenPath.isEmpty() ? null : JsonPointer.compile(tokenPath);
+    }
+
+    /**
+     * Adds the token to the current batch. The handler receives the introspection response of the token, or a failure
+     * if the token has to be introspected on its own.
+     */
+    public void introspect(String accessToken, Handler<AsyncResult<Buffer>> resultHandler) {
+        List<PendingIntrospection> ready = null;
+
+        synchronized (lock) {
+            if (pending == null) {
+                final List<PendingIntrospection> batch = new ArrayList<>(maxSize);
+                pending = batch;
+                windowTimerId = vertx.setTimer(window, timerId -> flush(batch));
+            }
+
+            pending.add(new PendingIntrospection(accessToken, resultHandler));
+
+            if (pending.size() >= maxSize) {
+                ready = pending;
+                pending = null;
+                vertx.cancelTimer(windowTimerId);
+            }
+        }
+
+        if (ready != null) {
+            send(ready);
+        }
+    }
+
+    private void flush(List<PendingIntrospection> batch) {
+        synchronized (lock) {
+            if (pending != batch) {
+                // Already sent because it has been filled up
+                return;
+            }
+            pending = null;
+        }
+
+        send(batch);
+    }
+
+    private void send(List<PendingIntrospection> batch) {
+        final Buffer body;
+        try {
+            body = body(batch);
+        } catch (IOException ioe) {
+            fail(batch, ioe);
+            return;
+        }
+
+        requestGuard.acquire(
+            RateLimiter.Priority.HIGH,
+            rejection -> {
+                if (rejection != null) {
+                    metrics.reject(rejection);
+                    fail(batch, new OAuth2ResourceException("Batch introspection rejected: " + rejection.tagValue()));
+                    return;
+                }
+
+                call(batch, body);
+            }
+        );
+    }
+
+    private void call(List<PendingIntrospection> batch, Buffer body) {
+        logger.debug("Introspect {} access tokens at once", batch.size());
+        final RequestMetrics.Call call = metrics.start(requestGuard);
+
+        httpClient
+            .request(requestTemplate.options(null))
+            .compose(request -> {
+                requestTemplate.prepare(request, null);
+                requestTemplate.expire(vertx, request);
+                return request.send(body);
+            })
+            .compose(response -> response.body().map(buffer -> results(batch, response, buffer)))
+            .onComplete(result -> {
+                if (result.succeeded()) {
+                    call.end(Outcome.SUCCESS);
+                    complete(batch, result.result());
+                } else {
+                    logger.warn("Batch introspection failed, falling back to single introspections", result.cause());
+                    call.end(outcome(result.cause()));
+                    fail(batch, result.cause());
+                }
+            });
+    }
+
+    private Buffer body(List<PendingIntrospection> batch) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(batch.size() * 64);
+        try (JsonGenerator generator = FACTORY.createGenerator(body)) {
+            if (tokensField != null) {
+                generator.writeStartObject();
+                generator.writeFieldName(tokensField);
+            }
+            generator.writeStartArray();
+            for (PendingIntrospection introspection : batch) {
+                generator.writeString(introspection.accessToken);
+            }
+            generator.writeEndArray();
+            if (tokensField != null) {
+                generator.writeEndObject();
+            }
+        }
+        return Buffer.buffer(body.toByteArray());
+    }
+
+    private List<Buffer> results(List<PendingIntrospection> batch, HttpClientResponse response, Buffer buffer) {
+        if (response.statusCode() != HttpStatusCode.OK_200) {
+            requestGuard.onResponse(response.statusCode(), response.getHeader(HttpHeaders.RETRY_AFTER));
+            throw new BatchIntrospectionException(
+                Outcome.of(response.statusCode()),
+                "Batch introspection ends with status " + response.statusCode()
+            );
+        }
+
+        final JsonNode results;
+        try {
+            results = MAPPER.readTree(buffer.getBytes()).at(resultsPointer);
+        } catch (IOException ioe) {
+            throw new BatchIntrospectionException(Outcome.PARSE_FAILURE, "Invalid batch introspection response", ioe);
+        }
+
+        if (!results.isArray()) {
+            throw new BatchIntrospectionException(Outcome.PARSE_FAILURE, "No batch introspection results found at " + resultsPointer);
+        }
+
+        List<Buffer> buffers = new ArrayList<>(batch.size());
+        if (tokenPointer == null) {
+            if (results.size() != batch.size()) {
+                throw new BatchIntrospectionException(
+                    Outcome.PARSE_FAILURE,
+                    "Expecting " + batch.size() + " batch introspection results, got " + results.size()
+                );
+            }
+            results.forEach(result -> buffers.add(Buffer.buffer(result.toString())));
+        } else {
+            Map<String, JsonNode> resultsByToken = new HashMap<>();
+            results.forEach(result -> resultsByToken.put(result.at(tokenPointer).asText(), result));
+            for (PendingIntrospection introspection : batch) {
+                JsonNode result = resultsByToken.get(introspection.accessToken);
+                buffers.add(result == null ? null : Buffer.buffer(withoutToken(result).toString()));
+            }
+        }
+        return buffers;
+    }
+
+    /**
+     * The token is not part of a regular introspection response, it must not end up in the response given to the caller.
+     */
+    private JsonNode withoutToken(JsonNode result) {
+        JsonNode parent = result.at(tokenPointer.head());
+        if (parent instanceof ObjectNode) {
+            ((ObjectNode) parent).remove(tokenPointer.last().getMatchingProperty());
+        }
+        return result;
+    }
+
+    private void complete(List<PendingIntrospection> batch, List<Buffer> results) {
+        for (int i = 0; i < batch.size(); i++) {
+            Buffer result = results.get(i);
+            if (result == null) {
+                logger.debug("No batch introspection result for an access token, introspecting it on its own");
+                notify(batch.get(i), Future.failedFuture("No batch introspection result"));
+            } else {
+                notify(batch.get(i), Future.succeededFuture(result));
+            }
+        }
+    }
+
+    private void fail(List<PendingIntrospection> batch, Throwable cause) {
+        for (PendingIntrospection introspection : batch) {
+            notify(introspection, Future.failedFuture(cause));
+        }
+    }
+
+    private void notify(PendingIntrospection introspection, AsyncResult<Buffer> result) {
+        try {
+            introspection.resultHandler.handle(result);
+        } catch (Exception ex) {
+            logger.error("An error occurs while notifying a batched introspection", ex);
+        }
+    }
+
+    private static Outcome outcome(Throwable failure) {
+        return failure instanceof BatchIntrospectionException ? ((BatchIntrospectionException) failure).outcome : Outcome.of(failure);
+    }
+
+    private static final class PendingIntrospection {
+
+        private final String accessToken;
+
+        private final Handler<AsyncResult<Buffer>> resultHandler;
+
+        private PendingIntrospection(String accessToken, Handler<AsyncResult<Buffer>> resultHandler) {
+            this.accessToken = accessToken;
+            this.resultHandler = resultHandler;
+        }
+    }
+
+    private static final class BatchIntrospectionException extends IllegalStateException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Outcome outcome;
+
+        private BatchIntrospectionException(Outcome outcome, String message) {
+            super(message);
+            this.outcome = outcome;
+        }
+
+        private BatchIntrospectionException(Outcome outcome, String message, Throwable cause) {
+            super(message, cause);
+            this.outcome = outcome;
+        }
+    }
+}
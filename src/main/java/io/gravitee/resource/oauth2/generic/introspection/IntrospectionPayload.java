@@ -0,0 +1,187 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.introspection;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.vertx.core.buffer.Buffer;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The claims of an introspection response (RFC 7662) the resource relies on, read in a single pass with a streaming
+ * parser so that no JSON tree is built for each introspected token.
+ *
+ * @author GraviteeSource Team
+ */
+public final class IntrospectionPayload {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private static final String ACTIVE_CLAIM = "active";
+    private static final String EXPIRATION_CLAIM = "exp";
+    private static final String ISSUED_AT_CLAIM = "iat";
+    private static final String SCOPE_CLAIM = "scope";
+    private static final String CLIENT_ID_CLAIM = "client_id";
+    private static final String SUBJECT_CLAIM = "sub";
+
+    private boolean active = true;
+
+    private long expirationTime = -1;
+
+    private long issuedAt = -1;
+
+    private String scope;
+
+    private String user;
+
+    private String clientId;
+
+    private String subject;
+
+    private IntrospectionPayload() {}
+
+    /**
+     * Reads the claims of an introspection response.
+     *
+     * @param buffer the introspection response body.
+     * @param userClaim the claim holding the end user, may be <code>null</code>.
+     * @throws IOException if the body is not a valid JSON document.
+     */
+    public static IntrospectionPayload parse(Buffer buffer, String userClaim) throws IOException {
+        try (JsonParser parser = createParser(buffer)) {
+            return parse(parser, userClaim);
+        }
+    }
+
+    /**
+     * Reads the claims of an introspection response which has already been decoded, such as a cached one.
+     *
+     * @param content the introspection response body.
+     * @param userClaim the claim holding the end user, may be <code>null</code>.
+     * @throws IOException if the body is not a valid JSON document.
+     */
+    public static IntrospectionPayload parse(String content, String userClaim) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(content)) {
+            return parse(parser, userClaim);
+        }
+    }
+
+    private static IntrospectionPayload parse(JsonParser parser, String userClaim) throws IOException {
+        IntrospectionPayload payload = new IntrospectionPayload();
+
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return payload;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+
+            if (ACTIVE_CLAIM.equals(name)) {
+                payload.active = toBoolean(parser, value);
+            } else if (EXPIRATION_CLAIM.equals(name)) {
+                payload.expirationTime = parser.getValueAsLong(-1);
+            } else if (ISSUED_AT_CLAIM.equals(name)) {
+                payload.issuedAt = parser.getValueAsLong(-1);
+            } else if (SCOPE_CLAIM.equals(name)) {
+                payload.scope = parser.getValueAsString();
+            } else {
+                if (CLIENT_ID_CLAIM.equals(name)) {
+                    payload.clientId = parser.getValueAsString();
+                } else if (SUBJECT_CLAIM.equals(name)) {
+                    payload.subject = parser.getValueAsString();
+                }
+                // The user claim may also be one of the claims above
+                if (name.equals(userClaim)) {
+                    payload.user = parser.getValueAsString();
+                }
+            }
+
+            // Nested objects and arrays are not needed: skip them without building anything
+            parser.skipChildren();
+        }
+
+        return payload;
+    }
+
+    private static JsonParser createParser(Buffer buffer) throws IOException {
+        ByteBuf byteBuf = buffer.getByteBuf();
+        if (byteBuf.hasArray()) {
+            // Parse the bytes in place instead of copying them
+            return FACTORY.createParser(byteBuf.array(), byteBuf.arrayOffset() + byteBuf.readerIndex(), byteBuf.readableBytes());
+        }
+        return FACTORY.createParser((InputStream) new ByteBufInputStream(byteBuf));
+    }
+
+    /**
+     * Same conversion as {@link com.fasterxml.jackson.databind.JsonNode#asBoolean()} to keep accepting authorization
+     * servers which return the active flag as a string or as a number.
+     */
+    private static boolean toBoolean(JsonParser parser, JsonToken value) throws IOException {
+        switch (value) {
+            case VALUE_TRUE:
+                return true;
+            case VALUE_STRING:
+                return "true".equals(parser.getText().trim());
+            case VALUE_NUMBER_INT:
+                return parser.getLongValue() != 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Whether the token is active. A response without the <code>active</code> claim is considered as active.
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * The expiration time of the token, in seconds since epoch, or <code>-1</code> if unknown.
+     */
+    public long getExpirationTime() {
+        return expirationTime;
+    }
+
+    /**
+     * The time the token has been issued at, in seconds since epoch, or <code>-1</code> if unknown.
+     */
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.introspection;
+
+import io.gravitee.resource.oauth2.api.OAuth2Response;
+import java.util.Collection;
+
+/**
+ * The response of a token introspection, along with the claims read while parsing it. Scopes are read once, and kept
+ * along with the response when it is cached, as well as the claims a revocation may target.
+ *
+ * @author GraviteeSource Team
+ */
+public class IntrospectionResponse extends OAuth2Response {
+
+    private final long expirationTime;
+
+    private final ScopeSet scopes;
+
+    private final String clientId;
+
+    private final String subject;
+
+    private final long issuedAt;
+
+    private final long introspectedAt;
+
+    public IntrospectionResponse(IntrospectionPayload payload, String content, ScopeSet scopes) {
+        this(payload, content, scopes, System.currentTimeMillis());
+    }
+
+    /**
+     * @param introspectedAt the time, in milliseconds since epoch, the authorization server has been called at.
+     */
+    public IntrospectionResponse(IntrospectionPayload payload, String content, ScopeSet scopes, long introspectedAt) {
+        this(
+            payload.isActive(),
+            content,
+            payload.getExpirationTime(),
+            scopes,
+            payload.getClientId(),
+            payload.getSubject(),
+            payload.getIssuedAt(),
+            introspectedAt
+        );
+    }
+
+    /**
+     * A response whose claims have already been read, when restored from a cache.
+     */
+    public IntrospectionResponse(
+        boolean active,
+        String content,
+        long expirationTime,
+        ScopeSet scopes,
+        String clientId,
+        String subject,
+        long issuedAt,
+        long introspectedAt
+    ) {
+        super(active, content);
+        this.expirationTime = expirationTime;
+        this.scopes = scopes == null ? ScopeSet.EMPTY : scopes;
+        this.clientId = clientId;
+        this.subject = subject;
+        this.issuedAt = issuedAt;
+        this.introspectedAt = introspectedAt;
+    }
+
+    /**
+     * The expiration time of the token, in seconds since epoch, or <code>-1</code> if unknown.
+     */
+    public long getExpirationTime() {
+        return expirationTime;
+    }
+
+    public ScopeSet getScopes() {
+        return scopes;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * The time the token has been issued at, in seconds since epoch, or <code>-1</code> if unknown.
+     */
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * The time, in milliseconds since epoch, the authorization server has been called at.
+     */
+    public long getIntrospectedAt() {
+        return introspectedAt;
+    }
+
+    /**
+     * Whether the token has been granted the given scope.
+     */
+    public boolean hasScope(String scope) {
+        return scopes.hasScope(scope);
+    }
+
+    /**
+     * Whether the token has been granted all the given scopes.
+     */
+    public boolean hasAllScopes(Collection<String> scopes) {
+        return this.scopes.hasAllScopes(scopes);
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.introspection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives a number to each scope seen by a resource, so that the scopes of a token are kept as a bitset of those
+ * numbers.
+ *
+ * Scopes are never removed from the dictionary: numbers stay valid for the lifetime of the resource, including in
+ * cached introspection results. Once the dictionary is full, the next scopes are kept by name.
+ *
+ * @author GraviteeSource Team
+ */
+public class ScopeDictionary {
+
+    public static final int DEFAULT_MAX_SIZE = 4096;
+
+    private final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+
+    private final int maxSize;
+
+    public ScopeDictionary() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public ScopeDictionary(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * The number of the given scope, <code>-1</code> if not in the dictionary.
+     */
+    public int indexOf(String scope) {
+        Integer index = indexes.get(scope);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * The scopes of a <code>scope</code> claim.
+     *
+     * @param scope the scope claim, may be <code>null</code>.
+     * @param separator the separator of the scopes in the claim.
+     */
+    public ScopeSet parse(String scope, String separator) {
+        if (scope == null || scope.isEmpty()) {
+            return ScopeSet.EMPTY;
+        }
+
+        List<String> scopes = new ArrayList<>();
+        int start = 0;
+        int end;
+        while ((end = scope.indexOf(separator, start)) >= 0) {
+            if (end > start) {
+                scopes.add(scope.substring(start, end));
+            }
+            start = end + separator.length();
+        }
+        if (start < scope.length()) {
+            scopes.add(scope.substring(start));
+        }
+
+        return of(scopes);
+    }
+
+    /**
+     * The given scopes, to be compared with the scopes of tokens using {@link ScopeSet#hasAllScopes(ScopeSet)}.
+     */
+    public ScopeSet of(Collection<String> scopes) {
+        long[] words = ScopeSet.NO_WORDS;
+        List<String> unindexed = null;
+
+        for (String scope : scopes) {
+            int index = register(scope);
+            if (index < 0) {
+                if (unindexed == null) {
+                    unindexed = new ArrayList<>();
+                }
+                unindexed.add(scope);
+                continue;
+            }
+
+            int word = index >>> 6;
+            if (word >= words.length) {
+                long[] grown = new long[word + 1];
+                System.arraycopy(words, 0, grown, 0, words.length);
+                words = grown;
+            }
+            words[word] |= 1L << index;
+        }
+
+        return restore(words, unindexed);
+    }
+
+    /**
+     * The scopes previously read using this dictionary, from their bitset and the scopes which are not in the
+     * dictionary.
+     */
+    public ScopeSet restore(long[] words, Collection<String> unindexed) {
+        return words.length == 0 && (unindexed == null || unindexed.isEmpty()) ? ScopeSet.EMPTY : new ScopeSet(this, words, unindexed);
+    }
+
+    public int size() {
+        return indexes.size();
+    }
+
+    private int register(String scope) {
+        Integer index = indexes.get(scope);
+        if (index != null) {
+            return index;
+        }
+
+        synchronized (indexes) {
+            index = indexes.get(scope);
+            if (index != null) {
+                return index;
+            }
+            if (indexes.size() >= maxSize) {
+                return -1;
+            }
+            index = indexes.size();
+            indexes.put(scope, index);
+            return index;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.introspection;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The scopes of a token, read once from its introspection response: a bitset of the numbers given to the scopes by
+ * the {@link ScopeDictionary} of the resource, along with the scopes which did not fit in the dictionary.
+ *
+ * @author GraviteeSource Team
+ */
+public final class ScopeSet {
+
+    static final long[] NO_WORDS = new long[0];
+
+    public static final ScopeSet EMPTY = new ScopeSet(null, NO_WORDS, null);
+
+    private final ScopeDictionary dictionary;
+
+    private final long[] words;
+
+    private final Set<String> unindexed;
+
+    ScopeSet(ScopeDictionary dictionary, long[] words, Collection<String> unindexed) {
+        this.dictionary = dictionary;
+        this.words = words;
+        this.unindexed = unindexed == null || unindexed.isEmpty() ? Collections.emptySet() : new HashSet<>(unindexed);
+    }
+
+    public boolean hasScope(String scope) {
+        if (dictionary == null) {
+            return false;
+        }
+
+        int index = dictionary.indexOf(scope);
+        if (index < 0) {
+            return unindexed.contains(scope);
+        }
+
+        int word = index >>> 6;
+        return word < words.length && (words[word] & (1L << index)) != 0;
+    }
+
+    public boolean hasAllScopes(Collection<String> scopes) {
+        for (String scope : scopes) {
+            if (!hasScope(scope)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether all the given scopes, read using the same dictionary, are part of this set. The bitsets are compared as a
+     * whole, without looking up any scope.
+     */
+    public boolean hasAllScopes(ScopeSet scopes) {
+        for (int i = 0; i < scopes.words.length; i++) {
+            long word = i < words.length ? words[i] : 0L;
+            if ((scopes.words[i] & ~word) != 0) {
+                return false;
+            }
+        }
+        return unindexed.containsAll(scopes.unindexed);
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0 && unindexed.isEmpty();
+    }
+
+    /**
+     * A copy of the bitset of the scopes found in the dictionary.
+     */
+    public long[] toLongArray() {
+        return words.clone();
+    }
+
+    /**
+     * The scopes which are not in the dictionary.
+     */
+    public Set<String> getUnindexedScopes() {
+        return Collections.unmodifiableSet(unindexed);
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.jwt;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Public keys of a JSON Web Key Set (RFC 7517) usable to verify JWT signatures, indexed by key id.
+ *
+ * @author GraviteeSource Team
+ */
+public final class JsonWebKeySet {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JsonWebKeySet.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private static final String NO_KEY_ID = "";
+
+    public static final JsonWebKeySet EMPTY = new JsonWebKeySet(Collections.emptyMap());
+
+    private final Map<String, PublicKey> keys;
+
+    private JsonWebKeySet(Map<String, PublicKey> keys) {
+        this.keys = keys;
+    }
+
+    public static JsonWebKeySet parse(String jwks) throws IOException {
+        Map<String, PublicKey> keys = new HashMap<>();
+
+        for (JsonNode jwk : MAPPER.readTree(jwks).path("keys")) {
+            String use = jwk.path("use").asText(null);
+            if (use != null && !"sig".equals(use)) {
+                continue;
+            }
+
+            try {
+                PublicKey key = toPublicKey(jwk);
+                if (key != null) {
+                    keys.put(jwk.path("kid").asText(NO_KEY_ID), key);
+                }
+            } catch (GeneralSecurityException | IllegalArgumentException ex) {
+                LOGGER.warn("Ignoring JSON Web Key {}: {}", jwk.path("kid").asText(), ex.getMessage());
+            }
+        }
+
+        return new JsonWebKeySet(Collections.unmodifiableMap(keys));
+    }
+
+    /**
+     * Returns the key matching the given key id. When the JWT does not provide a key id, the key set must contain
+     * a single key to be used.
+     */
+    public PublicKey getKey(String kid) {
+        if (kid == null) {
+            return keys.size() == 1 ? keys.values().iterator().next() : null;
+        }
+        return keys.get(kid);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    private static PublicKey toPublicKey(JsonNode jwk) throws GeneralSecurityException {
+        switch (jwk.path("kty").asText()) {
+            case "RSA":
+                return KeyFactory
+                    .getInstance("RSA")
+                    .generatePublic(new RSAPublicKeySpec(toBigInteger(jwk, "n"), toBigInteger(jwk, "e")));
+            case "EC":
+                AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+                parameters.init(new ECGenParameterSpec(toCurveName(jwk.path("crv").asText())));
+                return KeyFactory
+                    .getInstance("EC")
+                    .generatePublic(
+                        new ECPublicKeySpec(
+                            new ECPoint(toBigInteger(jwk, "x"), toBigInteger(jwk, "y")),
+                            parameters.getParameterSpec(ECParameterSpec.class)
+                        )
+                    );
+            default:
+                return null;
+        }
+    }
+
+    private static String toCurveName(String crv) {
+        switch (crv) {
+            case "P-256":
+                return "secp256r1";
+            case "P-384":
+                return "secp384r1";
+            case "P-521":
+                return "secp521r1";
+            default:
+                throw new IllegalArgumentException("Unsupported curve " + crv);
+        }
+    }
+
+    private static BigInteger toBigInteger(JsonNode jwk, String field) {
+        return new BigInteger(1, DECODER.decode(jwk.path(field).asText()));
+    }
+}
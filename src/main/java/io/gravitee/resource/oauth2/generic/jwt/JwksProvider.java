@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.jwt;
+
+import io.gravitee.common.http.HttpHeaders;
+import io.gravitee.common.http.HttpStatusCode;
+import io.gravitee.common.http.MediaType;
+import io.gravitee.gateway.api.handler.Handler;
+import io.gravitee.resource.oauth2.generic.coalescing.RequestCoalescer;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
+import java.io.IOException;
+import java.security.PublicKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the JSON Web Key Set of the authorization server in memory. The key set is refreshed in the background
+ * and, when a JWT refers to an unknown key id, fetched again at most once per configured interval so that forged
+ * key ids can not be used to flood the authorization server.
+ *
+ * @author GraviteeSource Team
+ */
+public class JwksProvider {
+
+    private final Logger logger = LoggerFactory.getLogger(JwksProvider.class);
+
+    private static final String JWKS_REQUEST_KEY = "jwks";
+
+    private final Vertx vertx;
+
+    private final HttpClient httpClient;
+
+    private final String jwksUri;
+
+    private final RequestOptions requestOptions;
+
+    private final long refreshInterval;
+
+    private final long minRefetchInterval;
+
+    private final RequestCoalescer<JsonWebKeySet> jwksRequests = new RequestCoalescer<>(throwable -> this.keySet);
+
+    private volatile JsonWebKeySet keySet = JsonWebKeySet.EMPTY;
+
+    private volatile long lastFetchTime;
+
+    private long refreshTimerId = -1;
+
+    public JwksProvider(
+        Vertx vertx,
+        HttpClient httpClient,
+        String jwksUri,
+        String userAgent,
+        long refreshInterval,
+        long minRefetchInterval,
+        long requestTimeout
+    ) {
+        this.vertx = vertx;
+        this.httpClient = httpClient;
+        this.jwksUri = jwksUri;
+        this.refreshInterval = refreshInterval;
+        this.minRefetchInterval = minRefetchInterval;
+        this.requestOptions =
+            new RequestOptions()
+                .setMethod(HttpMethod.GET)
+                .setAbsoluteURI(jwksUri)
+                .setTimeout(requestTimeout)
+                .putHeader(HttpHeaders.USER_AGENT, userAgent)
+                .putHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+    }
+
+    public void start() {
+        fetch(keys -> {});
+        refreshTimerId = vertx.setPeriodic(refreshInterval, timerId -> fetch(keys -> {}));
+    }
+
+    public void stop() {
+        if (refreshTimerId != -1) {
+            vertx.cancelTimer(refreshTimerId);
+            refreshTimerId = -1;
+        }
+    }
+
+    public void getKey(String kid, Handler<PublicKey> keyHandler) {
+        PublicKey key = keySet.getKey(kid);
+        if (key != null) {
+            keyHandler.handle(key);
+        } else if (jwksRequests.size() > 0 || System.currentTimeMillis() - lastFetchTime >= minRefetchInterval) {
+            // Either wait for the key set being fetched, or fetch it again in case the key has been rotated
+            logger.debug("Unknown JSON Web Key {}, waiting for the key set to be fetched", kid);
+            fetch(keys -> keyHandler.handle(keys.getKey(kid)));
+        } else {
+            keyHandler.handle(null);
+        }
+    }
+
+    private void fetch(Handler<JsonWebKeySet> keysHandler) {
+        jwksRequests.execute(JWKS_REQUEST_KEY, keysHandler, this::doFetch);
+    }
+
+    private void doFetch(Handler<JsonWebKeySet> keysHandler) {
+        lastFetchTime = System.currentTimeMillis();
+
+        httpClient
+            .request(requestOptions)
+            .compose(request -> request.send())
+            .compose(response -> response.body().map(buffer -> toKeySet(response, buffer.toString())))
+            .onComplete(result -> {
+                if (result.succeeded()) {
+                    keySet = result.result();
+                    logger.debug("JSON Web Key Set loaded with {} key(s)", keySet.size());
+                } else {
+                    logger.error("Unable to load the JSON Web Key Set from {}", jwksUri, result.cause());
+                }
+                keysHandler.handle(keySet);
+            });
+    }
+
+    private JsonWebKeySet toKeySet(HttpClientResponse response, String content) {
+        if (response.statusCode() != HttpStatusCode.OK_200) {
+            throw new IllegalStateException("JSON Web Key Set request ends with status " + response.statusCode());
+        }
+
+        try {
+            return JsonWebKeySet.parse(content);
+        } catch (IOException ioe) {
+            throw new IllegalStateException("Invalid JSON Web Key Set", ioe);
+        }
+    }
+}
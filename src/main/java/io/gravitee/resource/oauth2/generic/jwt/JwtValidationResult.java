@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.jwt;
+
+/**
+ * @author GraviteeSource Team
+ */
+public final class JwtValidationResult {
+
+    public enum Status {
+        /**
+         * The token is a JWT with a valid signature and valid claims.
+         */
+        VALID,
+
+        /**
+         * The token is a JWT but its signature or its claims are not valid.
+         */
+        INVALID,
+
+        /**
+         * The token can not be validated locally (opaque token, unsupported algorithm, unknown key) and must be
+         * introspected by the authorization server.
+         */
+        UNRESOLVED,
+    }
+
+    private static final JwtValidationResult UNRESOLVED = new JwtValidationResult(Status.UNRESOLVED, null);
+
+    private final Status status;
+
+    private final String payload;
+
+    private JwtValidationResult(Status status, String payload) {
+        this.status = status;
+        this.payload = payload;
+    }
+
+    static JwtValidationResult valid(String payload) {
+        return new JwtValidationResult(Status.VALID, payload);
+    }
+
+    static JwtValidationResult invalid(String reason) {
+        return new JwtValidationResult(Status.INVALID, reason);
+    }
+
+    static JwtValidationResult unresolved() {
+        return UNRESOLVED;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * The introspection payload synthesized from the JWT claims when the token is valid, the reason of the failure
+     * when it is invalid.
+     */
+    public String getPayload() {
+        return payload;
+    }
+}
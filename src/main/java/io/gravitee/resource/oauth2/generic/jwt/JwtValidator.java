@@ -0,0 +1,205 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.jwt;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.gravitee.gateway.api.handler.Handler;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Validates JWT access tokens locally: signature using the keys of the authorization server, then expiration,
+ * not-before, issuer and audience claims. A valid token results in an RFC 7662 like payload made of its claims. A token
+ * without expiration is left to the introspection endpoint, the authorization server being the only one to know
+ * whether it is still valid.
+ *
+ * @author GraviteeSource Team
+ */
+public class JwtValidator {
+
+    private final Logger logger = LoggerFactory.getLogger(JwtValidator.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private static final char SEGMENT_SEPARATOR = '.';
+
+    private static final Set<String> SUPPORTED_ALGORITHMS = new HashSet<>(
+        Arrays.asList("RS256", "RS384", "RS512", "PS256", "PS384", "PS512", "ES256", "ES384", "ES512")
+    );
+
+    private final JwksProvider jwksProvider;
+
+    private final String issuer;
+
+    private final String audience;
+
+    private final long clockSkew;
+
+    public JwtValidator(JwksProvider jwksProvider, String issuer, String audience, long clockSkew) {
+        this.jwksProvider = jwksProvider;
+        this.issuer = issuer == null || issuer.isEmpty() ? null : issuer;
+        this.audience = audience == null || audience.isEmpty() ? null : audience;
+        this.clockSkew = clockSkew;
+    }
+
+    public void validate(String accessToken, Handler<JwtValidationResult> resultHandler) {
+        int headerEnd = accessToken.indexOf(SEGMENT_SEPARATOR);
+        int payloadEnd = headerEnd == -1 ? -1 : accessToken.indexOf(SEGMENT_SEPARATOR, headerEnd + 1);
+        if (payloadEnd == -1 || accessToken.indexOf(SEGMENT_SEPARATOR, payloadEnd + 1) != -1) {
+            // Not a JWS compact serialization, this is an opaque token
+            resultHandler.handle(JwtValidationResult.unresolved());
+            return;
+        }
+
+        final JsonNode header;
+        final ObjectNode claims;
+        final byte[] signature;
+        try {
+            header = MAPPER.readTree(DECODER.decode(accessToken.substring(0, headerEnd)));
+            claims = (ObjectNode) MAPPER.readTree(DECODER.decode(accessToken.substring(headerEnd + 1, payloadEnd)));
+            signature = DECODER.decode(accessToken.substring(payloadEnd + 1));
+        } catch (Exception ex) {
+            resultHandler.handle(JwtValidationResult.unresolved());
+            return;
+        }
+
+        final String algorithm = header.path("alg").asText();
+        if (!isSupported(algorithm)) {
+            logger.debug("JWT signed using {} can not be validated locally", algorithm);
+            resultHandler.handle(JwtValidationResult.unresolved());
+            return;
+        }
+
+        jwksProvider.getKey(
+            header.path("kid").asText(null),
+            key -> {
+                if (key == null) {
+                    resultHandler.handle(JwtValidationResult.unresolved());
+                } else if (!verify(algorithm, key, accessToken.substring(0, payloadEnd), signature)) {
+                    resultHandler.handle(JwtValidationResult.invalid("Invalid JWT signature"));
+                } else {
+                    resultHandler.handle(validateClaims(claims));
+                }
+            }
+        );
+    }
+
+    private JwtValidationResult validateClaims(ObjectNode claims) {
+        long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+
+        JsonNode exp = claims.get("exp");
+        if (exp == null) {
+            logger.debug("JWT without expiration can not be validated locally");
+            return JwtValidationResult.unresolved();
+        }
+
+        if (exp.asLong() + clockSkew <= now) {
+            return JwtValidationResult.invalid("JWT is expired");
+        }
+
+        JsonNode nbf = claims.get("nbf");
+        if (nbf != null && nbf.asLong() - clockSkew > now) {
+            return JwtValidationResult.invalid("JWT is not yet valid");
+        }
+
+        if (issuer != null && !issuer.equals(claims.path("iss").asText(null))) {
+            return JwtValidationResult.invalid("Invalid JWT issuer");
+        }
+
+        if (audience != null && !hasAudience(claims.path("aud"))) {
+            return JwtValidationResult.invalid("Invalid JWT audience");
+        }
+
+        // The token is active whatever its own claims say
+        ObjectNode payload = MAPPER.createObjectNode();
+        payload.setAll(claims);
+        payload.put("active", true);
+        return JwtValidationResult.valid(payload.toString());
+    }
+
+    private boolean hasAudience(JsonNode aud) {
+        if (aud.isArray()) {
+            for (JsonNode value : aud) {
+                if (audience.equals(value.asText())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return audience.equals(aud.asText(null));
+    }
+
+    private static boolean isSupported(String algorithm) {
+        return SUPPORTED_ALGORITHMS.contains(algorithm);
+    }
+
+    private boolean verify(String algorithm, PublicKey key, String signingInput, byte[] signature) {
+        try {
+            String hash = "SHA" + algorithm.substring(2);
+            Signature verifier;
+
+            switch (algorithm.substring(0, 2)) {
+                case "RS":
+                    if (!(key instanceof RSAPublicKey)) {
+                        return false;
+                    }
+                    verifier = Signature.getInstance(hash + "withRSA");
+                    break;
+                case "PS":
+                    if (!(key instanceof RSAPublicKey)) {
+                        return false;
+                    }
+                    String digest = "SHA-" + algorithm.substring(2);
+                    verifier = Signature.getInstance("RSASSA-PSS");
+                    verifier.setParameter(
+                        new PSSParameterSpec(digest, "MGF1", new MGF1ParameterSpec(digest), Integer.parseInt(algorithm.substring(2)) / 8, 1)
+                    );
+                    break;
+                default:
+                    if (!(key instanceof ECPublicKey)) {
+                        return false;
+                    }
+                    // JWS ECDSA signatures are the concatenation of R and S, as defined by IEEE P1363
+                    verifier = Signature.getInstance(hash + "withECDSAinP1363Format");
+                    break;
+            }
+
+            verifier.initVerify(key);
+            verifier.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return verifier.verify(signature);
+        } catch (GeneralSecurityException | IllegalArgumentException ex) {
+            logger.debug("Unable to verify JWT signature", ex);
+            return false;
+        }
+    }
+}
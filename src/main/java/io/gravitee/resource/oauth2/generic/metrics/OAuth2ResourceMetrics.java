@@ -0,0 +1,441 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.metrics;
+
+import io.gravitee.resource.oauth2.generic.balancing.LoadBalancer;
+import io.gravitee.resource.oauth2.generic.cache.HotTokens;
+import io.gravitee.resource.oauth2.generic.cache.OffHeapTokenCache;
+import io.gravitee.resource.oauth2.generic.resilience.CircuitBreaker;
+import io.gravitee.resource.oauth2.generic.resilience.HedgingPolicy;
+import io.gravitee.resource.oauth2.generic.resilience.RateLimiter;
+import io.gravitee.resource.oauth2.generic.revocation.RevocationEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.vertx.core.http.HttpConnection;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The meters of an OAuth2 resource, tagged by resource name and authorization server endpoint:
+ * <ul>
+ *     <li><code>gravitee.resource.oauth2.requests</code>: latency of the calls to the authorization server, with percentiles</li>
+ *     <li><code>gravitee.resource.oauth2.responses</code>: calls to the authorization server by outcome</li>
+ *     <li><code>gravitee.resource.oauth2.requests.inflight</code>: calls waiting for a response</li>
+ *     <li><code>gravitee.resource.oauth2.requests.queued</code>: calls waiting for their turn in the budget of calls, or
+ *     while the authorization server asked to retry later</li>
+ *     <li><code>gravitee.resource.oauth2.requests.hedged</code>: second introspection requests sent as the first ones were
+ *     late, if enabled</li>
+ *     <li><code>gravitee.resource.oauth2.requests.hedging.delay</code>: delay after which a second introspection request is
+ *     sent, if enabled</li>
+ *     <li><code>gravitee.resource.oauth2.cache</code>: introspection and userinfo cache lookups by cache and result (hit, miss, or
+ *     stale when an expired result is served while being refreshed or while the authorization server is unavailable)</li>
+ *     <li><code>gravitee.resource.oauth2.cache.hot</code>: hot tokens whose introspection is refreshed in the background, if
+ *     enabled</li>
+ *     <li><code>gravitee.resource.oauth2.cache.refreshes</code>: background refreshes of hot tokens, if enabled</li>
+ *     <li><code>gravitee.resource.oauth2.cache.offheap.entries</code>: introspection results in the off-heap cache, if
+ *     enabled</li>
+ *     <li><code>gravitee.resource.oauth2.cache.offheap.memory</code>: direct memory of the off-heap cache by state
+ *     (allocated or max), in bytes, if enabled</li>
+ *     <li><code>gravitee.resource.oauth2.connections</code>: connections opened to the authorization server</li>
+ *     <li><code>gravitee.resource.oauth2.connections.warmup</code>: requests sent to open connections in advance by
+ *     result, if enabled</li>
+ *     <li><code>gravitee.resource.oauth2.endpoints.available</code>: authorization servers introspections are balanced
+ *     between which are not ejected, if several are configured</li>
+ *     <li><code>gravitee.resource.oauth2.revocations</code>: revocation events pushed by the authorization server by revoked
+ *     item (token, client or subject), if enabled</li>
+ *     <li><code>gravitee.resource.oauth2.circuitbreaker.state</code>: state of the circuit breaker, if enabled
+ *     (0: closed, 1: open, 2: half-open)</li>
+ * </ul>
+ *
+ * @author GraviteeSource Team
+ */
+public class OAuth2ResourceMetrics {
+
+    static final String METRIC_PREFIX = "gravitee.resource.oauth2";
+
+    private static final String UNNAMED_RESOURCE = "unnamed";
+
+    private final MeterRegistry registry;
+
+    private final Tags resourceTags;
+
+    private final List<Meter> meters = new ArrayList<>();
+
+    private final String introspectionEndpoint;
+
+    private final RequestMetrics introspection;
+
+    /**
+     * The metrics of the introspections by authorization server they are balanced between, if several are configured.
+     */
+    private final Map<String, RequestMetrics> endpointIntrospections = new HashMap<>();
+
+    private final RequestMetrics userInfo;
+
+    private final Counter introspectionCacheHits;
+
+    private final Counter introspectionCacheMisses;
+
+    private final Counter introspectionCacheStaleHits;
+
+    private final Counter sharedCacheHits;
+
+    private final Counter sharedCacheMisses;
+
+    private final Counter userInfoCacheHits;
+
+    private final Counter userInfoCacheMisses;
+
+    private final Counter negativeCacheHits;
+
+    private final Counter negativeCacheMisses;
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private final Counter connectionWarmUps;
+
+    private final Counter connectionWarmUpFailures;
+
+    private Counter hotTokenRefreshes;
+
+    private Counter hedgedIntrospections;
+
+    private Counter tokenRevocations;
+
+    private Counter clientRevocations;
+
+    private Counter subjectRevocations;
+
+    public OAuth2ResourceMetrics(MeterRegistry registry, String resourceName, String introspectionEndpoint, String userInfoEndpoint) {
+        this.registry = registry;
+
+        this.resourceTags = Tags.of("resource", resourceName == null ? UNNAMED_RESOURCE : resourceName);
+
+        this.introspectionEndpoint = String.valueOf(introspectionEndpoint);
+        introspection = introspectionMetrics(this.introspectionEndpoint);
+        userInfo =
+            new RequestMetrics(
+                registry,
+                resourceTags.and("operation", "userinfo", "endpoint", String.valueOf(userInfoEndpoint)),
+                EnumSet.complementOf(EnumSet.of(Outcome.ACTIVE, Outcome.INACTIVE, Outcome.PARSE_FAILURE)),
+                meters
+            );
+
+        introspectionCacheHits = cacheCounter("introspection", "hit");
+        introspectionCacheMisses = cacheCounter("introspection", "miss");
+        introspectionCacheStaleHits = cacheCounter("introspection", "stale");
+        sharedCacheHits = cacheCounter("shared", "hit");
+        sharedCacheMisses = cacheCounter("shared", "miss");
+        userInfoCacheHits = cacheCounter("userinfo", "hit");
+        userInfoCacheMisses = cacheCounter("userinfo", "miss");
+        negativeCacheHits = cacheCounter("negative", "hit");
+        negativeCacheMisses = cacheCounter("negative", "miss");
+
+        meters.add(
+            Gauge
+                .builder(METRIC_PREFIX + ".connections", connections, AtomicInteger::get)
+                .description("Connections opened to the authorization server")
+                .tags(resourceTags)
+                .register(registry)
+        );
+        connectionWarmUps = warmUpCounter("success");
+        connectionWarmUpFailures = warmUpCounter("failure");
+    }
+
+    /**
+     * Metrics which are not published anywhere, for resources whose metrics are disabled.
+     */
+    public static OAuth2ResourceMetrics noop() {
+        return new OAuth2ResourceMetrics(new CompositeMeterRegistry(), null, null, null);
+    }
+
+    private RequestMetrics introspectionMetrics(String endpoint) {
+        return new RequestMetrics(
+            registry,
+            resourceTags.and("operation", "introspect", "endpoint", endpoint),
+            EnumSet.complementOf(EnumSet.of(Outcome.SUCCESS)),
+            meters
+        );
+    }
+
+    private Counter cacheCounter(String cache, String result) {
+        Counter counter = Counter
+            .builder(METRIC_PREFIX + ".cache")
+            .description("Introspection and userinfo cache lookups")
+            .tags(resourceTags)
+            .tags("cache", cache, "result", result)
+            .register(registry);
+        meters.add(counter);
+        return counter;
+    }
+
+    private Counter warmUpCounter(String result) {
+        Counter counter = Counter
+            .builder(METRIC_PREFIX + ".connections.warmup")
+            .description("Requests sent to open connections to the authorization server in advance")
+            .tags(resourceTags)
+            .tags("result", result)
+            .register(registry);
+        meters.add(counter);
+        return counter;
+    }
+
+    /**
+     * The metrics of the introspections sent to the configured authorization server, and of those rejected before an
+     * authorization server is selected.
+     */
+    public RequestMetrics introspection() {
+        return introspection;
+    }
+
+    /**
+     * The metrics of the introspections sent to the given authorization server.
+     *
+     * @param endpoint the authorization server the introspection is balanced to, <code>null</code> if not balanced.
+     */
+    public RequestMetrics introspection(LoadBalancer.Endpoint endpoint) {
+        return endpoint == null ? introspection : endpointIntrospections.getOrDefault(endpoint.getUri(), introspection);
+    }
+
+    public RequestMetrics userInfo() {
+        return userInfo;
+    }
+
+    public void introspectionCacheLookup(boolean hit) {
+        (hit ? introspectionCacheHits : introspectionCacheMisses).increment();
+    }
+
+    public void introspectionCacheStaleLookup() {
+        introspectionCacheStaleHits.increment();
+    }
+
+    public void sharedCacheLookup(boolean hit) {
+        (hit ? sharedCacheHits : sharedCacheMisses).increment();
+    }
+
+    public void userInfoCacheLookup(boolean hit) {
+        (hit ? userInfoCacheHits : userInfoCacheMisses).increment();
+    }
+
+    public void negativeCacheLookup(boolean hit) {
+        (hit ? negativeCacheHits : negativeCacheMisses).increment();
+    }
+
+    /**
+     * The metrics of the batch introspection requests, created when batching is enabled.
+     */
+    public RequestMetrics batchIntrospection(String batchIntrospectionEndpoint) {
+        return new RequestMetrics(
+            registry,
+            resourceTags.and("operation", "introspect-batch", "endpoint", String.valueOf(batchIntrospectionEndpoint)),
+            EnumSet.complementOf(EnumSet.of(Outcome.ACTIVE, Outcome.INACTIVE)),
+            meters
+        );
+    }
+
+    /**
+     * Publishes the number of hot tokens and of their refreshes.
+     */
+    public void bindHotTokens(HotTokens hotTokens) {
+        meters.add(
+            Gauge
+                .builder(METRIC_PREFIX + ".cache.hot", hotTokens, HotTokens::size)
+                .description("Hot tokens whose introspection is refreshed in the background")
+                .tags(resourceTags)
+                .register(registry)
+        );
+        hotTokenRefreshes =
+            Counter
+                .builder(METRIC_PREFIX + ".cache.refreshes")
+                .description("Background refreshes of hot tokens")
+                .tags(resourceTags)
+                .register(registry);
+        meters.add(hotTokenRefreshes);
+    }
+
+    /**
+     * Publishes the number of entries and the memory footprint of the off-heap introspection cache.
+     */
+    public void bindOffHeapCache(OffHeapTokenCache offHeapCache) {
+        meters.add(
+            Gauge
+                .builder(METRIC_PREFIX + ".cache.offheap.entries", offHeapCache, OffHeapTokenCache::size)
+                .description("Introspection results in the off-heap cache")
+                .tags(resourceTags)
+                .register(registry)
+        );
+        meters.add(
+            Gauge
+                .builder(METRIC_PREFIX + ".cache.offheap.memory", offHeapCache, OffHeapTokenCache::allocatedMemory)
+                .description("Direct memory of the off-heap introspection cache")
+                .tags(resourceTags)
+                .tag("state", "allocated")
+                .baseUnit("bytes")
+                .register(registry)
+        );
+        meters.add(
+            Gauge
+                .builder(METRIC_PREFIX + ".cache.offheap.memory", offHeapCache, OffHeapTokenCache::maxMemory)
+                .description("Direct memory of the off-heap introspection cache")
+                .tags(resourceTags)
+                .tag("state", "max")
+                .baseUnit("bytes")
+                .register(registry)
+        );
+    }
+
+    public void hotTokenRefreshed() {
+        if (hotTokenRefreshes != null) {
+            hotTokenRefreshes.increment();
+        }
+    }
+
+    /**
+     * Publishes the delay after which a second introspection request is sent, and the number of those requests.
+     */
+    public void bindHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        meters.add(
+            Gauge
+                .builder(METRIC_PREFIX + ".requests.hedging.delay", hedgingPolicy, HedgingPolicy::delay)
+                .description("Delay after which a second introspection request is sent, in milliseconds")
+                .tags(resourceTags)
+                .register(registry)
+        );
+        hedgedIntrospections =
+            Counter
+                .builder(METRIC_PREFIX + ".requests.hedged")
+                .description("Second introspection requests sent as the first ones were late")
+                .tags(resourceTags)
+                .register(registry);
+        meters.add(hedgedIntrospections);
+    }
+
+    public void introspectionHedged() {
+        if (hedgedIntrospections != null) {
+            hedgedIntrospections.increment();
+        }
+    }
+
+    /**
+     * Publishes the number of calls waiting for their turn.
+     */
+    public void bindRateLimiter(RateLimiter rateLimiter) {
+        meters.add(
+            Gauge
+                .builder(METRIC_PREFIX + ".requests.queued", rateLimiter, RateLimiter::waiting)
+                .description("Calls to the authorization server waiting for their turn")
+                .tags(resourceTags)
+                .register(registry)
+        );
+    }
+
+    /**
+     * Publishes the number of authorization servers which are not ejected, and the metrics of the introspections sent
+     * to each of them.
+     */
+    public void bindLoadBalancer(LoadBalancer loadBalancer) {
+        for (LoadBalancer.Endpoint endpoint : loadBalancer.getEndpoints()) {
+            endpointIntrospections.put(
+                endpoint.getUri(),
+                endpoint.getUri().equals(introspectionEndpoint) ? introspection : introspectionMetrics(endpoint.getUri())
+            );
+        }
+        meters.add(
+            Gauge
+                .builder(METRIC_PREFIX + ".endpoints.available", loadBalancer, LoadBalancer::available)
+                .description("Authorization servers introspections are balanced between which are not ejected")
+                .tags(resourceTags)
+                .register(registry)
+        );
+    }
+
+    /**
+     * Publishes the number of revocation events received, by revoked item.
+     */
+    public void bindRevocations() {
+        tokenRevocations = revocationCounter("token");
+        clientRevocations = revocationCounter("client");
+        subjectRevocations = revocationCounter("subject");
+    }
+
+    private Counter revocationCounter(String type) {
+        Counter counter = Counter
+            .builder(METRIC_PREFIX + ".revocations")
+            .description("Revocation events pushed by the authorization server")
+            .tags(resourceTags)
+            .tags("type", type)
+            .register(registry);
+        meters.add(counter);
+        return counter;
+    }
+
+    public void revoked(RevocationEvent event) {
+        if (tokenRevocations == null) {
+            return;
+        }
+        if (event.getToken() != null || event.getTokenDigest() != null) {
+            tokenRevocations.increment();
+        }
+        if (event.getClientId() != null) {
+            clientRevocations.increment();
+        }
+        if (event.getSubject() != null) {
+            subjectRevocations.increment();
+        }
+    }
+
+    /**
+     * Publishes the state of the circuit breaker of the resource.
+     */
+    public void bindCircuitBreaker(CircuitBreaker circuitBreaker) {
+        meters.add(
+            Gauge
+                .builder(METRIC_PREFIX + ".circuitbreaker.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("State of the circuit breaker of the authorization server (0: closed, 1: open, 2: half-open)")
+                .tags(resourceTags)
+                .register(registry)
+        );
+    }
+
+    /**
+     * Keeps track of a connection opened to the authorization server until it is closed.
+     */
+    public void connectionOpened(HttpConnection connection) {
+        connections.incrementAndGet();
+        connection.closeHandler(v -> connections.decrementAndGet());
+    }
+
+    public void connectionsWarmedUp(int succeeded, int failed) {
+        connectionWarmUps.increment(succeeded);
+        connectionWarmUpFailures.increment(failed);
+    }
+
+    /**
+     * Removes the meters of the resource from the registry, once the resource is stopped.
+     */
+    public void close() {
+        meters.forEach(registry::remove);
+        meters.clear();
+    }
+}
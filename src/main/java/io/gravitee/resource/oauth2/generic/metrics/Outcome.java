@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.metrics;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The outcome of a call to the authorization server.
+ *
+ * @author GraviteeSource Team
+ */
+public enum Outcome {
+    /**
+     * The introspected token is active.
+     */
+    ACTIVE,
+
+    /**
+     * The introspected token is not active.
+     */
+    INACTIVE,
+
+    /**
+     * The userinfo have been retrieved.
+     */
+    SUCCESS,
+
+    /**
+     * The authorization server answered with a client error status.
+     */
+    HTTP_ERROR,
+
+    /**
+     * The authorization server answered with a server error status.
+     */
+    SERVER_ERROR,
+
+    /**
+     * The authorization server did not answer in time.
+     */
+    TIMEOUT,
+
+    /**
+     * The connection to the authorization server failed or has been closed before the response was received.
+     */
+    CONNECTION_FAILURE,
+
+    /**
+     * The response of the authorization server can not be read.
+     */
+    PARSE_FAILURE,
+
+    /**
+     * The call has been rejected without reaching the authorization server as its circuit breaker is open.
+     */
+    CIRCUIT_OPEN,
+
+    /**
+     * The call has been rejected without reaching the authorization server as too many calls are in flight.
+     */
+    SATURATED,
+
+    /**
+     * The call has been rejected, either by the authorization server or without reaching it, as the budget of calls to
+     * the authorization server is exhausted.
+     */
+    THROTTLED;
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final String tagValue = name().toLowerCase();
+
+    public String tagValue() {
+        return tagValue;
+    }
+
+    /**
+     * Whether the outcome means that the authorization server is failing.
+     */
+    public boolean isFailure() {
+        return this == SERVER_ERROR || this == TIMEOUT || this == CONNECTION_FAILURE;
+    }
+
+    /**
+     * Whether the outcome means that no answer could be obtained from the authorization server, either because it is
+     * failing or because it has not been called to protect it.
+     */
+    public boolean isUnavailable() {
+        return isFailure() || this == CIRCUIT_OPEN || this == SATURATED || this == THROTTLED;
+    }
+
+    public static Outcome of(int statusCode) {
+        if (statusCode == TOO_MANY_REQUESTS) {
+            return THROTTLED;
+        }
+        return statusCode >= 500 ? SERVER_ERROR : HTTP_ERROR;
+    }
+
+    public static Outcome of(Throwable failure) {
+        // Requests reset once their total timeout has elapsed fail with the timeout as cause
+        return failure instanceof TimeoutException || failure.getCause() instanceof TimeoutException ? TIMEOUT : CONNECTION_FAILURE;
+    }
+}
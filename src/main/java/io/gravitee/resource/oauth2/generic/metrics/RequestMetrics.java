@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Latency, outcomes and in-flight requests of the calls to one endpoint of the authorization server.
+ *
+ * @author GraviteeSource Team
+ */
+public class RequestMetrics {
+
+    private static final AtomicIntegerFieldUpdater<Call> CALL_ENDED = AtomicIntegerFieldUpdater.newUpdater(Call.class, "ended");
+
+    private final Timer latency;
+
+    private final Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    RequestMetrics(MeterRegistry registry, Tags tags, Set<Outcome> outcomes, List<Meter> meters) {
+        this.latency =
+            Timer
+                .builder(OAuth2ResourceMetrics.METRIC_PREFIX + ".requests")
+                .description("Latency of the calls to the authorization server")
+                .tags(tags)
+                .publishPercentiles(0.5, 0.9, 0.95, 0.99)
+                .register(registry);
+        meters.add(latency);
+
+        for (Outcome outcome : outcomes) {
+            Counter counter = Counter
+                .builder(OAuth2ResourceMetrics.METRIC_PREFIX + ".responses")
+                .description("Calls to the authorization server by outcome")
+                .tags(tags)
+                .tag("outcome", outcome.tagValue())
+                .register(registry);
+            this.outcomes.put(outcome, counter);
+            meters.add(counter);
+        }
+
+        meters.add(
+            Gauge
+                .builder(OAuth2ResourceMetrics.METRIC_PREFIX + ".requests.inflight", inFlight, AtomicInteger::get)
+                .description("Calls to the authorization server waiting for a response")
+                .tags(tags)
+                .register(registry)
+        );
+    }
+
+    /**
+     * Starts a call to the authorization server.
+     *
+     * @param listener notified once the call ends, may be <code>null</code>.
+     */
+    public Call start(CallListener listener) {
+        inFlight.incrementAndGet();
+        return new Call(System.nanoTime(), listener);
+    }
+
+    /**
+     * Records a call rejected before reaching the authorization server.
+     */
+    public void reject(Outcome outcome) {
+        count(outcome);
+    }
+
+    private void count(Outcome outcome) {
+        Counter counter = outcomes.get(outcome);
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    public interface CallListener {
+        /**
+         * @param duration the duration of the call, in nanoseconds.
+         * @param outcome the outcome of the call.
+         */
+        void onCallEnd(long duration, Outcome outcome);
+
+        /**
+         * A listener notifying this listener, then the given one.
+         */
+        default CallListener andThen(CallListener next) {
+            return (duration, outcome) -> {
+                onCallEnd(duration, outcome);
+                next.onCallEnd(duration, outcome);
+            };
+        }
+    }
+
+    /**
+     * A call to the authorization server. Only its first end is recorded as a failing call may be notified
+     * several times (request, response and connection failures).
+     */
+    public final class Call {
+
+        private final long startTime;
+
+        private final CallListener listener;
+
+        volatile int ended;
+
+        private Call(long startTime, CallListener listener) {
+            this.startTime = startTime;
+            this.listener = listener;
+        }
+
+        public void end(Outcome outcome) {
+            if (!CALL_ENDED.compareAndSet(this, 0, 1)) {
+                return;
+            }
+
+            long duration = System.nanoTime() - startTime;
+            inFlight.decrementAndGet();
+            latency.record(duration, TimeUnit.NANOSECONDS);
+            count(outcome);
+
+            if (listener != null) {
+                listener.onCallEnd(duration, outcome);
+            }
+        }
+    }
+}
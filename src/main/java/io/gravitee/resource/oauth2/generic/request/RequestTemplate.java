@@ -0,0 +1,239 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.request;
+
+import io.gravitee.common.http.HttpHeaders;
+import io.gravitee.common.http.MediaType;
+import io.gravitee.common.utils.UUID;
+import io.gravitee.resource.oauth2.generic.connection.DnsCache;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.core.net.SocketAddress;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The immutable part of the requests sent to the authorization server, computed once when the resource starts:
+ * method, target, static headers (including the encoded client credentials) and the way the access token is sent.
+ * Only the access token and the request id are added for each request.
+ *
+ * @author GraviteeSource Team
+ */
+public final class RequestTemplate {
+
+    static final String REQUEST_ID_HEADER = "X-Gravitee-Request-Id";
+
+    private final HttpMethod method;
+
+    private final String host;
+
+    private final int port;
+
+    private final boolean ssl;
+
+    private final String uri;
+
+    private final long timeout;
+
+    private final long totalTimeout;
+
+    private final MultiMap headers;
+
+    private final String tokenQueryUri;
+
+    private final String tokenHeaderName;
+
+    private final String tokenHeaderPrefix;
+
+    private final String tokenBodyPrefix;
+
+    private final DnsCache dnsCache;
+
+    private RequestTemplate(Builder builder) {
+        RequestOptions target = new RequestOptions().setAbsoluteURI(builder.absoluteURI);
+        this.method = builder.method;
+        this.host = target.getHost();
+        this.port = target.getPort();
+        this.ssl = target.isSsl();
+        this.uri = target.getURI();
+        this.timeout = builder.timeout;
+        this.totalTimeout = builder.totalTimeout;
+        this.headers = builder.headers;
+        this.tokenQueryUri = builder.tokenQueryParamName == null ? null : uri + '?' + builder.tokenQueryParamName + '=';
+        this.tokenHeaderName = builder.tokenHeaderName;
+        this.tokenHeaderPrefix = builder.tokenHeaderPrefix;
+        this.tokenBodyPrefix = builder.tokenFormParamName == null ? null : builder.tokenFormParamName + '=';
+        this.dnsCache = builder.dnsCache;
+    }
+
+    public static Builder builder(HttpMethod method, String absoluteURI) {
+        return new Builder(method, absoluteURI);
+    }
+
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * The options of the request of the given access token. The static headers are shared by all the requests and
+     * copied by the client, they must not be modified.
+     */
+    public RequestOptions options(String accessToken) {
+        return target(new RequestOptions().setMethod(method).setURI(tokenQueryUri == null ? uri : tokenQueryUri + accessToken))
+            .setHeaders(headers);
+    }
+
+    /**
+     * The options of a <code>HEAD</code> request without any access token nor any of the static headers but the user
+     * agent, so that the client credentials are never sent: it is only sent to open a connection to the authorization
+     * server.
+     */
+    public RequestOptions warmUpOptions() {
+        RequestOptions options = target(new RequestOptions().setMethod(HttpMethod.HEAD).setURI(uri));
+        String userAgent = headers.get(HttpHeaders.USER_AGENT);
+        if (userAgent != null) {
+            options.putHeader(HttpHeaders.USER_AGENT, userAgent);
+        }
+        return options;
+    }
+
+    private RequestOptions target(RequestOptions options) {
+        options.setHost(host).setPort(port).setSsl(ssl).setTimeout(timeout);
+        if (dnsCache != null) {
+            // The host is still used for the Host header and the TLS server name
+            SocketAddress server = dnsCache.address(host, port);
+            if (server != null) {
+                options.setServer(server);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Adds the headers specific to the request of the given access token.
+     */
+    public void prepare(HttpClientRequest request, String accessToken) {
+        MultiMap requestHeaders = request.headers();
+        requestHeaders.set(REQUEST_ID_HEADER, UUID.toString(UUID.random()));
+        if (tokenHeaderName != null) {
+            requestHeaders.set(tokenHeaderName, tokenHeaderPrefix == null ? accessToken : tokenHeaderPrefix + accessToken);
+        }
+    }
+
+    /**
+     * Fails the request once the total timeout has elapsed, even if data has been received meanwhile. The request is
+     * reset so that its connection is not kept busy by a slow response.
+     */
+    public void expire(Vertx vertx, HttpClientRequest request) {
+        if (totalTimeout <= 0) {
+            return;
+        }
+
+        final long timerId = vertx.setTimer(
+            totalTimeout,
+            id -> request.reset(0, new TimeoutException("The request has not been completed within " + totalTimeout + "ms"))
+        );
+        request
+            .response()
+            .compose(HttpClientResponse::end)
+            .onComplete(ended -> vertx.cancelTimer(timerId));
+    }
+
+    /**
+     * The body of the request of the given access token, <code>null</code> if the access token is not sent in the body.
+     */
+    public String body(String accessToken) {
+        return tokenBodyPrefix == null ? null : tokenBodyPrefix + accessToken;
+    }
+
+    public static final class Builder {
+
+        private final HttpMethod method;
+
+        private final String absoluteURI;
+
+        private final MultiMap headers = io.vertx.core.http.HttpHeaders.headers();
+
+        private long timeout;
+
+        private long totalTimeout;
+
+        private String tokenQueryParamName;
+
+        private String tokenHeaderName;
+
+        private String tokenHeaderPrefix;
+
+        private String tokenFormParamName;
+
+        private DnsCache dnsCache;
+
+        private Builder(HttpMethod method, String absoluteURI) {
+            this.method = method;
+            this.absoluteURI = absoluteURI;
+        }
+
+        public Builder timeout(long timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * The maximum time of the request, from the connection to the end of the response, none if not positive.
+         */
+        public Builder totalTimeout(long totalTimeout) {
+            this.totalTimeout = totalTimeout;
+            return this;
+        }
+
+        public Builder header(String name, String value) {
+            headers.add(name, value);
+            return this;
+        }
+
+        public Builder tokenQueryParam(String name) {
+            this.tokenQueryParamName = name;
+            return this;
+        }
+
+        public Builder tokenHeader(String name, String valuePrefix) {
+            this.tokenHeaderName = name;
+            this.tokenHeaderPrefix = valuePrefix;
+            return this;
+        }
+
+        public Builder tokenFormParam(String name) {
+            this.tokenFormParamName = name;
+            headers.add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED);
+            return this;
+        }
+
+        /**
+         * Connects to the address of the host found in the given cache, when known.
+         */
+        public Builder dnsCache(DnsCache dnsCache) {
+            this.dnsCache = dnsCache;
+            return this;
+        }
+
+        public RequestTemplate build() {
+            return new RequestTemplate(this);
+        }
+    }
+}
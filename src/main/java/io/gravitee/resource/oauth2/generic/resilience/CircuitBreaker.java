@@ -0,0 +1,188 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.resilience;
+
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A count based circuit breaker. The results of the last calls to the authorization server are kept in a sliding
+ * window: once the rate of failed or slow calls reaches its threshold, the circuit opens and calls are rejected
+ * without reaching the authorization server. After a while, a few probe calls are let through (half-open state) to
+ * decide whether the circuit can be closed again.
+ *
+ * @author GraviteeSource Team
+ */
+public class CircuitBreaker {
+
+    private final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN,
+    }
+
+    private static final byte FAILED_CALL = 1;
+    private static final byte SLOW_CALL = 2;
+
+    private final int failureRateThreshold;
+
+    private final int slowCallRateThreshold;
+
+    private final long slowCallDuration;
+
+    private final int minimumNumberOfCalls;
+
+    private final long openStateDuration;
+
+    private final int permittedCallsInHalfOpenState;
+
+    private final byte[] window;
+
+    private int windowIndex;
+
+    private int calls;
+
+    private int failedCalls;
+
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+
+    private long openedAt;
+
+    private int halfOpenPermits;
+
+    /**
+     * @param failureRateThreshold percentage of failed calls from which the circuit opens.
+     * @param slowCallRateThreshold percentage of slow calls from which the circuit opens.
+     * @param slowCallDuration duration, in milliseconds, from which a call is considered as slow.
+     * @param slidingWindowSize number of calls the rates are computed on.
+     * @param minimumNumberOfCalls number of calls required before the rates are computed.
+     * @param openStateDuration time, in milliseconds, during which calls are rejected once the circuit is open.
+     * @param permittedCallsInHalfOpenState number of probe calls deciding whether the circuit is closed again.
+     */
+    public CircuitBreaker(
+        int failureRateThreshold,
+        int slowCallRateThreshold,
+        long slowCallDuration,
+        int slidingWindowSize,
+        int minimumNumberOfCalls,
+        long openStateDuration,
+        int permittedCallsInHalfOpenState
+    ) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDuration = TimeUnit.MILLISECONDS.toNanos(slowCallDuration);
+        this.minimumNumberOfCalls = Math.min(minimumNumberOfCalls, slidingWindowSize);
+        this.openStateDuration = TimeUnit.MILLISECONDS.toNanos(openStateDuration);
+        this.permittedCallsInHalfOpenState = Math.min(permittedCallsInHalfOpenState, slidingWindowSize);
+        this.window = new byte[slidingWindowSize];
+    }
+
+    /**
+     * Whether a call to the authorization server is permitted. A permitted call must then report its result.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openStateDuration) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+
+        if (halfOpenPermits > 0) {
+            halfOpenPermits--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reports the result of a permitted call.
+     *
+     * @param duration the duration of the call, in nanoseconds.
+     * @param failure whether the call failed.
+     */
+    public synchronized void onResult(long duration, boolean failure) {
+        if (state == State.OPEN) {
+            // Result of a call started before the circuit opened
+            return;
+        }
+
+        byte result = (byte) ((failure ? FAILED_CALL : 0) | (duration >= slowCallDuration ? SLOW_CALL : 0));
+
+        if (calls == window.length) {
+            byte evicted = window[windowIndex];
+            failedCalls -= evicted & FAILED_CALL;
+            slowCalls -= (evicted & SLOW_CALL) >> 1;
+        } else {
+            calls++;
+        }
+        window[windowIndex] = result;
+        windowIndex = (windowIndex + 1) % window.length;
+        failedCalls += result & FAILED_CALL;
+        slowCalls += (result & SLOW_CALL) >> 1;
+
+        if (state == State.HALF_OPEN) {
+            if (calls >= permittedCallsInHalfOpenState) {
+                transitionTo(isAboveThresholds() ? State.OPEN : State.CLOSED);
+            }
+        } else if (calls >= minimumNumberOfCalls && isAboveThresholds()) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private boolean isAboveThresholds() {
+        return failedCalls * 100 >= failureRateThreshold * calls || slowCalls * 100 >= slowCallRateThreshold * calls;
+    }
+
+    private void transitionTo(State newState) {
+        if (newState == State.OPEN) {
+            logger.warn(
+                "Authorization server circuit breaker is open ({} failed and {} slow calls out of {})",
+                failedCalls,
+                slowCalls,
+                calls
+            );
+            openedAt = System.nanoTime();
+        } else if (newState == State.HALF_OPEN) {
+            halfOpenPermits = permittedCallsInHalfOpenState;
+        } else {
+            logger.info("Authorization server circuit breaker is closed");
+        }
+
+        state = newState;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        calls = 0;
+        failedCalls = 0;
+        slowCalls = 0;
+        windowIndex = 0;
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.resilience;
+
+import io.gravitee.resource.oauth2.generic.metrics.Outcome;
+import io.gravitee.resource.oauth2.generic.metrics.RequestMetrics;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when a second request is sent to the authorization server while the first one is still waiting for a
+ * response: after a percentile of the latencies of the last answered calls, and never before a minimum delay.
+ *
+ * Only the calls which got an answer are taken into account: failures do not say how long a healthy call lasts. Until
+ * enough calls have been answered, the minimum delay is used.
+ *
+ * Second requests are taken from a budget, full at first and refilled by a fraction of each call: when the
+ * authorization server stalls and most calls become late, only that fraction of the calls is sent twice rather than
+ * nearly all of them.
+ *
+ * @author GraviteeSource Team
+ */
+public class HedgingPolicy implements RequestMetrics.CallListener {
+
+    private static final int SAMPLES = 256;
+
+    private static final int MIN_SAMPLES = 20;
+
+    private static final int UPDATE_INTERVAL = 16;
+
+    private final long[] latencies = new long[SAMPLES];
+
+    private final double percentile;
+
+    private final long minDelay;
+
+    /**
+     * The budget of second requests, in hundredths of a request: each call adds the maximum percentage of calls sent
+     * twice, and a second request takes a hundred.
+     */
+    private final int budgetPerCall;
+
+    private final int maxBudget;
+
+    private int budget;
+
+    private int recorded;
+
+    private volatile long delay;
+
+    /**
+     * @param percentile the percentile of the latencies, between 0 and 100, after which a second request is sent.
+     * @param minDelay the minimum delay, in milliseconds, before a second request is sent.
+     * @param maxRatio the maximum percentage, between 0 and 100, of the recent calls which are sent twice.
+     */
+    public HedgingPolicy(double percentile, long minDelay, int maxRatio) {
+        this.percentile = Math.min(100, Math.max(0, percentile));
+        this.minDelay = minDelay;
+        this.delay = minDelay;
+        this.budgetPerCall = Math.min(100, Math.max(0, maxRatio));
+        this.maxBudget = Math.max(100, budgetPerCall * SAMPLES);
+        this.budget = maxBudget;
+    }
+
+    /**
+     * The time, in milliseconds, after which a second request is sent if the first one has not been answered.
+     */
+    public long delay() {
+        return delay;
+    }
+
+    /**
+     * Takes a second request from the budget.
+     *
+     * @return whether a second request can be sent.
+     */
+    public synchronized boolean tryHedge() {
+        if (budget < 100) {
+            return false;
+        }
+        budget -= 100;
+        return true;
+    }
+
+    @Override
+    public void onCallEnd(long duration, Outcome outcome) {
+        synchronized (this) {
+            budget = Math.min(maxBudget, budget + budgetPerCall);
+        }
+
+        if (outcome != Outcome.ACTIVE && outcome != Outcome.INACTIVE && outcome != Outcome.SUCCESS) {
+            return;
+        }
+
+        long[] snapshot = null;
+        synchronized (latencies) {
+            latencies[recorded++ % SAMPLES] = duration;
+            if (recorded >= MIN_SAMPLES && recorded % UPDATE_INTERVAL == 0) {
+                snapshot = Arrays.copyOf(latencies, Math.min(recorded, SAMPLES));
+            }
+            if (recorded == Integer.MAX_VALUE) {
+                recorded = SAMPLES;
+            }
+        }
+
+        if (snapshot != null) {
+            Arrays.sort(snapshot);
+            int index = (int) Math.ceil(percentile / 100 * snapshot.length) - 1;
+            long latency = TimeUnit.NANOSECONDS.toMillis(snapshot[Math.max(0, index)]);
+            delay = Math.max(minDelay, latency);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.resilience;
+
+import io.gravitee.resource.oauth2.generic.metrics.Outcome;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A budget of calls to the authorization server: a token bucket refilled at a fixed rate, in front of a bounded queue
+ * of the calls waiting for their turn.
+ *
+ * Waiting calls are granted by priority, then in order of arrival. A call is rejected right away when it could not be
+ * granted before its deadline, and queued calls are rejected as soon as their deadline has passed, even while higher
+ * priority calls keep being granted ahead of them. When the queue is full, a high priority call takes the place of the
+ * last low priority one.
+ *
+ * When the authorization server asks to retry later, no call is granted until then: the calls which would wait past
+ * their deadline are rejected, and the bucket is refilled from the end of the pause.
+ *
+ * @author GraviteeSource Team
+ */
+public class RateLimiter {
+
+    public enum Priority {
+        /**
+         * Calls on which the requests to the gateway depend, such as introspections.
+         */
+        HIGH,
+
+        /**
+         * Calls which can wait for the high priority ones, such as userinfo requests.
+         */
+        LOW,
+    }
+
+    private static final long MAX_RETRY_AFTER = TimeUnit.MINUTES.toNanos(5);
+
+    private final Vertx vertx;
+
+    private final double permitsPerNano;
+
+    private final double burst;
+
+    private final int maxQueueSize;
+
+    private final long maxWait;
+
+    private final Deque<Waiter> highPriorityQueue = new ArrayDeque<>();
+
+    private final Deque<Waiter> lowPriorityQueue = new ArrayDeque<>();
+
+    private double permits;
+
+    private long refilledAt;
+
+    private volatile long pausedUntil;
+
+    private volatile int waiting;
+
+    private long timerId = -1;
+
+    /**
+     * @param rate the number of calls per second, unlimited if not positive: calls are then only held back while the
+     * authorization server asked to retry later.
+     * @param burst the number of calls which can be sent at once after a quiet period.
+     * @param maxQueueSize the maximum number of calls waiting for their turn.
+     * @param maxWait the maximum time, in milliseconds, a call waits for its turn.
+     */
+    public RateLimiter(Vertx vertx, int rate, int burst, int maxQueueSize, long maxWait) {
+        this.vertx = vertx;
+        this.permitsPerNano = rate > 0 ? rate / (double) TimeUnit.SECONDS.toNanos(1) : 0;
+        this.burst = Math.max(1, burst);
+        this.maxQueueSize = maxQueueSize;
+        this.maxWait = TimeUnit.MILLISECONDS.toNanos(maxWait);
+        this.permits = this.burst;
+        this.refilledAt = System.nanoTime();
+        this.pausedUntil = refilledAt;
+    }
+
+    /**
+     * Waits for the permission to call the authorization server.
+     *
+     * @param handler the handler receiving <code>null</code> once the call is permitted, or {@link Outcome#THROTTLED}
+     * if the call has been rejected. It is called on the context of the caller.
+     */
+    public void acquire(Priority priority, Handler<Outcome> handler) {
+        long now = System.nanoTime();
+        if (permitsPerNano == 0 && waiting == 0 && now - pausedUntil >= 0) {
+            handler.handle(null);
+            return;
+        }
+
+        Outcome outcome = null;
+        boolean queued = false;
+        Waiter displaced = null;
+        synchronized (this) {
+            refill(now);
+            if (waiting == 0 && now - refilledAt >= 0 && (permitsPerNano == 0 || permits >= 1)) {
+                take();
+            } else if (maxQueueSize <= 0 || grantTime(priority, now) - (now + maxWait) > 0) {
+                outcome = Outcome.THROTTLED;
+            } else if (waiting >= maxQueueSize && (priority == Priority.LOW || lowPriorityQueue.isEmpty())) {
+                outcome = Outcome.THROTTLED;
+            } else {
+                if (waiting >= maxQueueSize) {
+                    displaced = lowPriorityQueue.pollLast();
+                    waiting--;
+                }
+                Waiter waiter = new Waiter(vertx.getOrCreateContext(), now + maxWait, handler);
+                (priority == Priority.HIGH ? highPriorityQueue : lowPriorityQueue).addLast(waiter);
+                waiting++;
+                queued = true;
+                schedule(now);
+            }
+        }
+
+        if (displaced != null) {
+            displaced.complete(Outcome.THROTTLED);
+        }
+        if (!queued) {
+            handler.handle(outcome);
+        }
+    }
+
+    /**
+     * Stops granting calls for the given delay, asked by the authorization server.
+     *
+     * @param delay the delay, in milliseconds, before calling the authorization server again.
+     */
+    public void pause(long delay) {
+        final List<Waiter> rejected = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            long until = now + Math.min(TimeUnit.MILLISECONDS.toNanos(Math.max(0, delay)), MAX_RETRY_AFTER);
+            if (until - pausedUntil <= 0) {
+                return;
+            }
+
+            refill(now);
+            permits = 0;
+            refilledAt = until;
+            pausedUntil = until;
+
+            reject(highPriorityQueue, until, rejected);
+            reject(lowPriorityQueue, until, rejected);
+            waiting -= rejected.size();
+        }
+
+        rejected.forEach(waiter -> waiter.complete(Outcome.THROTTLED));
+    }
+
+    /**
+     * The number of calls waiting for their turn.
+     */
+    public int waiting() {
+        return waiting;
+    }
+
+    /**
+     * The delay, in milliseconds, of a <code>Retry-After</code> header, either a number of seconds or an HTTP date.
+     *
+     * @return the delay, <code>-1</code> if the header is not valid.
+     */
+    public static long parseRetryAfter(String retryAfter) {
+        if (retryAfter == null || retryAfter.isEmpty()) {
+            return -1;
+        }
+
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException nfe) {
+            try {
+                long date = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                return Math.max(0, date - System.currentTimeMillis());
+            } catch (DateTimeParseException dtpe) {
+                return -1;
+            }
+        }
+    }
+
+    private void refill(long now) {
+        if (now - refilledAt > 0) {
+            permits = Math.min(burst, permits + (now - refilledAt) * permitsPerNano);
+            refilledAt = now;
+        }
+    }
+
+    private void take() {
+        if (permitsPerNano > 0) {
+            permits--;
+        }
+    }
+
+    /**
+     * The time at which a call of the given priority would be granted, once the calls ahead of it have been.
+     */
+    private long grantTime(Priority priority, long now) {
+        long start = Math.max(now, refilledAt);
+        if (permitsPerNano == 0) {
+            return start;
+        }
+
+        int ahead = highPriorityQueue.size() + (priority == Priority.LOW ? lowPriorityQueue.size() : 0);
+        double missingPermits = ahead + 1 - permits;
+        return missingPermits <= 0 ? start : start + (long) Math.ceil(missingPermits / permitsPerNano);
+    }
+
+    private void schedule(long now) {
+        if (waiting == 0 || timerId != -1) {
+            return;
+        }
+
+        // The first waiting call is granted once the pause is over and a permit is available
+        long delay = Math.max(now, refilledAt) - now;
+        if (permitsPerNano > 0 && permits < 1) {
+            delay += (long) Math.ceil((1 - permits) / permitsPerNano);
+        }
+
+        // Unless a call reaches its deadline before: the calls queued later have later deadlines
+        delay = Math.min(delay, deadline(highPriorityQueue, now + delay) - now);
+        delay = Math.min(delay, deadline(lowPriorityQueue, now + delay) - now);
+        timerId = vertx.setTimer(Math.max(1, TimeUnit.NANOSECONDS.toMillis(delay) + 1), id -> drain());
+    }
+
+    private void drain() {
+        final List<Waiter> granted = new ArrayList<>();
+        final List<Waiter> rejected = new ArrayList<>();
+        synchronized (this) {
+            timerId = -1;
+            long now = System.nanoTime();
+            refill(now);
+
+            expire(highPriorityQueue, now, rejected);
+            expire(lowPriorityQueue, now, rejected);
+            waiting -= rejected.size();
+
+            while (waiting > 0 && now - refilledAt >= 0 && (permitsPerNano == 0 || permits >= 1)) {
+                Waiter waiter = highPriorityQueue.isEmpty() ? lowPriorityQueue.pollFirst() : highPriorityQueue.pollFirst();
+                waiting--;
+                take();
+                granted.add(waiter);
+            }
+
+            schedule(now);
+        }
+
+        rejected.forEach(waiter -> waiter.complete(Outcome.THROTTLED));
+        granted.forEach(waiter -> waiter.complete(null));
+    }
+
+    /**
+     * Removes the waiters whose deadline has passed, the first ones of the queue as waiters are queued in order of
+     * deadline.
+     */
+    private static void expire(Deque<Waiter> queue, long now, List<Waiter> rejected) {
+        while (!queue.isEmpty() && queue.peekFirst().deadline - now < 0) {
+            rejected.add(queue.pollFirst());
+        }
+    }
+
+    private static long deadline(Deque<Waiter> queue, long defaultDeadline) {
+        Waiter first = queue.peekFirst();
+        return first == null ? defaultDeadline : first.deadline;
+    }
+
+    private static void reject(Deque<Waiter> queue, long until, List<Waiter> rejected) {
+        for (Iterator<Waiter> waiters = queue.iterator(); waiters.hasNext();) {
+            Waiter waiter = waiters.next();
+            if (waiter.deadline - until < 0) {
+                waiters.remove();
+                rejected.add(waiter);
+            }
+        }
+    }
+
+    private static final class Waiter {
+
+        private final Context context;
+
+        private final long deadline;
+
+        private final Handler<Outcome> handler;
+
+        private Waiter(Context context, long deadline, Handler<Outcome> handler) {
+            this.context = context;
+            this.deadline = deadline;
+            this.handler = handler;
+        }
+
+        private void complete(Outcome outcome) {
+            context.runOnContext(v -> handler.handle(outcome));
+        }
+    }
+}
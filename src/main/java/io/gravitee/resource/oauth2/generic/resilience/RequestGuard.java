@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.resilience;
+
+import io.gravitee.resource.oauth2.generic.metrics.Outcome;
+import io.gravitee.resource.oauth2.generic.metrics.RequestMetrics;
+import io.vertx.core.Handler;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides whether a call can be sent to the authorization server: calls fail fast when too many of them are
+ * already waiting for a response, or when the circuit breaker is open.
+ *
+ * When a budget of calls is set, calls first wait for their turn, and the pauses asked by the authorization server
+ * are honoured.
+ *
+ * @author GraviteeSource Team
+ */
+public class RequestGuard implements RequestMetrics.CallListener {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final RateLimiter rateLimiter;
+
+    private final int maxInFlightRequests;
+
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+
+    /**
+     * @param circuitBreaker the circuit breaker, <code>null</code> if disabled.
+     * @param maxInFlightRequests the maximum number of calls waiting for a response, unlimited if not positive.
+     */
+    public RequestGuard(CircuitBreaker circuitBreaker, int maxInFlightRequests) {
+        this(circuitBreaker, null, maxInFlightRequests);
+    }
+
+    /**
+     * @param circuitBreaker the circuit breaker, <code>null</code> if disabled.
+     * @param rateLimiter the budget of calls, <code>null</code> if calls are never held back.
+     * @param maxInFlightRequests the maximum number of calls waiting for a response, unlimited if not positive.
+     */
+    public RequestGuard(CircuitBreaker circuitBreaker, RateLimiter rateLimiter, int maxInFlightRequests) {
+        this.circuitBreaker = circuitBreaker;
+        this.rateLimiter = rateLimiter;
+        this.maxInFlightRequests = maxInFlightRequests;
+    }
+
+    /**
+     * Waits for the turn of the call in the budget of calls, then acquires the permission to call the authorization
+     * server as {@link #tryAcquire()} does.
+     *
+     * @param handler the handler receiving <code>null</code> if the call is permitted, the reason of the rejection
+     * otherwise.
+     */
+    public void acquire(RateLimiter.Priority priority, Handler<Outcome> handler) {
+        if (rateLimiter == null) {
+            handler.handle(tryAcquire());
+            return;
+        }
+
+        rateLimiter.acquire(priority, rejection -> handler.handle(rejection != null ? rejection : tryAcquire()));
+    }
+
+    /**
+     * Acquires the permission to call the authorization server. Once done, the call must be reported to
+     * {@link #onCallEnd(long, Outcome)}.
+     *
+     * @return <code>null</code> if the call is permitted, the reason of the rejection otherwise.
+     */
+    public Outcome tryAcquire() {
+        if (inFlightRequests.incrementAndGet() > maxInFlightRequests && maxInFlightRequests > 0) {
+            inFlightRequests.decrementAndGet();
+            return Outcome.SATURATED;
+        }
+
+        if (circuitBreaker != null && !circuitBreaker.tryAcquirePermission()) {
+            inFlightRequests.decrementAndGet();
+            return Outcome.CIRCUIT_OPEN;
+        }
+
+        return null;
+    }
+
+    @Override
+    public void onCallEnd(long duration, Outcome outcome) {
+        inFlightRequests.decrementAndGet();
+        if (circuitBreaker != null) {
+            circuitBreaker.onResult(duration, outcome.isFailure());
+        }
+    }
+
+    /**
+     * Pauses the calls for the delay of the <code>Retry-After</code> header of a response, when the authorization
+     * server is throttling or unavailable.
+     */
+    public void onResponse(int statusCode, String retryAfter) {
+        if (rateLimiter == null || (statusCode != TOO_MANY_REQUESTS && statusCode != SERVICE_UNAVAILABLE)) {
+            return;
+        }
+
+        long delay = RateLimiter.parseRetryAfter(retryAfter);
+        if (delay > 0) {
+            rateLimiter.pause(delay);
+        }
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.revocation;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A revocation notified by the authorization server, as a JSON object with any of the following members:
+ * <ul>
+ *     <li><code>token</code>: the revoked access token</li>
+ *     <li><code>token_digest</code>: the digest of the revoked access token, for publishers which do not want to send
+ *     the token itself</li>
+ *     <li><code>client_id</code>: the client all the access tokens have been revoked of</li>
+ *     <li><code>sub</code>: the subject all the access tokens have been revoked of</li>
+ * </ul>
+ *
+ * @author GraviteeSource Team
+ */
+public final class RevocationEvent {
+
+    private static final String TOKEN_MEMBER = "token";
+    private static final String TOKEN_DIGEST_MEMBER = "token_digest";
+    private static final String CLIENT_ID_MEMBER = "client_id";
+    private static final String SUBJECT_MEMBER = "sub";
+
+    private final String token;
+
+    private final String tokenDigest;
+
+    private final String clientId;
+
+    private final String subject;
+
+    public RevocationEvent(String token, String tokenDigest, String clientId, String subject) {
+        this.token = emptyToNull(token);
+        this.tokenDigest = emptyToNull(tokenDigest);
+        this.clientId = emptyToNull(clientId);
+        this.subject = emptyToNull(subject);
+
+        if (this.token == null && this.tokenDigest == null && this.clientId == null && this.subject == null) {
+            throw new IllegalArgumentException("A revocation event requires a token, a token digest, a client or a subject");
+        }
+    }
+
+    /**
+     * Reads a revocation event, received as a JSON object, a string or a buffer.
+     *
+     * @throws IllegalArgumentException if the event is not a valid revocation event.
+     */
+    public static RevocationEvent of(Object body) {
+        final JsonObject json;
+        try {
+            if (body instanceof JsonObject) {
+                json = (JsonObject) body;
+            } else if (body instanceof String) {
+                json = new JsonObject((String) body);
+            } else if (body instanceof Buffer) {
+                json = new JsonObject((Buffer) body);
+            } else {
+                throw new IllegalArgumentException("A revocation event must be a JSON object");
+            }
+
+            return new RevocationEvent(
+                json.getString(TOKEN_MEMBER),
+                json.getString(TOKEN_DIGEST_MEMBER),
+                json.getString(CLIENT_ID_MEMBER),
+                json.getString(SUBJECT_MEMBER)
+            );
+        } catch (DecodeException | ClassCastException e) {
+            throw new IllegalArgumentException("Invalid revocation event: " + e.getMessage(), e);
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public String getTokenDigest() {
+        return tokenDigest;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.revocation;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.http.HttpServer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Receives the revocation events pushed by the authorization server, either on an address of the Vert.x event bus or
+ * through a small HTTP webhook, so that revoked tokens are evicted from the caches without waiting for their results
+ * to expire.
+ *
+ * The webhook accepts <code>POST</code> requests of a {@link RevocationEvent} on its path and answers
+ * <code>204</code> once the event is handled. When a secret is configured, requests must carry it as a bearer token.
+ * The resources listening to the same host and port share a single server, which hands each event to all of them.
+ * Event bus messages are answered once handled, or failed with <code>400</code> when invalid.
+ *
+ * All the resources listening to the same address receive the events published on it. An event sent point-to-point
+ * only reaches one of them, which publishes it again so that the other resources also evict the revoked tokens.
+ *
+ * @author GraviteeSource Team
+ */
+public class RevocationListener {
+
+    private static final String AUTHORIZATION_HEADER_BEARER_SCHEME = "Bearer ";
+
+    private static final String FORWARDED_BY_HEADER = "X-Gravitee-Revocation-Forwarded-By";
+
+    private final Logger logger = LoggerFactory.getLogger(RevocationListener.class);
+
+    private final Vertx vertx;
+
+    private final Handler<RevocationEvent> eventHandler;
+
+    /**
+     * Identifies the events this listener forwards to the other listeners of its address.
+     */
+    private final String id = UUID.randomUUID().toString();
+
+    private MessageConsumer<Object> consumer;
+
+    private RevocationWebhook.Registration webhook;
+
+    public RevocationListener(Vertx vertx, Handler<RevocationEvent> eventHandler) {
+        this.vertx = vertx;
+        this.eventHandler = eventHandler;
+    }
+
+    /**
+     * Receives the events published or sent on the given address of the event bus.
+     */
+    public void listen(String address) {
+        consumer = vertx.eventBus().consumer(address, message -> received(address, message));
+    }
+
+    /**
+     * Receives the events posted to the webhook.
+     *
+     * @param secret the bearer token the requests must carry, may be <code>null</code>.
+     */
+    public Future<HttpServer> listen(String host, int port, String path, String secret) {
+        final byte[] expectedAuthorization = secret == null || secret.isEmpty()
+            ? null
+            : (AUTHORIZATION_HEADER_BEARER_SCHEME + secret).getBytes(StandardCharsets.UTF_8);
+
+        webhook = RevocationWebhook.register(vertx, host, port, path, expectedAuthorization, eventHandler);
+
+        return webhook
+            .listening()
+            .onSuccess(httpServer -> logger.info("Listening to token revocations on {}:{}{}", host, httpServer.actualPort(), path))
+            .onFailure(throwable -> logger.error("Unable to listen to token revocations on {}:{}{}", host, port, path, throwable));
+    }
+
+    public void close() {
+        if (consumer != null) {
+            consumer.unregister();
+            consumer = null;
+        }
+
+        if (webhook != null) {
+            webhook.close();
+            webhook = null;
+        }
+    }
+
+    private void received(String address, Message<Object> message) {
+        if (id.equals(message.headers().get(FORWARDED_BY_HEADER))) {
+            // Already handled when it has been sent to this listener
+            return;
+        }
+
+        final RevocationEvent event;
+        try {
+            event = RevocationEvent.of(message.body());
+        } catch (IllegalArgumentException iae) {
+            logger.warn("Ignoring revocation event: {}", iae.getMessage());
+            message.fail(400, iae.getMessage());
+            return;
+        }
+
+        eventHandler.handle(event);
+
+        if (message.isSend()) {
+            vertx.eventBus().publish(address, message.body(), new DeliveryOptions().addHeader(FORWARDED_BY_HEADER, id));
+            message.reply(null);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.revocation;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpServerRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The HTTP server of the revocation webhook, shared by all the listeners of a Vert.x instance using the same host and
+ * port. Vert.x would otherwise share the listening socket between their servers and hand each request to a single
+ * one of them: an event is dispatched instead to every listener registered on its path and accepting its
+ * authorization.
+ *
+ * @author GraviteeSource Team
+ */
+class RevocationWebhook {
+
+    private static final Map<Vertx, Map<String, RevocationWebhook>> WEBHOOKS = new IdentityHashMap<>();
+
+    private final Logger logger = LoggerFactory.getLogger(RevocationWebhook.class);
+
+    private final Vertx vertx;
+
+    private final String address;
+
+    private final HttpServer server;
+
+    private final Future<HttpServer> listening;
+
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+
+    private RevocationWebhook(Vertx vertx, String host, int port) {
+        this.vertx = vertx;
+        this.address = host + ':' + port;
+        this.server = vertx.createHttpServer(new HttpServerOptions().setHost(host).setPort(port));
+        this.listening = server.requestHandler(this::received).listen();
+        // The next listeners try to start it again
+        this.listening.onFailure(throwable -> forget(this));
+    }
+
+    /**
+     * Registers a listener, starting the server of its host and port if it is the first one.
+     *
+     * @param expectedAuthorization the authorization header the requests must carry, may be <code>null</code>.
+     */
+    static synchronized Registration register(
+        Vertx vertx,
+        String host,
+        int port,
+        String path,
+        byte[] expectedAuthorization,
+        Handler<RevocationEvent> eventHandler
+    ) {
+        RevocationWebhook webhook = WEBHOOKS
+            .computeIfAbsent(vertx, v -> new HashMap<>())
+            .computeIfAbsent(host + ':' + port, address -> new RevocationWebhook(vertx, host, port));
+
+        Registration registration = webhook.new Registration(path, expectedAuthorization, eventHandler);
+        webhook.registrations.add(registration);
+        return registration;
+    }
+
+    private static synchronized void unregister(RevocationWebhook webhook, Registration registration) {
+        webhook.registrations.remove(registration);
+        if (webhook.registrations.isEmpty()) {
+            forget(webhook);
+            webhook.server.close();
+        }
+    }
+
+    private static synchronized void forget(RevocationWebhook webhook) {
+        Map<String, RevocationWebhook> webhooks = WEBHOOKS.get(webhook.vertx);
+        if (webhooks != null && webhooks.remove(webhook.address, webhook) && webhooks.isEmpty()) {
+            WEBHOOKS.remove(webhook.vertx);
+        }
+    }
+
+    private void received(HttpServerRequest request) {
+        List<Registration> pathRegistrations = registrations
+            .stream()
+            .filter(registration -> registration.path.equals(request.path()))
+            .collect(Collectors.toList());
+        if (pathRegistrations.isEmpty()) {
+            request.response().setStatusCode(404).end();
+            return;
+        }
+
+        if (request.method() != HttpMethod.POST) {
+            request.response().setStatusCode(405).putHeader(HttpHeaders.ALLOW, HttpMethod.POST.name()).end();
+            return;
+        }
+
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        List<Registration> authorizedRegistrations = pathRegistrations
+            .stream()
+            .filter(registration -> registration.accepts(authorization))
+            .collect(Collectors.toList());
+        if (authorizedRegistrations.isEmpty()) {
+            request.response().setStatusCode(401).end();
+            return;
+        }
+
+        request.bodyHandler(body -> {
+            final RevocationEvent event;
+            try {
+                event = RevocationEvent.of(body);
+            } catch (IllegalArgumentException iae) {
+                logger.warn("Ignoring revocation event: {}", iae.getMessage());
+                request.response().setStatusCode(400).end();
+                return;
+            }
+
+            authorizedRegistrations.forEach(registration -> registration.eventHandler.handle(event));
+            request.response().setStatusCode(204).end();
+        });
+    }
+
+    /**
+     * A listener of the webhook, receiving the events posted to its path.
+     */
+    class Registration {
+
+        private final String path;
+
+        private final byte[] expectedAuthorization;
+
+        private final Handler<RevocationEvent> eventHandler;
+
+        private Registration(String path, byte[] expectedAuthorization, Handler<RevocationEvent> eventHandler) {
+            this.path = path;
+            this.expectedAuthorization = expectedAuthorization;
+            this.eventHandler = eventHandler;
+        }
+
+        /**
+         * The server the listener is registered on, once it is listening.
+         */
+        Future<HttpServer> listening() {
+            return listening;
+        }
+
+        /**
+         * Unregisters the listener, stopping the server once it has no listener anymore.
+         */
+        void close() {
+            unregister(RevocationWebhook.this, this);
+        }
+
+        private boolean accepts(String authorization) {
+            return (
+                expectedAuthorization == null ||
+                (authorization != null && MessageDigest.isEqual(expectedAuthorization, authorization.getBytes(StandardCharsets.UTF_8)))
+            );
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.revocation;
+
+import io.gravitee.resource.oauth2.api.OAuth2Response;
+import io.gravitee.resource.oauth2.generic.introspection.IntrospectionResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The access tokens, clients and subjects which have been revoked, kept as long as an introspection result may be
+ * cached, or a locally validated JWT may still be valid, so that their tokens are not accepted anymore.
+ *
+ * Cached results are not indexed by client or subject: they are checked when read from a cache instead, using the
+ * claims kept along with them. Only the tokens issued before the revocation are revoked: the time a token has been
+ * issued at is read from its <code>iat</code> claim or, without it, is the time it has been introspected at.
+ *
+ * Expired revocations are purged periodically by the resource, so that checking a token only costs a few lookups.
+ *
+ * @author GraviteeSource Team
+ */
+public class RevokedTokens {
+
+    /**
+     * The time, in milliseconds since epoch, each access token digest has been revoked at.
+     */
+    private final Map<String, Long> tokens = new ConcurrentHashMap<>();
+
+    /**
+     * The time, in milliseconds since epoch, each client has been revoked at.
+     */
+    private final Map<String, Long> clients = new ConcurrentHashMap<>();
+
+    /**
+     * The time, in milliseconds since epoch, each subject has been revoked at.
+     */
+    private final Map<String, Long> subjects = new ConcurrentHashMap<>();
+
+    private final long retention;
+
+    /**
+     * The longest lifetime, in milliseconds, of the JWTs validated locally.
+     */
+    private final AtomicLong tokenLifetime = new AtomicLong();
+
+    /**
+     * @param retention the time, in milliseconds, a revocation is kept: the longest time an introspection result may be
+     * cached.
+     */
+    public RevokedTokens(long retention) {
+        this.retention = retention;
+    }
+
+    public void revokeToken(String tokenDigest) {
+        tokens.put(tokenDigest, System.currentTimeMillis());
+    }
+
+    public void revokeClient(String clientId) {
+        clients.put(clientId, System.currentTimeMillis());
+    }
+
+    public void revokeSubject(String subject) {
+        subjects.put(subject, System.currentTimeMillis());
+    }
+
+    /**
+     * Keeps the revocations at least as long as the lifetime of the given token, validated locally: such a token is
+     * accepted until it expires without ever being cached.
+     */
+    public void retain(IntrospectionResponse token) {
+        if (token.getExpirationTime() > 0) {
+            tokenLifetime.accumulateAndGet(TimeUnit.SECONDS.toMillis(token.getExpirationTime()) - issuedAt(token), Math::max);
+        }
+    }
+
+    /**
+     * Whether the access token of the given digest has been revoked.
+     */
+    public boolean isRevoked(String tokenDigest) {
+        return !tokens.isEmpty() && tokens.containsKey(tokenDigest);
+    }
+
+    /**
+     * Whether the given introspection result belongs to a revoked client or subject, and has been issued before it
+     * was revoked.
+     */
+    public boolean isRevoked(OAuth2Response response) {
+        if ((clients.isEmpty() && subjects.isEmpty()) || !(response instanceof IntrospectionResponse)) {
+            return false;
+        }
+
+        IntrospectionResponse introspection = (IntrospectionResponse) response;
+        long issuedAt = issuedAt(introspection);
+        return isRevoked(clients, introspection.getClientId(), issuedAt) || isRevoked(subjects, introspection.getSubject(), issuedAt);
+    }
+
+    /**
+     * Forgets the revocations older than the retention, no token they apply to being accepted anymore.
+     */
+    public void purge() {
+        long revokedSince = System.currentTimeMillis() - Math.max(retention, tokenLifetime.get());
+        tokens.values().removeIf(revokedAt -> revokedAt <= revokedSince);
+        clients.values().removeIf(revokedAt -> revokedAt <= revokedSince);
+        subjects.values().removeIf(revokedAt -> revokedAt <= revokedSince);
+    }
+
+    public int size() {
+        return tokens.size() + clients.size() + subjects.size();
+    }
+
+    private static long issuedAt(IntrospectionResponse introspection) {
+        return introspection.getIssuedAt() > 0 ? TimeUnit.SECONDS.toMillis(introspection.getIssuedAt()) : introspection.getIntrospectedAt();
+    }
+
+    private static boolean isRevoked(Map<String, Long> revocations, String key, long issuedAt) {
+        if (key == null) {
+            return false;
+        }
+        Long revokedAt = revocations.get(key);
+        return revokedAt != null && issuedAt < revokedAt;
+    }
+}
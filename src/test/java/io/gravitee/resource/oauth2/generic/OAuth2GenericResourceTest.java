@@ -17,22 +17,69 @@ package io.gravitee.resource.oauth2.generic;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
 
+import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import io.gravitee.common.http.HttpHeaders;
 import io.gravitee.common.http.HttpMethod;
 import io.gravitee.common.http.MediaType;
 import io.gravitee.node.api.Node;
+import io.gravitee.node.api.cache.Cache;
+import io.gravitee.node.api.cache.CacheConfiguration;
+import io.gravitee.node.api.cache.CacheManager;
+import io.gravitee.resource.api.AbstractConfigurableResource;
 import io.gravitee.resource.oauth2.api.OAuth2Resource;
+import io.gravitee.resource.oauth2.api.OAuth2Response;
+import io.gravitee.resource.oauth2.api.openid.UserInfoResponse;
+import io.gravitee.resource.oauth2.generic.cache.InProcessCacheManager;
 import io.gravitee.resource.oauth2.generic.configuration.OAuth2ResourceConfiguration;
+import io.gravitee.resource.oauth2.generic.introspection.IntrospectionResponse;
+import io.gravitee.resource.oauth2.generic.revocation.RevocationEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.reactivex.rxjava3.core.Single;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.http.ClientAuth;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.PemKeyCertOptions;
+import io.vertx.core.net.PemTrustOptions;
+import java.lang.reflect.Field;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.AdditionalAnswers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -228,6 +275,1064 @@ public class OAuth2GenericResourceTest {
         Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
     }
 
+    @Test
+    public void shouldCacheActiveIntrospection() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}")));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getIntrospectionCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getIntrospectionCacheMaxTtl()).thenReturn(60L);
+
+        resource.doStart();
+
+        for (int i = 0; i < 2; i++) {
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.introspect(
+                "xxxx-xxxx-xxxx-xxxx",
+                oAuth2Response -> {
+                    Assert.assertTrue(oAuth2Response.isSuccess());
+                    lock.countDown();
+                }
+            );
+            Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+        }
+
+        verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldCacheIntrospectionOffHeap() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}")));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.isIntrospectionCacheOffHeapEnabled()).thenReturn(true);
+        Mockito.when(configuration.getIntrospectionCacheOffHeapMaxMemory()).thenReturn(1);
+        Mockito.when(configuration.getIntrospectionCacheMaxTtl()).thenReturn(60L);
+
+        resource.doStart();
+
+        for (int i = 0; i < 2; i++) {
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.introspect(
+                "xxxx-xxxx-xxxx-xxxx",
+                oAuth2Response -> {
+                    Assert.assertTrue(oAuth2Response.isSuccess());
+                    Assert.assertEquals("{\"active\": true}", oAuth2Response.getPayload());
+                    lock.countDown();
+                }
+            );
+            Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+        }
+
+        verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldKeepScopesOfCachedIntrospection() throws Exception {
+        stubFor(
+            post(urlEqualTo("/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withBody("{\"active\": true, \"scope\": \"read,write\"}"))
+        );
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.getScopeSeparator()).thenReturn(",");
+        Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getIntrospectionCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getIntrospectionCacheMaxTtl()).thenReturn(60L);
+
+        resource.doStart();
+
+        List<OAuth2Response> responses = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.introspect(
+                "xxxx-xxxx-xxxx-xxxx",
+                oAuth2Response -> {
+                    responses.add(oAuth2Response);
+                    lock.countDown();
+                }
+            );
+            Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+        }
+
+        verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+        Assert.assertSame(responses.get(0), responses.get(1));
+        IntrospectionResponse introspectionResponse = (IntrospectionResponse) responses.get(1);
+        Assert.assertTrue(introspectionResponse.hasAllScopes(Arrays.asList("read", "write")));
+        Assert.assertFalse(introspectionResponse.hasScope("read,write"));
+    }
+
+    @Test
+    public void shouldIntrospectUsingFuture() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}")));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getIntrospectionCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getIntrospectionCacheMaxTtl()).thenReturn(60L);
+
+        resource.doStart();
+
+        OAuth2Response oAuth2Response = resource
+            .introspect("xxxx-xxxx-xxxx-xxxx")
+            .toCompletionStage()
+            .toCompletableFuture()
+            .get(10, TimeUnit.SECONDS);
+        Assert.assertTrue(oAuth2Response.isSuccess());
+
+        // Cached results complete the future right away
+        Assert.assertSame(oAuth2Response, resource.introspect("xxxx-xxxx-xxxx-xxxx").result());
+        verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldIntrospectUsingSingle() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": false}")));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+
+        resource.doStart();
+
+        Single<OAuth2Response> introspection = resource.rxIntrospect("xxxx-xxxx-xxxx-xxxx");
+        verify(0, postRequestedFor(urlEqualTo("/oauth/introspect")));
+
+        Assert.assertFalse(introspection.timeout(10, TimeUnit.SECONDS).blockingGet().isSuccess());
+        verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldIntrospectFromThreadsNotManagedByVertx() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}")));
+
+        final Vertx vertx = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(2));
+        try {
+            Mockito.when(applicationContext.getBean(Vertx.class)).thenReturn(vertx);
+            Mockito
+                .when(configuration.getIntrospectionEndpoint())
+                .thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+            Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+
+            resource.doStart();
+
+            final Set<Context> contexts = ConcurrentHashMap.newKeySet();
+            final CountDownLatch lock = new CountDownLatch(10);
+            for (int i = 0; i < 10; i++) {
+                final String accessToken = "token-" + i;
+                new Thread(() ->
+                    resource.introspect(
+                        accessToken,
+                        oAuth2Response -> {
+                            Context context = Vertx.currentContext();
+                            if (oAuth2Response.isSuccess() && context != null) {
+                                contexts.add(context);
+                                lock.countDown();
+                            }
+                        }
+                    )
+                )
+                    .start();
+            }
+
+            Assert.assertTrue(lock.await(10, TimeUnit.SECONDS));
+            // Short-lived threads share the contexts of the resource instead of getting their own one
+            Assert.assertTrue(contexts.size() <= 2);
+        } finally {
+            resource.doStop();
+            vertx.close();
+        }
+    }
+
+    @Test
+    public void shouldNotCacheExpiredToken() throws Exception {
+        long exp = System.currentTimeMillis() / 1000 - 10;
+        stubFor(
+            post(urlEqualTo("/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withBody("{\"active\": true, \"exp\": " + exp + "}"))
+        );
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getIntrospectionCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getIntrospectionCacheMaxTtl()).thenReturn(60L);
+
+        resource.doStart();
+
+        for (int i = 0; i < 2; i++) {
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.introspect("xxxx-xxxx-xxxx-xxxx", oAuth2Response -> lock.countDown());
+            Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+        }
+
+        verify(2, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldNotCacheInactiveIntrospection() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": false}")));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getIntrospectionCacheMaxSize()).thenReturn(100);
+
+        resource.doStart();
+
+        for (int i = 0; i < 2; i++) {
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.introspect(
+                "xxxx-xxxx-xxxx-xxxx",
+                oAuth2Response -> {
+                    Assert.assertFalse(oAuth2Response.isSuccess());
+                    lock.countDown();
+                }
+            );
+            Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+        }
+
+        verify(2, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldCacheInactiveIntrospection() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": false}")));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isNegativeCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getNegativeCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getNegativeCacheTtl()).thenReturn(10L);
+
+        resource.doStart();
+
+        for (int i = 0; i < 2; i++) {
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.introspect(
+                "xxxx-xxxx-xxxx-xxxx",
+                oAuth2Response -> {
+                    Assert.assertFalse(oAuth2Response.isSuccess());
+                    lock.countDown();
+                }
+            );
+            Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+        }
+
+        verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldCacheUnauthorizedIntrospection() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(401)));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isNegativeCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getNegativeCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getNegativeCacheTtl()).thenReturn(10L);
+
+        resource.doStart();
+
+        for (int i = 0; i < 2; i++) {
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.introspect(
+                "xxxx-xxxx-xxxx-xxxx",
+                oAuth2Response -> {
+                    Assert.assertFalse(oAuth2Response.isSuccess());
+                    Assert.assertEquals("An error occurs while checking OAuth2 token", oAuth2Response.getPayload());
+                    lock.countDown();
+                }
+            );
+            Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+        }
+
+        verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldServeStaleIntrospectionWhileRevalidating() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}")));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getIntrospectionCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getIntrospectionCacheMaxTtl()).thenReturn(1L);
+        Mockito.when(configuration.getIntrospectionCacheStaleWhileRevalidate()).thenReturn(60L);
+
+        resource.doStart();
+
+        final CountDownLatch lock = new CountDownLatch(1);
+        resource.introspect("xxxx-xxxx-xxxx-xxxx", oAuth2Response -> lock.countDown());
+        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+
+        // Let the cached result become stale, the refresh is slow
+        Thread.sleep(1100);
+        stubFor(
+            post(urlEqualTo("/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(500).withBody("{\"active\": true}"))
+        );
+
+        final CountDownLatch staleLock = new CountDownLatch(1);
+        resource.introspect(
+            "xxxx-xxxx-xxxx-xxxx",
+            oAuth2Response -> {
+                Assert.assertTrue(oAuth2Response.isSuccess());
+                staleLock.countDown();
+            }
+        );
+        Assert.assertEquals(true, staleLock.await(250, TimeUnit.MILLISECONDS));
+
+        // The stale result has been refreshed in the background
+        Thread.sleep(800);
+        verify(2, postRequestedFor(urlEqualTo("/oauth/introspect")));
+
+        final CountDownLatch refreshedLock = new CountDownLatch(1);
+        resource.introspect("xxxx-xxxx-xxxx-xxxx", oAuth2Response -> refreshedLock.countDown());
+        Assert.assertEquals(true, refreshedLock.await(500, TimeUnit.MILLISECONDS));
+        verify(2, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldServeStaleIntrospectionWhenAuthorizationServerFails() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}")));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getIntrospectionCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getIntrospectionCacheMaxTtl()).thenReturn(1L);
+        Mockito.when(configuration.getIntrospectionCacheStaleIfError()).thenReturn(60L);
+
+        resource.doStart();
+
+        final CountDownLatch lock = new CountDownLatch(1);
+        resource.introspect("xxxx-xxxx-xxxx-xxxx", oAuth2Response -> lock.countDown());
+        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+
+        Thread.sleep(1100);
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(503)));
+
+        final CountDownLatch staleLock = new CountDownLatch(1);
+        resource.introspect(
+            "xxxx-xxxx-xxxx-xxxx",
+            oAuth2Response -> {
+                Assert.assertTrue(oAuth2Response.isSuccess());
+                staleLock.countDown();
+            }
+        );
+        Assert.assertEquals(true, staleLock.await(10000, TimeUnit.MILLISECONDS));
+
+        // The last known result is not a substitute for a client error
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(400)));
+
+        final CountDownLatch errorLock = new CountDownLatch(1);
+        resource.introspect(
+            "xxxx-xxxx-xxxx-xxxx",
+            oAuth2Response -> {
+                Assert.assertFalse(oAuth2Response.isSuccess());
+                errorLock.countDown();
+            }
+        );
+        Assert.assertEquals(true, errorLock.await(10000, TimeUnit.MILLISECONDS));
+
+        verify(3, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldShareIntrospectionAcrossNodes() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}")));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getIntrospectionCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getIntrospectionCacheMaxTtl()).thenReturn(60L);
+        Mockito.when(configuration.isSharedIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(applicationContext.getBean(CacheManager.class)).thenReturn(new InProcessCacheManager());
+
+        OAuth2GenericResource otherNode = otherNode();
+        resource.doStart();
+        otherNode.doStart();
+
+        try {
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+            // Let the result be written to the shared cache
+            Thread.sleep(200);
+            assertIntrospection(otherNode, "xxxx-xxxx-xxxx-xxxx", true);
+            verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+
+            // An invalidation on a node is seen by all the nodes
+            otherNode.invalidate("xxxx-xxxx-xxxx-xxxx");
+            Thread.sleep(200);
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+            verify(2, postRequestedFor(urlEqualTo("/oauth/introspect")));
+        } finally {
+            otherNode.doStop();
+            resource.doStop();
+        }
+    }
+
+    @Test
+    public void shouldNotEvictUnknownRejectedTokensFromSharedCache() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": false}")));
+
+        final CacheManager cacheManager = new InProcessCacheManager();
+        final List<Cache<Object, Object>> sharedCaches = new CopyOnWriteArrayList<>();
+        final CacheManager recordingCacheManager = Mockito.mock(CacheManager.class);
+        Mockito
+            .when(recordingCacheManager.getOrCreateCache(Mockito.anyString(), Mockito.any(CacheConfiguration.class)))
+            .thenAnswer(invocation -> {
+                Cache<Object, Object> cache = cacheManager.getOrCreateCache(invocation.getArgument(0), invocation.getArgument(1));
+                Cache<Object, Object> recordingCache = Mockito.mock(Cache.class, AdditionalAnswers.delegatesTo(cache));
+                sharedCaches.add(recordingCache);
+                return recordingCache;
+            });
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getIntrospectionCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getIntrospectionCacheMaxTtl()).thenReturn(60L);
+        Mockito.when(configuration.isSharedIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(applicationContext.getBean(CacheManager.class)).thenReturn(recordingCacheManager);
+
+        resource.doStart();
+
+        try {
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", false);
+            assertIntrospection(resource, "yyyy-yyyy-yyyy-yyyy", false);
+            Thread.sleep(200);
+            Mockito.verify(sharedCaches.get(0), Mockito.never()).evict(Mockito.any());
+
+            // Revoked tokens are evicted from the whole cluster
+            resource.revoke(RevocationEvent.of("{\"token\": \"zzzz-zzzz-zzzz-zzzz\"}"));
+            Mockito.verify(sharedCaches.get(0), Mockito.timeout(10000)).evict(Mockito.any());
+        } finally {
+            resource.doStop();
+        }
+    }
+
+    @Test
+    public void shouldRefreshHotTokensBeforeTheyExpire() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}")));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getIntrospectionCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getIntrospectionCacheMaxTtl()).thenReturn(2L);
+        Mockito.when(configuration.isHotTokenRefreshEnabled()).thenReturn(true);
+        Mockito.when(configuration.getHotTokenRefreshInterval()).thenReturn(1L);
+        Mockito.when(configuration.getHotTokenMinHits()).thenReturn(5);
+
+        resource.doStart();
+
+        try {
+            for (int i = 0; i < 20; i++) {
+                assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+            }
+            assertIntrospection(resource, "yyyy-yyyy-yyyy-yyyy", true);
+
+            // Both results would have expired from the cache without the background refresh
+            Thread.sleep(3500);
+
+            // Cached results are given back right away, the future being already completed
+            Assert.assertTrue(resource.introspect("xxxx-xxxx-xxxx-xxxx").isComplete());
+            Assert.assertFalse(resource.introspect("yyyy-yyyy-yyyy-yyyy").isComplete());
+        } finally {
+            resource.doStop();
+        }
+    }
+
+    @Test
+    public void shouldBatchIntrospections() throws Exception {
+        stubFor(
+            post(urlEqualTo("/oauth/introspect/batch"))
+                .willReturn(
+                    aResponse()
+                        .withStatus(200)
+                        .withBody(
+                            "{\"results\": [" +
+                            "{\"token\": \"cccc\", \"active\": true}, " +
+                            "{\"token\": \"aaaa\", \"active\": true, \"sub\": \"john\"}, " +
+                            "{\"token\": \"bbbb\", \"active\": false}]}"
+                        )
+                )
+        );
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isBatchIntrospectionEnabled()).thenReturn(true);
+        Mockito.when(configuration.getBatchIntrospectionEndpoint())
+            .thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect/batch");
+        Mockito.when(configuration.getBatchIntrospectionWindow()).thenReturn(200L);
+        Mockito.when(configuration.getBatchIntrospectionTokensField()).thenReturn("tokens");
+        Mockito.when(configuration.getBatchIntrospectionResultsPath()).thenReturn("/results");
+        Mockito.when(configuration.getBatchIntrospectionTokenPath()).thenReturn("/token");
+
+        resource.doStart();
+
+        final CountDownLatch lock = new CountDownLatch(3);
+        resource.introspect(
+            "aaaa",
+            oAuth2Response -> {
+                Assert.assertTrue(oAuth2Response.isSuccess());
+                Assert.assertEquals("{\"active\":true,\"sub\":\"john\"}", oAuth2Response.getPayload());
+                lock.countDown();
+            }
+        );
+        resource.introspect(
+            "bbbb",
+            oAuth2Response -> {
+                Assert.assertFalse(oAuth2Response.isSuccess());
+                lock.countDown();
+            }
+        );
+        resource.introspect(
+            "cccc",
+            oAuth2Response -> {
+                Assert.assertTrue(oAuth2Response.isSuccess());
+                lock.countDown();
+            }
+        );
+
+        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+
+        verify(
+            1,
+            postRequestedFor(urlEqualTo("/oauth/introspect/batch"))
+                .withHeader(HttpHeaders.CONTENT_TYPE, equalTo(MediaType.APPLICATION_JSON))
+                .withRequestBody(equalToJson("{\"tokens\": [\"aaaa\", \"bbbb\", \"cccc\"]}"))
+        );
+        verify(0, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldFallbackToSingleIntrospectionsWhenBatchFails() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect/batch")).willReturn(aResponse().withStatus(500)));
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}")));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isBatchIntrospectionEnabled()).thenReturn(true);
+        Mockito.when(configuration.getBatchIntrospectionEndpoint())
+            .thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect/batch");
+        Mockito.when(configuration.getBatchIntrospectionWindow()).thenReturn(200L);
+
+        resource.doStart();
+
+        final CountDownLatch lock = new CountDownLatch(2);
+        for (String accessToken : new String[] { "aaaa", "bbbb" }) {
+            resource.introspect(
+                accessToken,
+                oAuth2Response -> {
+                    Assert.assertTrue(oAuth2Response.isSuccess());
+                    lock.countDown();
+                }
+            );
+        }
+
+        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+
+        verify(1, postRequestedFor(urlEqualTo("/oauth/introspect/batch")).withRequestBody(equalToJson("[\"aaaa\", \"bbbb\"]")));
+        verify(2, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldCoalesceConcurrentIntrospections() throws Exception {
+        stubFor(
+            post(urlEqualTo("/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(500).withBody("{\"active\": true}"))
+        );
+
+        final int concurrency = 10;
+        final CountDownLatch lock = new CountDownLatch(concurrency);
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+
+        resource.doStart();
+
+        final Runnable introspection = () ->
+            resource.introspect(
+                "xxxx-xxxx-xxxx-xxxx",
+                oAuth2Response -> {
+                    Assert.assertTrue(oAuth2Response.isSuccess());
+                    lock.countDown();
+                }
+            );
+
+        // Introspect from distinct threads to make sure coalescing does not depend on the calling thread
+        for (int i = 0; i < concurrency; i++) {
+            new Thread(introspection).start();
+        }
+
+        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+
+        verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldShareBoundedConnectionPool() throws Exception {
+        stubFor(
+            post(urlEqualTo("/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(100).withBody("{\"active\": true}"))
+        );
+
+        final int concurrency = 5;
+        final CountDownLatch lock = new CountDownLatch(concurrency);
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.getHttpClientMaxPoolSize()).thenReturn(1);
+        Mockito.when(configuration.isHttpClientKeepAlive()).thenReturn(true);
+
+        resource.doStart();
+
+        // Requests exceeding the pool size wait for the single connection instead of opening new ones
+        for (int i = 0; i < concurrency; i++) {
+            final String accessToken = "xxxx-xxxx-xxxx-" + i;
+            final Runnable introspection = () ->
+                resource.introspect(
+                    accessToken,
+                    oAuth2Response -> {
+                        Assert.assertTrue(oAuth2Response.isSuccess());
+                        lock.countDown();
+                    }
+                );
+            new Thread(introspection).start();
+        }
+
+        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+
+        verify(concurrency, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldWarmUpConnections() throws Exception {
+        stubFor(head(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(405).withFixedDelay(200)));
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}")));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isHttpClientKeepAlive()).thenReturn(true);
+        Mockito.when(configuration.isConnectionWarmUpEnabled()).thenReturn(true);
+        Mockito.when(configuration.getConnectionWarmUpCount()).thenReturn(2);
+        Mockito.when(configuration.isUseClientAuthorizationHeader()).thenReturn(true);
+        Mockito.when(configuration.getClientAuthorizationHeaderName()).thenReturn(HttpHeaders.AUTHORIZATION);
+        Mockito.when(configuration.getClientAuthorizationHeaderScheme()).thenReturn("Basic");
+        Mockito.when(configuration.getClientId()).thenReturn("my-app");
+        Mockito.when(configuration.getClientSecret()).thenReturn("my-secret");
+        Mockito.when(configuration.isDnsCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getDnsCacheTtl()).thenReturn(60L);
+        Mockito.when(configuration.isMetricsEnabled()).thenReturn(true);
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            resource.doStart();
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (
+                registry.get("gravitee.resource.oauth2.connections.warmup").tag("result", "success").counter().count() < 2 &&
+                System.currentTimeMillis() < deadline
+            ) {
+                Thread.sleep(10);
+            }
+
+            // The client credentials are only sent along with the introspections
+            verify(2, headRequestedFor(urlEqualTo("/oauth/introspect")).withoutHeader(HttpHeaders.AUTHORIZATION));
+            Assert.assertEquals(2, registry.get("gravitee.resource.oauth2.connections").gauge().value(), 0);
+
+            // Introspections use the connections already opened
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+            Assert.assertEquals(2, registry.get("gravitee.resource.oauth2.connections").gauge().value(), 0);
+            verify(
+                postRequestedFor(urlEqualTo("/oauth/introspect"))
+                    .withHeader(HttpHeaders.AUTHORIZATION, equalTo("Basic bXktYXBwOm15LXNlY3JldA=="))
+            );
+        } finally {
+            resource.doStop();
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    public void shouldIntrospectUsingHttp2() throws Exception {
+        final Vertx vertx = Vertx.vertx();
+        final List<HttpVersion> versions = new CopyOnWriteArrayList<>();
+        final HttpServer server = vertx
+            .createHttpServer()
+            .requestHandler(request -> {
+                versions.add(request.version());
+                request.response().end("{\"active\": true}");
+            })
+            .listen(0)
+            .toCompletionStage()
+            .toCompletableFuture()
+            .get(10, TimeUnit.SECONDS);
+
+        try {
+            Mockito.when(applicationContext.getBean(Vertx.class)).thenReturn(vertx);
+            Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + server.actualPort() + "/oauth/introspect");
+            Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+            Mockito.when(configuration.isHttp2Enabled()).thenReturn(true);
+
+            resource.doStart();
+
+            for (int i = 0; i < 2; i++) {
+                final CountDownLatch lock = new CountDownLatch(1);
+                resource.introspect(
+                    "xxxx-xxxx-xxxx-" + i,
+                    oAuth2Response -> {
+                        Assert.assertTrue(oAuth2Response.isSuccess());
+                        lock.countDown();
+                    }
+                );
+                Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+            }
+
+            Assert.assertEquals(HttpVersion.HTTP_2, versions.get(versions.size() - 1));
+        } finally {
+            vertx.close();
+        }
+    }
+
+    @Test
+    public void shouldIntrospectUsingMutualTls() throws Exception {
+        final Vertx vertx = Vertx.vertx();
+        final HttpServer server = httpsServer(vertx, true);
+
+        try {
+            Mockito.when(applicationContext.getBean(Vertx.class)).thenReturn(vertx);
+            Mockito
+                .when(configuration.getIntrospectionEndpoint())
+                .thenReturn("https://localhost:" + server.actualPort() + "/oauth/introspect");
+            Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+            Mockito.when(configuration.isSslVerifyHost()).thenReturn(true);
+            Mockito.when(configuration.getSslTrustStoreType()).thenReturn("PEM");
+            Mockito.when(configuration.getSslTrustStorePath()).thenReturn(resourcePath("/ssl/server.crt"));
+            Mockito.when(configuration.getSslKeyStoreType()).thenReturn("PEM");
+            Mockito.when(configuration.getSslKeyStorePath()).thenReturn(resourcePath("/ssl/client.crt"));
+            Mockito.when(configuration.getSslKeyStoreKeyPath()).thenReturn(resourcePath("/ssl/client.key"));
+
+            resource.doStart();
+
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+        } finally {
+            vertx.close();
+        }
+    }
+
+    @Test
+    public void shouldNotTrustUnknownCertificate() throws Exception {
+        final Vertx vertx = Vertx.vertx();
+        final HttpServer server = httpsServer(vertx, false);
+
+        try {
+            Mockito.when(applicationContext.getBean(Vertx.class)).thenReturn(vertx);
+            Mockito
+                .when(configuration.getIntrospectionEndpoint())
+                .thenReturn("https://localhost:" + server.actualPort() + "/oauth/introspect");
+            Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+            Mockito.when(configuration.getSslTrustStoreType()).thenReturn("PEM");
+            Mockito.when(configuration.getSslTrustStorePath()).thenReturn(resourcePath("/ssl/untrusted.crt"));
+
+            resource.doStart();
+
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", false);
+        } finally {
+            vertx.close();
+        }
+    }
+
+    @Test
+    public void shouldFallbackToHttp1WhenHttp2IsNotSupported() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}")));
+
+        final CountDownLatch lock = new CountDownLatch(1);
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isHttp2Enabled()).thenReturn(true);
+
+        resource.doStart();
+
+        resource.introspect(
+            "xxxx-xxxx-xxxx-xxxx",
+            oAuth2Response -> {
+                Assert.assertTrue(oAuth2Response.isSuccess());
+                lock.countDown();
+            }
+        );
+
+        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+
+        verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldValidateJwtLocally() throws Exception {
+        KeyPair keyPair = generateRsaKeyPair();
+        stubFor(get(urlEqualTo("/jwks")).willReturn(aResponse().withStatus(200).withBody(jwks("key-1", keyPair))));
+
+        final CountDownLatch lock = new CountDownLatch(1);
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.isJwtValidationEnabled()).thenReturn(true);
+        Mockito.when(configuration.getJwksUri()).thenReturn("http://localhost:" + wireMockRule.port() + "/jwks");
+        Mockito.when(configuration.getJwtIssuer()).thenReturn("https://issuer");
+
+        resource.doStart();
+
+        long exp = System.currentTimeMillis() / 1000 + 600;
+        String jwt = signJwt("key-1", keyPair, "{\"sub\": \"john\", \"iss\": \"https://issuer\", \"exp\": " + exp + "}");
+
+        resource.introspect(
+            jwt,
+            oAuth2Response -> {
+                Assert.assertTrue(oAuth2Response.isSuccess());
+                Assert.assertTrue(oAuth2Response.getPayload().contains("\"sub\":\"john\""));
+                lock.countDown();
+            }
+        );
+
+        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+
+        verify(0, postRequestedFor(urlEqualTo("/oauth/introspect")));
+        verify(0, getRequestedFor(urlPathEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldValidateJwtFromThreadsNotManagedByVertx() throws Exception {
+        KeyPair keyPair = generateRsaKeyPair();
+        stubFor(get(urlEqualTo("/jwks")).willReturn(aResponse().withStatus(200).withBody(jwks("key-1", keyPair))));
+
+        final Vertx vertx = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(2));
+        try {
+            Mockito.when(applicationContext.getBean(Vertx.class)).thenReturn(vertx);
+            Mockito
+                .when(configuration.getIntrospectionEndpoint())
+                .thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+            Mockito.when(configuration.isJwtValidationEnabled()).thenReturn(true);
+            Mockito.when(configuration.getJwksUri()).thenReturn("http://localhost:" + wireMockRule.port() + "/jwks");
+
+            resource.doStart();
+
+            long exp = System.currentTimeMillis() / 1000 + 600;
+            final Set<Context> contexts = ConcurrentHashMap.newKeySet();
+            for (int i = 0; i < 10; i++) {
+                final String jwt = signJwt("key-1", keyPair, "{\"sub\": \"user-" + i + "\", \"exp\": " + exp + "}");
+                final CountDownLatch lock = new CountDownLatch(1);
+                new Thread(() ->
+                    resource.introspect(
+                        jwt,
+                        oAuth2Response -> {
+                            Context context = Vertx.currentContext();
+                            if (oAuth2Response.isSuccess() && context != null) {
+                                contexts.add(context);
+                                lock.countDown();
+                            }
+                        }
+                    )
+                )
+                    .start();
+                // The keys are fetched by the first validation only, the next ones do not wait for any request
+                Assert.assertTrue(lock.await(10, TimeUnit.SECONDS));
+            }
+
+            Assert.assertTrue(contexts.size() <= 2);
+            verify(1, getRequestedFor(urlEqualTo("/jwks")));
+        } finally {
+            resource.doStop();
+            vertx.close();
+        }
+    }
+
+    @Test
+    public void shouldReadScopesOfJwtValidatedLocally() throws Exception {
+        KeyPair keyPair = generateRsaKeyPair();
+        stubFor(get(urlEqualTo("/jwks")).willReturn(aResponse().withStatus(200).withBody(jwks("key-1", keyPair))));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.isJwtValidationEnabled()).thenReturn(true);
+        Mockito.when(configuration.getJwksUri()).thenReturn("http://localhost:" + wireMockRule.port() + "/jwks");
+
+        resource.doStart();
+
+        long exp = System.currentTimeMillis() / 1000 + 600;
+        OAuth2Response oAuth2Response = resource
+            .introspect(signJwt("key-1", keyPair, "{\"sub\": \"john\", \"scope\": \"read write\", \"exp\": " + exp + "}"))
+            .toCompletionStage()
+            .toCompletableFuture()
+            .get(10, TimeUnit.SECONDS);
+
+        Assert.assertTrue(oAuth2Response.isSuccess());
+        IntrospectionResponse introspectionResponse = (IntrospectionResponse) oAuth2Response;
+        Assert.assertTrue(introspectionResponse.hasAllScopes(Arrays.asList("read", "write")));
+        Assert.assertFalse(introspectionResponse.hasScope("admin"));
+        Assert.assertEquals("john", introspectionResponse.getSubject());
+    }
+
+    @Test
+    public void shouldRejectJwtWithInvalidSignature() throws Exception {
+        stubFor(get(urlEqualTo("/jwks")).willReturn(aResponse().withStatus(200).withBody(jwks("key-1", generateRsaKeyPair()))));
+
+        final CountDownLatch lock = new CountDownLatch(1);
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.isJwtValidationEnabled()).thenReturn(true);
+        Mockito.when(configuration.getJwksUri()).thenReturn("http://localhost:" + wireMockRule.port() + "/jwks");
+
+        resource.doStart();
+
+        resource.introspect(
+            signJwt("key-1", generateRsaKeyPair(), "{\"sub\": \"john\"}"),
+            oAuth2Response -> {
+                Assert.assertFalse(oAuth2Response.isSuccess());
+                lock.countDown();
+            }
+        );
+
+        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+
+        verify(0, postRequestedFor(urlEqualTo("/oauth/introspect")));
+        verify(0, getRequestedFor(urlPathEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldRejectExpiredJwt() throws Exception {
+        KeyPair keyPair = generateRsaKeyPair();
+        stubFor(get(urlEqualTo("/jwks")).willReturn(aResponse().withStatus(200).withBody(jwks("key-1", keyPair))));
+
+        final CountDownLatch lock = new CountDownLatch(1);
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.isJwtValidationEnabled()).thenReturn(true);
+        Mockito.when(configuration.getJwksUri()).thenReturn("http://localhost:" + wireMockRule.port() + "/jwks");
+
+        resource.doStart();
+
+        long exp = System.currentTimeMillis() / 1000 - 600;
+
+        resource.introspect(
+            signJwt("key-1", keyPair, "{\"sub\": \"john\", \"exp\": " + exp + "}"),
+            oAuth2Response -> {
+                Assert.assertFalse(oAuth2Response.isSuccess());
+                lock.countDown();
+            }
+        );
+
+        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldRejectRevokedJwtValidatedLocally() throws Exception {
+        KeyPair keyPair = generateRsaKeyPair();
+        stubFor(get(urlEqualTo("/jwks")).willReturn(aResponse().withStatus(200).withBody(jwks("key-1", keyPair))));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.isJwtValidationEnabled()).thenReturn(true);
+        Mockito.when(configuration.getJwksUri()).thenReturn("http://localhost:" + wireMockRule.port() + "/jwks");
+
+        resource.doStart();
+
+        long now = System.currentTimeMillis() / 1000;
+        String johnJwt = signJwt("key-1", keyPair, "{\"sub\": \"john\", \"iat\": " + (now - 10) + ", \"exp\": " + (now + 600) + "}");
+        String janeJwt = signJwt("key-1", keyPair, "{\"sub\": \"jane\", \"iat\": " + (now - 10) + ", \"exp\": " + (now + 600) + "}");
+        assertIntrospection(resource, johnJwt, true);
+        assertIntrospection(resource, janeJwt, true);
+
+        // Neither cached nor rejected by a negative cache: the revocations are checked on each validation
+        resource.revoke(RevocationEvent.of("{\"sub\": \"john\"}"));
+        assertIntrospection(resource, johnJwt, false);
+        assertIntrospection(resource, janeJwt, true);
+
+        resource.revoke(RevocationEvent.of(new JsonObject().put("token", janeJwt)));
+        assertIntrospection(resource, janeJwt, false);
+
+        verify(0, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldIntrospectJwtWithoutExpirationRemotely() throws Exception {
+        KeyPair keyPair = generateRsaKeyPair();
+        stubFor(get(urlEqualTo("/jwks")).willReturn(aResponse().withStatus(200).withBody(jwks("key-1", keyPair))));
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": false}")));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isJwtValidationEnabled()).thenReturn(true);
+        Mockito.when(configuration.getJwksUri()).thenReturn("http://localhost:" + wireMockRule.port() + "/jwks");
+
+        resource.doStart();
+
+        OAuth2Response oAuth2Response = resource
+            .introspect(signJwt("key-1", keyPair, "{\"sub\": \"john\"}"))
+            .toCompletionStage()
+            .toCompletableFuture()
+            .get(10, TimeUnit.SECONDS);
+
+        Assert.assertFalse(oAuth2Response.isSuccess());
+        verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldNotLetJwtClaimsOverrideActive() throws Exception {
+        KeyPair keyPair = generateRsaKeyPair();
+        stubFor(get(urlEqualTo("/jwks")).willReturn(aResponse().withStatus(200).withBody(jwks("key-1", keyPair))));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.isJwtValidationEnabled()).thenReturn(true);
+        Mockito.when(configuration.getJwksUri()).thenReturn("http://localhost:" + wireMockRule.port() + "/jwks");
+
+        resource.doStart();
+
+        long exp = System.currentTimeMillis() / 1000 + 600;
+        OAuth2Response oAuth2Response = resource
+            .introspect(signJwt("key-1", keyPair, "{\"sub\": \"john\", \"active\": false, \"exp\": " + exp + "}"))
+            .toCompletionStage()
+            .toCompletableFuture()
+            .get(10, TimeUnit.SECONDS);
+
+        Assert.assertTrue(oAuth2Response.isSuccess());
+        Assert.assertTrue(new JsonObject(oAuth2Response.getPayload()).getBoolean("active"));
+    }
+
+    @Test
+    public void shouldIntrospectOpaqueTokenWhenJwtValidationIsEnabled() throws Exception {
+        stubFor(get(urlEqualTo("/jwks")).willReturn(aResponse().withStatus(200).withBody(jwks("key-1", generateRsaKeyPair()))));
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}")));
+
+        final CountDownLatch lock = new CountDownLatch(1);
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isJwtValidationEnabled()).thenReturn(true);
+        Mockito.when(configuration.getJwksUri()).thenReturn("http://localhost:" + wireMockRule.port() + "/jwks");
+
+        resource.doStart();
+
+        resource.introspect(
+            "xxxx-xxxx-xxxx-xxxx",
+            oAuth2Response -> {
+                Assert.assertTrue(oAuth2Response.isSuccess());
+                lock.countDown();
+            }
+        );
+
+        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+
+        verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
     @Test
     public void shouldGetUserInfo() throws Exception {
         stubFor(
@@ -253,7 +1358,64 @@ public class OAuth2GenericResourceTest {
             }
         );
 
-        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldGetUserInfoUsingSingle() throws Exception {
+        stubFor(get(urlEqualTo("/userinfo")).willReturn(aResponse().withStatus(200).withBody("{\"sub\": \"248289761001\"}")));
+
+        Mockito.when(configuration.getAuthorizationServerUrl()).thenReturn("http://localhost:" + wireMockRule.port());
+        Mockito.when(configuration.getUserInfoEndpoint()).thenReturn("/userinfo");
+        Mockito.when(configuration.getUserInfoEndpointMethod()).thenReturn(HttpMethod.GET.name());
+
+        resource.doStart();
+
+        Single<UserInfoResponse> userInfo = resource.rxUserInfo("xxxx-xxxx-xxxx-xxxx");
+        verify(0, getRequestedFor(urlEqualTo("/userinfo")));
+
+        Assert.assertTrue(userInfo.timeout(10, TimeUnit.SECONDS).blockingGet().isSuccess());
+        verify(1, getRequestedFor(urlEqualTo("/userinfo")));
+    }
+
+    @Test
+    public void shouldReleaseInFlightRequestWhenUserInfoFailsWhileReadingBody() throws Exception {
+        final Vertx vertx = Vertx.vertx();
+        final AtomicBoolean failed = new AtomicBoolean();
+        final HttpServer server = vertx
+            .createHttpServer()
+            .requestHandler(request -> {
+                if (failed.compareAndSet(false, true)) {
+                    // The status is sent, then the connection is lost in the middle of the body
+                    request.response().putHeader(HttpHeaders.CONTENT_LENGTH, "100").write("{\"sub\": ");
+                    vertx.setTimer(100, timerId -> request.connection().close());
+                } else {
+                    request.response().end("{\"sub\": \"248289761001\"}");
+                }
+            })
+            .listen(0)
+            .toCompletionStage()
+            .toCompletableFuture()
+            .get(10, TimeUnit.SECONDS);
+
+        try {
+            Mockito.when(applicationContext.getBean(Vertx.class)).thenReturn(vertx);
+            Mockito.when(configuration.getAuthorizationServerUrl()).thenReturn("http://localhost:" + server.actualPort());
+            Mockito.when(configuration.getUserInfoEndpoint()).thenReturn("/userinfo");
+            Mockito.when(configuration.getUserInfoEndpointMethod()).thenReturn(HttpMethod.GET.name());
+            Mockito.when(configuration.getMaxInFlightRequests()).thenReturn(1);
+
+            resource.doStart();
+
+            Future<UserInfoResponse> failure = resource.userInfo("xxxx-xxxx-xxxx-xxx1");
+            Assert.assertFalse(failure.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS).isSuccess());
+
+            // The failed call does not hold its in-flight request anymore
+            Future<UserInfoResponse> success = resource.userInfo("xxxx-xxxx-xxxx-xxx2");
+            Assert.assertTrue(success.toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS).isSuccess());
+        } finally {
+            vertx.close();
+        }
     }
 
     @Test
@@ -308,6 +1470,634 @@ public class OAuth2GenericResourceTest {
         Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
     }
 
+    @Test
+    public void shouldCoalesceConcurrentUserInfo() throws Exception {
+        stubFor(
+            get(urlEqualTo("/userinfo"))
+                .willReturn(aResponse().withStatus(200).withFixedDelay(500).withBody("{\"sub\": \"248289761001\"}"))
+        );
+
+        final int concurrency = 10;
+        final CountDownLatch lock = new CountDownLatch(concurrency);
+
+        Mockito.when(configuration.getAuthorizationServerUrl()).thenReturn("http://localhost:" + wireMockRule.port());
+        Mockito.when(configuration.getUserInfoEndpoint()).thenReturn("/userinfo");
+        Mockito.when(configuration.getUserInfoEndpointMethod()).thenReturn(HttpMethod.GET.name());
+
+        resource.doStart();
+
+        for (int i = 0; i < concurrency; i++) {
+            resource.userInfo(
+                "xxxx-xxxx-xxxx-xxxx",
+                userInfoResponse -> {
+                    Assert.assertTrue(userInfoResponse.isSuccess());
+                    lock.countDown();
+                }
+            );
+        }
+
+        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+
+        verify(1, getRequestedFor(urlEqualTo("/userinfo")));
+    }
+
+    @Test
+    public void shouldCacheUserInfo() throws Exception {
+        stubFor(get(urlEqualTo("/userinfo")).willReturn(aResponse().withStatus(200).withBody("{\"sub\": \"248289761001\"}")));
+
+        Mockito.when(configuration.getAuthorizationServerUrl()).thenReturn("http://localhost:" + wireMockRule.port());
+        Mockito.when(configuration.getUserInfoEndpoint()).thenReturn("/userinfo");
+        Mockito.when(configuration.getUserInfoEndpointMethod()).thenReturn(HttpMethod.GET.name());
+        Mockito.when(configuration.isUserInfoCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getUserInfoCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getUserInfoCacheMaxTtl()).thenReturn(60L);
+
+        resource.doStart();
+
+        for (int i = 0; i < 2; i++) {
+            assertUserInfo(resource, "xxxx-xxxx-xxxx-xxxx");
+        }
+
+        verify(1, getRequestedFor(urlEqualTo("/userinfo")));
+    }
+
+    @Test
+    public void shouldNotCacheUserInfoLongerThanToken() throws Exception {
+        // At least one second ahead, whatever the current millisecond
+        long exp = System.currentTimeMillis() / 1000 + 2;
+        stubFor(
+            post(urlEqualTo("/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withBody("{\"active\": true, \"exp\": " + exp + "}"))
+        );
+        stubFor(get(urlEqualTo("/userinfo")).willReturn(aResponse().withStatus(200).withBody("{\"sub\": \"248289761001\"}")));
+
+        Mockito.when(configuration.getAuthorizationServerUrl()).thenReturn("http://localhost:" + wireMockRule.port());
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getIntrospectionCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getIntrospectionCacheMaxTtl()).thenReturn(60L);
+        Mockito.when(configuration.getUserInfoEndpoint()).thenReturn("/userinfo");
+        Mockito.when(configuration.getUserInfoEndpointMethod()).thenReturn(HttpMethod.GET.name());
+        Mockito.when(configuration.isUserInfoCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getUserInfoCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getUserInfoCacheMaxTtl()).thenReturn(60L);
+
+        resource.doStart();
+
+        assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+        assertUserInfo(resource, "xxxx-xxxx-xxxx-xxxx");
+        assertUserInfo(resource, "xxxx-xxxx-xxxx-xxxx");
+        verify(1, getRequestedFor(urlEqualTo("/userinfo")));
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(exp) - System.currentTimeMillis() + 100);
+
+        assertUserInfo(resource, "xxxx-xxxx-xxxx-xxxx");
+        verify(2, getRequestedFor(urlEqualTo("/userinfo")));
+    }
+
+    @Test
+    public void shouldRecordIntrospectionMetrics() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}")));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getIntrospectionCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getIntrospectionCacheMaxTtl()).thenReturn(60L);
+        Mockito.when(configuration.isMetricsEnabled()).thenReturn(true);
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            resource.doStart();
+
+            for (int i = 0; i < 2; i++) {
+                final CountDownLatch lock = new CountDownLatch(1);
+                resource.introspect("xxxx-xxxx-xxxx-xxxx", oAuth2Response -> lock.countDown());
+                Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+            }
+
+            Assert.assertEquals(1, registry.get("gravitee.resource.oauth2.requests").tag("operation", "introspect").timer().count());
+            Assert.assertEquals(1, registry.get("gravitee.resource.oauth2.responses").tag("outcome", "active").counter().count(), 0);
+            Assert.assertEquals(
+                0,
+                registry.get("gravitee.resource.oauth2.requests.inflight").tag("operation", "introspect").gauge().value(),
+                0
+            );
+            Assert.assertEquals(
+                1,
+                registry.get("gravitee.resource.oauth2.cache").tags("cache", "introspection", "result", "hit").counter().count(),
+                0
+            );
+            Assert.assertEquals(
+                1,
+                registry.get("gravitee.resource.oauth2.cache").tags("cache", "introspection", "result", "miss").counter().count(),
+                0
+            );
+            Assert.assertNotNull(registry.find("gravitee.resource.oauth2.connections").tag("resource", "unnamed").gauge());
+        } finally {
+            resource.doStop();
+            Metrics.removeRegistry(registry);
+        }
+
+        Assert.assertTrue(registry.find("gravitee.resource.oauth2.requests").meters().isEmpty());
+    }
+
+    @Test
+    public void shouldRecordUserInfoErrorMetrics() throws Exception {
+        stubFor(get(urlEqualTo("/userinfo")).willReturn(aResponse().withStatus(401)));
+
+        Mockito.when(configuration.getAuthorizationServerUrl()).thenReturn("http://localhost:" + wireMockRule.port());
+        Mockito.when(configuration.getUserInfoEndpoint()).thenReturn("/userinfo");
+        Mockito.when(configuration.getUserInfoEndpointMethod()).thenReturn(HttpMethod.GET.name());
+        Mockito.when(configuration.isMetricsEnabled()).thenReturn(true);
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            resource.doStart();
+
+            final CountDownLatch lock = new CountDownLatch(1);
+            resource.userInfo("xxxx-xxxx-xxxx-xxxx", userInfoResponse -> lock.countDown());
+            Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+
+            Assert.assertEquals(
+                1,
+                registry.get("gravitee.resource.oauth2.responses").tags("operation", "userinfo", "outcome", "http_error").counter().count(),
+                0
+            );
+            Assert.assertEquals(
+                0,
+                registry.get("gravitee.resource.oauth2.responses").tags("operation", "userinfo", "outcome", "success").counter().count(),
+                0
+            );
+        } finally {
+            resource.doStop();
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    public void shouldFailFastWhenCircuitBreakerIsOpen() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(503)));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isCircuitBreakerEnabled()).thenReturn(true);
+        Mockito.when(configuration.getCircuitBreakerSlidingWindowSize()).thenReturn(2);
+        Mockito.when(configuration.getCircuitBreakerMinimumNumberOfCalls()).thenReturn(2);
+
+        resource.doStart();
+
+        for (int i = 0; i < 3; i++) {
+            final CountDownLatch lock = new CountDownLatch(1);
+            final boolean circuitOpen = i == 2;
+            resource.introspect(
+                "xxxx-xxxx-xxxx-xxx" + i,
+                oAuth2Response -> {
+                    Assert.assertFalse(oAuth2Response.isSuccess());
+                    Assert.assertEquals(circuitOpen, oAuth2Response.getThrowable().getMessage().contains("circuit breaker is open"));
+                    lock.countDown();
+                }
+            );
+            Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+        }
+
+        verify(2, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldFailFastWhenTooManyRequestsAreInFlight() throws Exception {
+        stubFor(
+            post(urlEqualTo("/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withBody("{\"active\": true}").withFixedDelay(500))
+        );
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.getMaxInFlightRequests()).thenReturn(1);
+
+        resource.doStart();
+
+        final CountDownLatch lock = new CountDownLatch(2);
+        resource.introspect(
+            "xxxx-xxxx-xxxx-xxx1",
+            oAuth2Response -> {
+                Assert.assertTrue(oAuth2Response.isSuccess());
+                lock.countDown();
+            }
+        );
+        resource.introspect(
+            "xxxx-xxxx-xxxx-xxx2",
+            oAuth2Response -> {
+                Assert.assertFalse(oAuth2Response.isSuccess());
+                lock.countDown();
+            }
+        );
+
+        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+        verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldTimeoutIntrospection() throws Exception {
+        stubFor(
+            post(urlEqualTo("/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withBody("{\"active\": true}").withFixedDelay(5000))
+        );
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.getRequestTimeout()).thenReturn(200L);
+
+        resource.doStart();
+
+        final CountDownLatch lock = new CountDownLatch(1);
+        resource.introspect(
+            "xxxx-xxxx-xxxx-xxxx",
+            oAuth2Response -> {
+                Assert.assertFalse(oAuth2Response.isSuccess());
+                Assert.assertTrue(oAuth2Response.getThrowable() instanceof TimeoutException);
+                lock.countDown();
+            }
+        );
+
+        Assert.assertEquals(true, lock.await(2000, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldTimeoutSlowIntrospectionResponse() throws Exception {
+        stubFor(
+            post(urlEqualTo("/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withBody("{\"active\": true}").withChunkedDribbleDelay(4, 4000))
+        );
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.getRequestTimeout()).thenReturn(2000L);
+        Mockito.when(configuration.getRequestTotalTimeout()).thenReturn(500L);
+
+        resource.doStart();
+
+        // Data keeps on being received, only the total timeout expires
+        final CountDownLatch lock = new CountDownLatch(1);
+        resource.introspect(
+            "xxxx-xxxx-xxxx-xxxx",
+            oAuth2Response -> {
+                Assert.assertFalse(oAuth2Response.isSuccess());
+                Assert.assertTrue(oAuth2Response.getThrowable().getCause() instanceof TimeoutException);
+                lock.countDown();
+            }
+        );
+
+        Assert.assertEquals(true, lock.await(2000, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void shouldHedgeLateIntrospection() throws Exception {
+        stubFor(
+            post(urlEqualTo("/oauth/introspect"))
+                .inScenario("hedging")
+                .whenScenarioStateIs(STARTED)
+                .willReturn(aResponse().withStatus(200).withBody("{\"active\": true}").withFixedDelay(5000))
+                .willSetStateTo("hedged")
+        );
+        stubFor(
+            post(urlEqualTo("/oauth/introspect"))
+                .inScenario("hedging")
+                .whenScenarioStateIs("hedged")
+                .willReturn(aResponse().withStatus(200).withBody("{\"active\": true}"))
+        );
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isHedgingEnabled()).thenReturn(true);
+        Mockito.when(configuration.getHedgingMinDelay()).thenReturn(100L);
+
+        resource.doStart();
+
+        long start = System.currentTimeMillis();
+        assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+
+        Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+        verify(2, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldNotHedgeFailedIntrospection() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(500)));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isHedgingEnabled()).thenReturn(true);
+        Mockito.when(configuration.getHedgingMinDelay()).thenReturn(500L);
+
+        resource.doStart();
+
+        assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", false);
+
+        Thread.sleep(1000);
+        verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldNotHedgeWhileCircuitBreakerIsNotClosed() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(503)));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isHedgingEnabled()).thenReturn(true);
+        Mockito.when(configuration.getHedgingMinDelay()).thenReturn(100L);
+        Mockito.when(configuration.isCircuitBreakerEnabled()).thenReturn(true);
+        Mockito.when(configuration.getCircuitBreakerSlidingWindowSize()).thenReturn(2);
+        Mockito.when(configuration.getCircuitBreakerMinimumNumberOfCalls()).thenReturn(2);
+        Mockito.when(configuration.getCircuitBreakerOpenStateDuration()).thenReturn(1L);
+
+        resource.doStart();
+
+        assertIntrospection(resource, "xxxx-xxxx-xxxx-xxx1", false);
+        assertIntrospection(resource, "xxxx-xxxx-xxxx-xxx2", false);
+
+        // The circuit is half open: the late trial call is not sent twice
+        stubFor(
+            post(urlEqualTo("/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withBody("{\"active\": true}").withFixedDelay(1000))
+        );
+        Thread.sleep(1100);
+        assertIntrospection(resource, "xxxx-xxxx-xxxx-xxx3", true);
+        verify(3, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldHonourRetryAfter() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(429).withHeader(HttpHeaders.RETRY_AFTER, "5")));
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+
+        resource.doStart();
+
+        assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", false);
+        // The authorization server is not called again before the delay it asked for
+        assertIntrospection(resource, "yyyy-yyyy-yyyy-yyyy", false);
+        verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+    }
+
+    @Test
+    public void shouldBalanceIntrospectionsAndEjectFailingServer() throws Exception {
+        WireMockServer otherServer = new WireMockServer(wireMockConfig().dynamicPort());
+        otherServer.start();
+        try {
+            stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(500)));
+            otherServer.stubFor(
+                post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}"))
+            );
+
+            Mockito.when(configuration.getAuthorizationServerUrl()).thenReturn("http://localhost:" + wireMockRule.port());
+            Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("/oauth/introspect");
+            Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+            Mockito
+                .when(configuration.getAdditionalAuthorizationServerUrls())
+                .thenReturn(Collections.singletonList("http://localhost:" + otherServer.port()));
+            Mockito.when(configuration.getEndpointEjectionFailures()).thenReturn(1);
+
+            resource.doStart();
+
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", false);
+            for (int i = 0; i < 4; i++) {
+                assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+            }
+
+            verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+            otherServer.verify(4, postRequestedFor(urlEqualTo("/oauth/introspect")));
+        } finally {
+            otherServer.stop();
+        }
+    }
+
+    @Test
+    public void shouldRecordIntrospectionMetricsByEndpoint() throws Exception {
+        WireMockServer otherServer = new WireMockServer(wireMockConfig().dynamicPort());
+        otherServer.start();
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(500)));
+            otherServer.stubFor(
+                post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}"))
+            );
+
+            Mockito.when(configuration.getAuthorizationServerUrl()).thenReturn("http://localhost:" + wireMockRule.port());
+            Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("/oauth/introspect");
+            Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+            Mockito
+                .when(configuration.getAdditionalAuthorizationServerUrls())
+                .thenReturn(Collections.singletonList("http://localhost:" + otherServer.port()));
+            Mockito.when(configuration.getEndpointEjectionFailures()).thenReturn(1);
+            Mockito.when(configuration.isMetricsEnabled()).thenReturn(true);
+
+            resource.doStart();
+
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", false);
+            for (int i = 0; i < 2; i++) {
+                assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+            }
+
+            String failing = "http://localhost:" + wireMockRule.port() + "/oauth/introspect";
+            String other = "http://localhost:" + otherServer.port() + "/oauth/introspect";
+            Assert.assertEquals(1, registry.get("gravitee.resource.oauth2.requests").tag("endpoint", failing).timer().count());
+            Assert.assertEquals(
+                1,
+                registry.get("gravitee.resource.oauth2.responses").tags("endpoint", failing, "outcome", "server_error").counter().count(),
+                0
+            );
+            Assert.assertEquals(2, registry.get("gravitee.resource.oauth2.requests").tag("endpoint", other).timer().count());
+            Assert.assertEquals(
+                2,
+                registry.get("gravitee.resource.oauth2.responses").tags("endpoint", other, "outcome", "active").counter().count(),
+                0
+            );
+        } finally {
+            resource.doStop();
+            Metrics.removeRegistry(registry);
+            otherServer.stop();
+        }
+    }
+
+    @Test
+    public void shouldRevokeTokenFromEventBus() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}")));
+
+        final Vertx vertx = Vertx.vertx();
+        try {
+            Mockito.when(applicationContext.getBean(Vertx.class)).thenReturn(vertx);
+            Mockito
+                .when(configuration.getIntrospectionEndpoint())
+                .thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+            Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+            Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+            Mockito.when(configuration.getIntrospectionCacheMaxSize()).thenReturn(100);
+            Mockito.when(configuration.getIntrospectionCacheMaxTtl()).thenReturn(60L);
+            Mockito.when(configuration.isNegativeCacheEnabled()).thenReturn(true);
+            Mockito.when(configuration.getNegativeCacheMaxSize()).thenReturn(100);
+            Mockito.when(configuration.getNegativeCacheTtl()).thenReturn(60L);
+            Mockito.when(configuration.getRevocationEventBusAddress()).thenReturn("oauth2.revocations");
+
+            resource.doStart();
+
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+
+            vertx
+                .eventBus()
+                .request("oauth2.revocations", new JsonObject().put("token", "xxxx-xxxx-xxxx-xxxx"))
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get(10, TimeUnit.SECONDS);
+
+            // The revoked token is rejected without introspecting it again
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", false);
+            verify(1, postRequestedFor(urlEqualTo("/oauth/introspect")));
+        } finally {
+            resource.doStop();
+            vertx.close();
+        }
+    }
+
+    @Test
+    public void shouldRevokeTokenOnAllResourcesListeningToEventBus() throws Exception {
+        stubFor(post(urlEqualTo("/oauth/introspect")).willReturn(aResponse().withStatus(200).withBody("{\"active\": true}")));
+
+        final Vertx vertx = Vertx.vertx();
+        final OAuth2GenericResource otherResource = otherNode();
+        try {
+            Mockito.when(applicationContext.getBean(Vertx.class)).thenReturn(vertx);
+            Mockito
+                .when(configuration.getIntrospectionEndpoint())
+                .thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+            Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+            Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+            Mockito.when(configuration.getIntrospectionCacheMaxSize()).thenReturn(100);
+            Mockito.when(configuration.getIntrospectionCacheMaxTtl()).thenReturn(60L);
+            Mockito.when(configuration.isNegativeCacheEnabled()).thenReturn(true);
+            Mockito.when(configuration.getNegativeCacheMaxSize()).thenReturn(100);
+            Mockito.when(configuration.getNegativeCacheTtl()).thenReturn(60L);
+            Mockito.when(configuration.getRevocationEventBusAddress()).thenReturn("oauth2.revocations");
+
+            resource.doStart();
+            otherResource.doStart();
+
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+            assertIntrospection(otherResource, "xxxx-xxxx-xxxx-xxxx", true);
+
+            // Sent point-to-point: only one of the resources receives it from the sender
+            vertx
+                .eventBus()
+                .request("oauth2.revocations", new JsonObject().put("token", "xxxx-xxxx-xxxx-xxxx"))
+                .toCompletionStage()
+                .toCompletableFuture()
+                .get(10, TimeUnit.SECONDS);
+
+            for (OAuth2GenericResource revokingResource : Arrays.asList(resource, otherResource)) {
+                long deadline = System.currentTimeMillis() + 10000;
+                while (revokingResource.introspect("xxxx-xxxx-xxxx-xxxx").result().isSuccess()) {
+                    Assert.assertTrue(System.currentTimeMillis() < deadline);
+                    Thread.sleep(10);
+                }
+            }
+            verify(2, postRequestedFor(urlEqualTo("/oauth/introspect")));
+        } finally {
+            otherResource.doStop();
+            resource.doStop();
+            vertx.close();
+        }
+    }
+
+    @Test
+    public void shouldRevokeSubjectFromWebhook() throws Exception {
+        stubFor(
+            post(urlEqualTo("/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withBody("{\"active\": true, \"sub\": \"john\"}"))
+        );
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getIntrospectionCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getIntrospectionCacheMaxTtl()).thenReturn(60L);
+        Mockito.when(configuration.isRevocationWebhookEnabled()).thenReturn(true);
+        Mockito.when(configuration.getRevocationWebhookPort()).thenReturn(port);
+        Mockito.when(configuration.getRevocationWebhookSecret()).thenReturn("s3cr3t");
+
+        resource.doStart();
+        try {
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+            assertIntrospection(resource, "yyyy-yyyy-yyyy-yyyy", true);
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+            verify(2, postRequestedFor(urlEqualTo("/oauth/introspect")));
+
+            Assert.assertEquals(401, postRevocation(port, "Bearer wrong", "{\"sub\": \"john\"}"));
+            Assert.assertEquals(400, postRevocation(port, "Bearer s3cr3t", "{\"aud\": \"api\"}"));
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+            verify(2, postRequestedFor(urlEqualTo("/oauth/introspect")));
+
+            Assert.assertEquals(204, postRevocation(port, "Bearer s3cr3t", "{\"sub\": \"john\"}"));
+
+            // The cached results of all the tokens of the subject are not served anymore
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+            assertIntrospection(resource, "yyyy-yyyy-yyyy-yyyy", true);
+            verify(4, postRequestedFor(urlEqualTo("/oauth/introspect")));
+        } finally {
+            resource.doStop();
+        }
+    }
+
+    @Test
+    public void shouldRevokeSubjectOnAllResourcesListeningToWebhook() throws Exception {
+        stubFor(
+            post(urlEqualTo("/oauth/introspect"))
+                .willReturn(aResponse().withStatus(200).withBody("{\"active\": true, \"sub\": \"john\"}"))
+        );
+
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        Mockito.when(configuration.getIntrospectionEndpoint()).thenReturn("http://localhost:" + wireMockRule.port() + "/oauth/introspect");
+        Mockito.when(configuration.getIntrospectionEndpointMethod()).thenReturn(HttpMethod.POST.name());
+        Mockito.when(configuration.isIntrospectionCacheEnabled()).thenReturn(true);
+        Mockito.when(configuration.getIntrospectionCacheMaxSize()).thenReturn(100);
+        Mockito.when(configuration.getIntrospectionCacheMaxTtl()).thenReturn(60L);
+        Mockito.when(configuration.isRevocationWebhookEnabled()).thenReturn(true);
+        Mockito.when(configuration.getRevocationWebhookPort()).thenReturn(port);
+
+        final OAuth2GenericResource otherResource = otherNode();
+        resource.doStart();
+        otherResource.doStart();
+        try {
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+            assertIntrospection(otherResource, "xxxx-xxxx-xxxx-xxxx", true);
+            verify(2, postRequestedFor(urlEqualTo("/oauth/introspect")));
+
+            // Both resources listen to the same port: a single request must reach them all
+            Assert.assertEquals(204, postRevocation(port, "Bearer none", "{\"sub\": \"john\"}"));
+
+            assertIntrospection(resource, "xxxx-xxxx-xxxx-xxxx", true);
+            assertIntrospection(otherResource, "xxxx-xxxx-xxxx-xxxx", true);
+            verify(4, postRequestedFor(urlEqualTo("/oauth/introspect")));
+        } finally {
+            otherResource.doStop();
+            resource.doStop();
+        }
+    }
+
     @Test
     public void shouldGetCustomUserClaim() {
         Mockito.when(configuration.getUserClaim()).thenReturn("customUserClaim");
@@ -318,4 +2108,116 @@ public class OAuth2GenericResourceTest {
     public void shouldGetDefaultUserClaim() {
         Assert.assertEquals("sub", resource.getUserClaim());
     }
+
+    private static KeyPair generateRsaKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static String jwks(String kid, KeyPair keyPair) {
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return (
+            "{\"keys\": [{\"kty\": \"RSA\", \"use\": \"sig\", \"kid\": \"" +
+            kid +
+            "\", \"n\": \"" +
+            encoder.encodeToString(publicKey.getModulus().toByteArray()) +
+            "\", \"e\": \"" +
+            encoder.encodeToString(publicKey.getPublicExponent().toByteArray()) +
+            "\"}]}"
+        );
+    }
+
+    private static String signJwt(String kid, KeyPair keyPair, String claims) throws Exception {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String signingInput =
+            encoder.encodeToString(("{\"alg\": \"RS256\", \"kid\": \"" + kid + "\"}").getBytes(StandardCharsets.UTF_8)) +
+            '.' +
+            encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + '.' + encoder.encodeToString(signature.sign());
+    }
+
+    /**
+     * Another gateway node running the same resource.
+     */
+    private OAuth2GenericResource otherNode() throws Exception {
+        OAuth2GenericResource otherNode = new OAuth2GenericResource();
+        otherNode.setApplicationContext(applicationContext);
+        Field configurationField = AbstractConfigurableResource.class.getDeclaredField("configuration");
+        configurationField.setAccessible(true);
+        configurationField.set(otherNode, configuration);
+        return otherNode;
+    }
+
+    private static HttpServer httpsServer(Vertx vertx, boolean clientAuth) throws Exception {
+        HttpServerOptions options = new HttpServerOptions()
+            .setSsl(true)
+            .setKeyCertOptions(
+                new PemKeyCertOptions().setCertPath(resourcePath("/ssl/server.crt")).setKeyPath(resourcePath("/ssl/server.key"))
+            );
+        if (clientAuth) {
+            options.setClientAuth(ClientAuth.REQUIRED).setTrustOptions(new PemTrustOptions().addCertPath(resourcePath("/ssl/client.crt")));
+        }
+
+        return vertx
+            .createHttpServer(options)
+            .requestHandler(request -> request.response().end("{\"active\": true}"))
+            .listen(0)
+            .toCompletionStage()
+            .toCompletableFuture()
+            .get(10, TimeUnit.SECONDS);
+    }
+
+    private static String resourcePath(String name) throws Exception {
+        return Paths.get(OAuth2GenericResourceTest.class.getResource(name).toURI()).toString();
+    }
+
+    private static void assertIntrospection(OAuth2GenericResource resource, String accessToken, boolean active) throws Exception {
+        final CountDownLatch lock = new CountDownLatch(1);
+        resource.introspect(
+            accessToken,
+            oAuth2Response -> {
+                Assert.assertEquals(active, oAuth2Response.isSuccess());
+                lock.countDown();
+            }
+        );
+        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+    }
+
+    private static int postRevocation(int port, String authorization, String event) throws Exception {
+        HttpRequest request = HttpRequest
+            .newBuilder(URI.create("http://127.0.0.1:" + port + "/revocations"))
+            .header(HttpHeaders.AUTHORIZATION, authorization)
+            .POST(HttpRequest.BodyPublishers.ofString(event))
+            .build();
+
+        // The webhook is started in the background along with the resource
+        for (int attempt = 0;; attempt++) {
+            try {
+                return java.net.http.HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (ConnectException ce) {
+                if (attempt == 50) {
+                    throw ce;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private static void assertUserInfo(OAuth2GenericResource resource, String accessToken) throws Exception {
+        final CountDownLatch lock = new CountDownLatch(1);
+        resource.userInfo(
+            accessToken,
+            userInfoResponse -> {
+                Assert.assertTrue(userInfoResponse.isSuccess());
+                lock.countDown();
+            }
+        );
+        Assert.assertEquals(true, lock.await(10000, TimeUnit.MILLISECONDS));
+    }
 }
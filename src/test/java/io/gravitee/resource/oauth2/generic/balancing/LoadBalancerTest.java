@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.balancing;
+
+import io.gravitee.resource.oauth2.generic.metrics.Outcome;
+import io.gravitee.resource.oauth2.generic.request.RequestTemplate;
+import io.vertx.core.http.HttpMethod;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class LoadBalancerTest {
+
+    private static final String SERVER_A = "http://a:8080/oauth/introspect";
+    private static final String SERVER_B = "http://b:8080/oauth/introspect";
+    private static final String SERVER_C = "http://c:8080/oauth/introspect";
+
+    @Test
+    public void shouldCallServersInTurn() {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancer.Strategy.ROUND_ROBIN, 5, 30000);
+
+        Assert.assertEquals(SERVER_A, call(loadBalancer, Outcome.ACTIVE));
+        Assert.assertEquals(SERVER_B, call(loadBalancer, Outcome.ACTIVE));
+        Assert.assertEquals(SERVER_C, call(loadBalancer, Outcome.ACTIVE));
+        Assert.assertEquals(SERVER_A, call(loadBalancer, Outcome.ACTIVE));
+    }
+
+    @Test
+    public void shouldCallServerWithFewestCallsInFlight() {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancer.Strategy.LEAST_IN_FLIGHT, 5, 30000);
+
+        LoadBalancer.Endpoint first = loadBalancer.acquire();
+        LoadBalancer.Endpoint second = loadBalancer.acquire();
+        LoadBalancer.Endpoint third = loadBalancer.acquire();
+        Assert.assertNotSame(first, second);
+        Assert.assertNotSame(first, third);
+        Assert.assertNotSame(second, third);
+
+        second.onCallEnd(TimeUnit.MILLISECONDS.toNanos(10), Outcome.ACTIVE);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertSame(second, loadBalancer.acquire());
+            second.onCallEnd(TimeUnit.MILLISECONDS.toNanos(10), Outcome.ACTIVE);
+        }
+    }
+
+    @Test
+    public void shouldCallFastestServersMoreOften() {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancer.Strategy.LATENCY_WEIGHTED, 5, 30000);
+        for (LoadBalancer.Endpoint endpoint : loadBalancer.getEndpoints()) {
+            endpoint.onCallEnd(TimeUnit.MILLISECONDS.toNanos(SERVER_A.equals(endpoint.getUri()) ? 10 : 1000), Outcome.ACTIVE);
+        }
+
+        int calls = 0;
+        for (int i = 0; i < 1000; i++) {
+            LoadBalancer.Endpoint endpoint = loadBalancer.acquire();
+            if (SERVER_A.equals(endpoint.getUri())) {
+                calls++;
+            }
+            endpoint.onCallEnd(endpoint.latency(), Outcome.ACTIVE);
+        }
+
+        // Server A is expected to get about 98% of the calls
+        Assert.assertTrue("Calls to the fastest server: " + calls, calls > 900);
+    }
+
+    @Test
+    public void shouldEjectFailingServer() throws InterruptedException {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancer.Strategy.ROUND_ROBIN, 2, 200);
+
+        Assert.assertEquals(SERVER_A, call(loadBalancer, Outcome.SERVER_ERROR));
+        Assert.assertEquals(SERVER_B, call(loadBalancer, Outcome.ACTIVE));
+        Assert.assertEquals(SERVER_C, call(loadBalancer, Outcome.ACTIVE));
+        Assert.assertEquals(SERVER_A, call(loadBalancer, Outcome.TIMEOUT));
+        Assert.assertEquals(2, loadBalancer.available());
+        Assert.assertFalse(loadBalancer.isAvailable(loadBalancer.getEndpoints().get(0).getRequestTemplate()));
+        Assert.assertTrue(loadBalancer.isAvailable(loadBalancer.getEndpoints().get(1).getRequestTemplate()));
+
+        for (int i = 0; i < 4; i++) {
+            Assert.assertNotEquals(SERVER_A, call(loadBalancer, Outcome.ACTIVE));
+        }
+
+        Thread.sleep(300);
+
+        Assert.assertEquals(3, loadBalancer.available());
+        Assert.assertTrue(loadBalancer.isAvailable(loadBalancer.getEndpoints().get(0).getRequestTemplate()));
+        Set<String> servers = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            servers.add(call(loadBalancer, Outcome.ACTIVE));
+        }
+        Assert.assertTrue(servers.contains(SERVER_A));
+    }
+
+    @Test
+    public void shouldNotEjectServerAnsweringBetweenFailures() {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancer.Strategy.ROUND_ROBIN, 2, 30000);
+
+        for (int i = 0; i < 3; i++) {
+            call(loadBalancer, Outcome.SERVER_ERROR);
+            call(loadBalancer, Outcome.SERVER_ERROR);
+            call(loadBalancer, Outcome.SERVER_ERROR);
+            call(loadBalancer, Outcome.INACTIVE);
+            call(loadBalancer, Outcome.INACTIVE);
+            call(loadBalancer, Outcome.INACTIVE);
+        }
+
+        Assert.assertEquals(3, loadBalancer.available());
+    }
+
+    @Test
+    public void shouldCallServerReadmittedFirstWhenAllAreEjected() {
+        LoadBalancer loadBalancer = loadBalancer(LoadBalancer.Strategy.ROUND_ROBIN, 1, 30000);
+
+        Assert.assertEquals(SERVER_A, call(loadBalancer, Outcome.CONNECTION_FAILURE));
+        Assert.assertEquals(SERVER_B, call(loadBalancer, Outcome.CONNECTION_FAILURE));
+        Assert.assertEquals(SERVER_C, call(loadBalancer, Outcome.CONNECTION_FAILURE));
+        Assert.assertEquals(0, loadBalancer.available());
+
+        Assert.assertEquals(SERVER_A, call(loadBalancer, Outcome.ACTIVE));
+    }
+
+    private static String call(LoadBalancer loadBalancer, Outcome outcome) {
+        LoadBalancer.Endpoint endpoint = loadBalancer.acquire();
+        endpoint.onCallEnd(TimeUnit.MILLISECONDS.toNanos(10), outcome);
+        return endpoint.getUri();
+    }
+
+    private static LoadBalancer loadBalancer(LoadBalancer.Strategy strategy, int ejectionFailures, long ejectionDuration) {
+        Map<String, RequestTemplate> endpoints = new LinkedHashMap<>();
+        for (String uri : new String[] { SERVER_A, SERVER_B, SERVER_C }) {
+            endpoints.put(uri, RequestTemplate.builder(HttpMethod.POST, uri).build());
+        }
+        return new LoadBalancer(strategy, endpoints, ejectionFailures, ejectionDuration);
+    }
+}
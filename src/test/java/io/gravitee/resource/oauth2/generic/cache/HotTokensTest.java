@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.cache;
+
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class HotTokensTest {
+
+    @Test
+    public void shouldKeepHottestTokens() {
+        HotTokens hotTokens = new HotTokens(10, 2);
+
+        record(hotTokens, "aaaa", 50);
+        record(hotTokens, "bbbb", 20);
+        record(hotTokens, "cccc", 30);
+        // Cold tokens are never kept
+        for (int i = 0; i < 1000; i++) {
+            record(hotTokens, "token-" + i, 2);
+        }
+
+        List<HotTokens.HotToken> hottest = hotTokens.hottest();
+        Assert.assertEquals(2, hottest.size());
+        Assert.assertEquals("aaaa", hottest.get(0).getAccessToken());
+        Assert.assertEquals(TokenDigest.digest("aaaa"), hottest.get(0).getTokenDigest());
+        Assert.assertEquals("cccc", hottest.get(1).getAccessToken());
+        Assert.assertTrue(hottest.get(0).getEstimate() >= 50);
+    }
+
+    @Test
+    public void shouldCoolDownUnusedTokens() {
+        HotTokens hotTokens = new HotTokens(10, 10);
+
+        record(hotTokens, "aaaa", 40);
+        record(hotTokens, "bbbb", 12);
+
+        hotTokens.decay();
+        Assert.assertEquals(1, hotTokens.size());
+        Assert.assertEquals("aaaa", hotTokens.hottest().get(0).getAccessToken());
+
+        hotTokens.decay();
+        hotTokens.decay();
+        Assert.assertEquals(0, hotTokens.size());
+
+        // Counters have been halved as well
+        record(hotTokens, "bbbb", 8);
+        Assert.assertEquals(0, hotTokens.size());
+    }
+
+    private static void record(HotTokens hotTokens, String accessToken, int times) {
+        String tokenDigest = TokenDigest.digest(accessToken);
+        for (int i = 0; i < times; i++) {
+            hotTokens.record(tokenDigest, accessToken);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.cache;
+
+import io.gravitee.node.api.cache.Cache;
+import io.gravitee.node.api.cache.CacheConfiguration;
+import io.gravitee.node.api.cache.CacheListener;
+import io.gravitee.node.api.cache.CacheManager;
+import io.gravitee.node.api.cache.EntryEvent;
+import io.gravitee.node.api.cache.EntryEventType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * A node cache manager keeping its caches in memory, standing for the cluster when several resources share it.
+ * Listeners are notified synchronously, the way a distributed cache notifies every node. Once a cache holds its maximum
+ * size, an entry is evicted for each new one.
+ *
+ * @author GraviteeSource Team
+ */
+public class InProcessCacheManager implements CacheManager {
+
+    private final ConcurrentMap<String, InProcessCache<?, ?>> caches = new ConcurrentHashMap<>();
+
+    @Override
+    public <K, V> Cache<K, V> getOrCreateCache(String name) {
+        return getOrCreateCache(name, new CacheConfiguration());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> Cache<K, V> getOrCreateCache(String name, CacheConfiguration configuration) {
+        return (Cache<K, V>) caches.computeIfAbsent(name, cacheName -> new InProcessCache<>(cacheName, configuration.getMaxSize()));
+    }
+
+    @Override
+    public void destroy(String name) {
+        caches.remove(name);
+    }
+
+    private static final class InProcessCache<K, V> implements Cache<K, V> {
+
+        private final String name;
+
+        private final long maxSize;
+
+        private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+        private final List<CacheListener<K, V>> listeners = new CopyOnWriteArrayList<>();
+
+        private InProcessCache(String name, long maxSize) {
+            this.name = name;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        @Override
+        public Collection<V> values() {
+            return entries.values().stream().filter(entry -> !entry.isExpired()).map(entry -> entry.value).collect(Collectors.toList());
+        }
+
+        @Override
+        public V get(K key) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.isExpired()) {
+                entries.remove(key, entry);
+                notify(EntryEventType.EXPIRED, key, entry.value, null);
+                return null;
+            }
+            return entry == null ? null : entry.value;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            return put(key, value, 0, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public V put(K key, V value, long ttl, TimeUnit timeUnit) {
+            long expiresAt = ttl > 0 ? System.currentTimeMillis() + timeUnit.toMillis(ttl) : Long.MAX_VALUE;
+            Entry<V> previous = entries.put(key, new Entry<>(value, expiresAt));
+            if (previous == null && maxSize > 0 && entries.size() > maxSize) {
+                K evicted = entries.keySet().stream().filter(other -> !other.equals(key)).findFirst().orElse(null);
+                Entry<V> evictedEntry = evicted == null ? null : entries.remove(evicted);
+                if (evictedEntry != null) {
+                    notify(EntryEventType.EVICTED, evicted, evictedEntry.value, null);
+                }
+            }
+            notify(previous == null ? EntryEventType.ADDED : EntryEventType.UPDATED, key, previous == null ? null : previous.value, value);
+            return previous == null ? null : previous.value;
+        }
+
+        @Override
+        public void putAll(Map<? extends K, ? extends V> values) {
+            values.forEach(this::put);
+        }
+
+        @Override
+        public V evict(K key) {
+            Entry<V> previous = entries.remove(key);
+            if (previous == null) {
+                return null;
+            }
+            notify(EntryEventType.REMOVED, key, previous.value, null);
+            return previous.value;
+        }
+
+        @Override
+        public void clear() {
+            entries.clear();
+            notify(EntryEventType.CLEAR_ALL, null, null, null);
+        }
+
+        @Override
+        public void addCacheListener(CacheListener<K, V> listener) {
+            listeners.add(listener);
+        }
+
+        @Override
+        public boolean removeCacheListener(CacheListener<K, V> listener) {
+            return listeners.remove(listener);
+        }
+
+        private void notify(EntryEventType type, K key, V oldValue, V value) {
+            EntryEvent<K, V> event = new EntryEvent<>(this, type, key, oldValue, value);
+            listeners.forEach(listener -> listener.onEvent(event));
+        }
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return expiresAt <= System.currentTimeMillis();
+        }
+    }
+}
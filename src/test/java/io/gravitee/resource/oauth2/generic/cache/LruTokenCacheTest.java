@@ -0,0 +1,73 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class LruTokenCacheTest {
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntry() {
+        LruTokenCache<String> cache = new LruTokenCache<>(2);
+
+        cache.put("aaaa", "a", 60000);
+        cache.put("bbbb", "b", 60000);
+        Assert.assertEquals("a", cache.get("aaaa"));
+        cache.put("cccc", "c", 60000);
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals("a", cache.get("aaaa"));
+        Assert.assertNull(cache.get("bbbb"));
+        Assert.assertEquals("c", cache.get("cccc"));
+    }
+
+    @Test
+    public void shouldBoundSizeOfSegmentedCache() {
+        LruTokenCache<String> cache = new LruTokenCache<>(1000);
+
+        for (int i = 0; i < 10000; i++) {
+            String key = TokenDigest.digest("token-" + i);
+            cache.put(key, "value-" + i, 60000);
+            Assert.assertEquals("value-" + i, cache.get(key));
+        }
+
+        // Digests are spread evenly enough between the segments for each of them to be full
+        Assert.assertEquals(1000, cache.size());
+
+        cache.evict(TokenDigest.digest("token-9999"));
+        Assert.assertEquals(999, cache.size());
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldNotReturnExpiredEntry() throws Exception {
+        LruTokenCache<String> cache = new LruTokenCache<>(10);
+
+        cache.put("aaaa", "a", 50, 100);
+        Thread.sleep(60);
+        Assert.assertNull(cache.get("aaaa"));
+        Assert.assertNotNull(cache.getEntry("aaaa"));
+
+        Thread.sleep(50);
+        Assert.assertNull(cache.getEntry("aaaa"));
+        Assert.assertEquals(0, cache.size());
+    }
+}
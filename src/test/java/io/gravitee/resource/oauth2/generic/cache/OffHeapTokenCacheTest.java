@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.cache;
+
+import io.gravitee.resource.oauth2.api.OAuth2Response;
+import io.gravitee.resource.oauth2.generic.introspection.IntrospectionResponse;
+import io.gravitee.resource.oauth2.generic.introspection.ScopeDictionary;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class OffHeapTokenCacheTest {
+
+    private static final String PAYLOAD = "{\"active\": true, \"sub\": \"248289761001\", \"exp\": 1893456000}";
+
+    @Test
+    public void shouldRestoreCachedResponse() {
+        OffHeapTokenCache cache = new OffHeapTokenCache(1024 * 1024, new ScopeDictionary());
+        String key = TokenDigest.digest("xxxx-xxxx-xxxx-xxxx");
+
+        cache.put(
+            key,
+            new IntrospectionResponse(true, PAYLOAD, 1893456000L, null, "my-app", "248289761001", 1893452400L, 1893452401000L),
+            60000,
+            120000
+        );
+
+        TokenCache.CacheEntry<OAuth2Response> entry = cache.getEntry(key);
+        Assert.assertNotNull(entry);
+        Assert.assertFalse(entry.isStale());
+        Assert.assertTrue(entry.getValue().isSuccess());
+        Assert.assertEquals(PAYLOAD, entry.getValue().getPayload());
+        IntrospectionResponse response = (IntrospectionResponse) entry.getValue();
+        Assert.assertEquals(1893456000L, response.getExpirationTime());
+        Assert.assertEquals("my-app", response.getClientId());
+        Assert.assertEquals("248289761001", response.getSubject());
+        Assert.assertEquals(1893452400L, response.getIssuedAt());
+        Assert.assertEquals(1893452401000L, response.getIntrospectedAt());
+        Assert.assertEquals(entry.getFreshUntil() + 60000, entry.getExpiresAt());
+        Assert.assertEquals(1, cache.size());
+        Assert.assertNull(cache.get(TokenDigest.digest("yyyy-yyyy-yyyy-yyyy")));
+    }
+
+    @Test
+    public void shouldRestoreScopesOfCachedResponse() {
+        ScopeDictionary scopeDictionary = new ScopeDictionary(2);
+        OffHeapTokenCache cache = new OffHeapTokenCache(1024 * 1024, scopeDictionary);
+        String key = TokenDigest.digest("xxxx-xxxx-xxxx-xxxx");
+
+        cache.put(
+            key,
+            new IntrospectionResponse(true, PAYLOAD, -1, scopeDictionary.parse("read write admin", " "), null, null, -1, 0),
+            60000
+        );
+
+        IntrospectionResponse response = (IntrospectionResponse) cache.get(key);
+        Assert.assertTrue(response.hasAllScopes(Arrays.asList("read", "write", "admin")));
+        Assert.assertFalse(response.hasScope("delete"));
+        Assert.assertEquals(Collections.singleton("admin"), response.getScopes().getUnindexedScopes());
+    }
+
+    @Test
+    public void shouldReplaceCachedResponse() {
+        OffHeapTokenCache cache = new OffHeapTokenCache(1024 * 1024, new ScopeDictionary());
+        String key = TokenDigest.digest("xxxx-xxxx-xxxx-xxxx");
+
+        cache.put(key, new OAuth2Response(true, PAYLOAD), 60000);
+        cache.put(key, new OAuth2Response(false, "{\"active\": false}"), 60000);
+
+        Assert.assertFalse(cache.get(key).isSuccess());
+        Assert.assertEquals("{\"active\": false}", cache.get(key).getPayload());
+        Assert.assertEquals(-1, ((IntrospectionResponse) cache.get(key)).getExpirationTime());
+        Assert.assertNull(((IntrospectionResponse) cache.get(key)).getClientId());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void shouldExpireCachedResponse() throws InterruptedException {
+        OffHeapTokenCache cache = new OffHeapTokenCache(1024 * 1024, new ScopeDictionary());
+        String key = TokenDigest.digest("xxxx-xxxx-xxxx-xxxx");
+
+        cache.put(key, new OAuth2Response(true, PAYLOAD), 50, 150);
+        Thread.sleep(100);
+
+        Assert.assertNull(cache.get(key));
+        Assert.assertTrue(cache.getEntry(key).isStale());
+
+        Thread.sleep(100);
+
+        Assert.assertNull(cache.getEntry(key));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldEvictCachedResponses() {
+        OffHeapTokenCache cache = new OffHeapTokenCache(1024 * 1024, new ScopeDictionary());
+        for (int i = 0; i < 10; i++) {
+            cache.put(TokenDigest.digest("token-" + i), new OAuth2Response(true, PAYLOAD), 60000);
+        }
+
+        cache.evict(TokenDigest.digest("token-0"));
+        Assert.assertNull(cache.get(TokenDigest.digest("token-0")));
+        Assert.assertNotNull(cache.get(TokenDigest.digest("token-1")));
+        Assert.assertEquals(9, cache.size());
+
+        cache.clear();
+        Assert.assertNull(cache.get(TokenDigest.digest("token-1")));
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldStayWithinMemoryBudget() {
+        OffHeapTokenCache cache = new OffHeapTokenCache(64 * 1024, new ScopeDictionary());
+        for (int i = 0; i < 10000; i++) {
+            cache.put(TokenDigest.digest("token-" + i), new OAuth2Response(true, PAYLOAD), 60000);
+        }
+
+        Assert.assertTrue(cache.allocatedMemory() <= 64 * 1024);
+        Assert.assertEquals(cache.maxMemory(), cache.allocatedMemory());
+        Assert.assertTrue(cache.size() < 10000);
+
+        // The oldest results are evicted first
+        Assert.assertNull(cache.get(TokenDigest.digest("token-0")));
+        Assert.assertNotNull(cache.get(TokenDigest.digest("token-9999")));
+    }
+
+    @Test
+    public void shouldOnlyAllocateMemoryInUse() {
+        OffHeapTokenCache cache = new OffHeapTokenCache(64 * 1024 * 1024, new ScopeDictionary());
+        cache.put(TokenDigest.digest("xxxx-xxxx-xxxx-xxxx"), new OAuth2Response(true, PAYLOAD), 60000);
+
+        Assert.assertTrue(cache.allocatedMemory() < cache.maxMemory() / 4);
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.cache;
+
+import io.gravitee.node.api.cache.Cache;
+import io.gravitee.node.api.cache.CacheConfiguration;
+import io.vertx.core.Vertx;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class SharedIntrospectionCacheTest {
+
+    private static final String ACCESS_TOKEN = "xxxx-xxxx-xxxx-xxxx";
+
+    private static final String PAYLOAD = "{\"active\": true, \"sub\": \"john\"}";
+
+    private Vertx vertx;
+
+    private Cache<String, byte[]> cache;
+
+    @Before
+    public void init() {
+        vertx = Vertx.vertx();
+        cache = new InProcessCacheManager().getOrCreateCache("introspection");
+    }
+
+    @After
+    public void close() {
+        vertx.close();
+    }
+
+    @Test
+    public void shouldStoreEncryptedIntrospection() throws Exception {
+        SharedIntrospectionCache sharedCache = new SharedIntrospectionCache(vertx, cache, tokenDigest -> {});
+        String tokenDigest = TokenDigest.digest(ACCESS_TOKEN);
+        long freshUntil = System.currentTimeMillis() + 60000;
+
+        sharedCache.put(ACCESS_TOKEN, tokenDigest, PAYLOAD, freshUntil, freshUntil + 10000);
+        awaitEntry(tokenDigest);
+
+        Assert.assertFalse(new String(cache.get(tokenDigest), StandardCharsets.ISO_8859_1).contains("john"));
+
+        SharedIntrospectionCache.Entry entry = get(sharedCache, ACCESS_TOKEN, tokenDigest);
+        Assert.assertNotNull(entry);
+        Assert.assertEquals(PAYLOAD, entry.getPayload());
+        Assert.assertEquals(freshUntil, entry.getFreshUntil());
+        Assert.assertEquals(freshUntil + 10000, entry.getExpiresAt());
+    }
+
+    @Test
+    public void shouldNotReadIntrospectionOfAnotherToken() throws Exception {
+        SharedIntrospectionCache sharedCache = new SharedIntrospectionCache(vertx, cache, tokenDigest -> {});
+        String tokenDigest = TokenDigest.digest(ACCESS_TOKEN);
+        long freshUntil = System.currentTimeMillis() + 60000;
+
+        sharedCache.put(ACCESS_TOKEN, tokenDigest, PAYLOAD, freshUntil, freshUntil);
+        awaitEntry(tokenDigest);
+
+        Assert.assertNull(get(sharedCache, "yyyy-yyyy-yyyy-yyyy", tokenDigest));
+
+        // A value moved under another key can not be read either
+        cache.put(TokenDigest.digest("yyyy-yyyy-yyyy-yyyy"), cache.get(tokenDigest));
+        Assert.assertNull(get(sharedCache, ACCESS_TOKEN, TokenDigest.digest("yyyy-yyyy-yyyy-yyyy")));
+    }
+
+    @Test
+    public void shouldNotifyRemovalsToAllNodes() throws Exception {
+        List<String> removed = new CopyOnWriteArrayList<>();
+        SharedIntrospectionCache node1 = new SharedIntrospectionCache(vertx, cache, tokenDigest -> {});
+        SharedIntrospectionCache node2 = new SharedIntrospectionCache(vertx, cache, removed::add);
+        String tokenDigest = TokenDigest.digest(ACCESS_TOKEN);
+        long freshUntil = System.currentTimeMillis() + 60000;
+
+        node1.put(ACCESS_TOKEN, tokenDigest, PAYLOAD, freshUntil, freshUntil);
+        awaitEntry(tokenDigest);
+        Assert.assertTrue(removed.isEmpty());
+
+        node1.evict(tokenDigest);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (removed.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        Assert.assertEquals(List.of(tokenDigest), removed);
+        Assert.assertNull(get(node2, ACCESS_TOKEN, tokenDigest));
+    }
+
+    @Test
+    public void shouldKeepLocalCopiesOfEntriesEvictedToMakeRoom() throws Exception {
+        CacheConfiguration cacheConfiguration = new CacheConfiguration();
+        cacheConfiguration.setMaxSize(1);
+        cache = new InProcessCacheManager().getOrCreateCache("introspection", cacheConfiguration);
+        List<String> removed = new CopyOnWriteArrayList<>();
+        SharedIntrospectionCache node1 = new SharedIntrospectionCache(vertx, cache, tokenDigest -> {});
+        SharedIntrospectionCache node2 = new SharedIntrospectionCache(vertx, cache, removed::add);
+        String tokenDigest = TokenDigest.digest(ACCESS_TOKEN);
+        String otherTokenDigest = TokenDigest.digest("yyyy-yyyy-yyyy-yyyy");
+        long freshUntil = System.currentTimeMillis() + 60000;
+
+        node1.put(ACCESS_TOKEN, tokenDigest, PAYLOAD, freshUntil, freshUntil);
+        awaitEntry(tokenDigest);
+        node1.put("yyyy-yyyy-yyyy-yyyy", otherTokenDigest, PAYLOAD, freshUntil, freshUntil);
+        awaitEntry(otherTokenDigest);
+
+        Assert.assertNull(cache.get(tokenDigest));
+        Assert.assertTrue(removed.isEmpty());
+    }
+
+    private void awaitEntry(String tokenDigest) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.get(tokenDigest) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertNotNull(cache.get(tokenDigest));
+    }
+
+    private static SharedIntrospectionCache.Entry get(SharedIntrospectionCache sharedCache, String accessToken, String tokenDigest)
+        throws Exception {
+        CompletableFuture<SharedIntrospectionCache.Entry> entry = new CompletableFuture<>();
+        sharedCache.get(accessToken, tokenDigest, entry::complete);
+        return entry.get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.coalescing;
+
+import io.gravitee.gateway.api.handler.Handler;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class RequestCoalescerTest {
+
+    private final RequestCoalescer<String> coalescer = new RequestCoalescer<>(throwable -> "failed: " + throwable.getMessage());
+
+    @Test
+    public void shouldShareResultOfConcurrentCalls() {
+        List<Handler<String>> calls = new ArrayList<>();
+        List<String> results = new ArrayList<>();
+
+        coalescer.execute("key", results::add, calls::add);
+        coalescer.execute("key", results::add, calls::add);
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals(1, coalescer.size());
+
+        calls.get(0).handle("result");
+        Assert.assertEquals(List.of("result", "result"), results);
+        Assert.assertEquals(0, coalescer.size());
+    }
+
+    @Test
+    public void shouldCompleteWaitersWhenCallThrows() {
+        List<String> results = new ArrayList<>();
+
+        coalescer.execute(
+            "key",
+            results::add,
+            handler -> {
+                throw new IllegalStateException("invalid request");
+            }
+        );
+
+        Assert.assertEquals(List.of("failed: invalid request"), results);
+        Assert.assertEquals(0, coalescer.size());
+
+        // The key is not left in flight: the next call is executed
+        coalescer.execute("key", results::add, handler -> handler.handle("result"));
+        Assert.assertEquals(List.of("failed: invalid request", "result"), results);
+    }
+
+    @Test
+    public void shouldIgnoreFailureOfCompletedCall() {
+        List<Handler<String>> calls = new ArrayList<>();
+        List<String> results = new ArrayList<>();
+
+        coalescer.execute(
+            "key",
+            results::add,
+            handler -> {
+                handler.handle("result");
+                throw new IllegalStateException("invalid request");
+            }
+        );
+        coalescer.execute("key", results::add, calls::add);
+
+        Assert.assertEquals(List.of("result"), results);
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals(1, coalescer.size());
+    }
+}
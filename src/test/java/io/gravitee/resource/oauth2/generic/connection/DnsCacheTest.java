@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.connection;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.net.SocketAddress;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class DnsCacheTest {
+
+    private Vertx vertx;
+
+    @Before
+    public void init() {
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void close() {
+        vertx.close();
+    }
+
+    @Test
+    public void shouldConnectToResolvedAddress() throws Exception {
+        DnsCache dnsCache = new DnsCache(vertx, 60000);
+
+        List<InetAddress> addresses = dnsCache.resolve("localhost").toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+        SocketAddress server = dnsCache.address("localhost", 8080);
+        Assert.assertNotNull(server);
+        Assert.assertEquals(addresses.get(0).getHostAddress(), server.hostAddress());
+        Assert.assertEquals(8080, server.port());
+    }
+
+    @Test
+    public void shouldConnectToAllResolvedAddressesInTurn() throws Exception {
+        InetAddress[] addresses = {
+            InetAddress.getByAddress("auth.example.com", new byte[] { 10, 0, 0, 1 }),
+            InetAddress.getByAddress("auth.example.com", new byte[] { 10, 0, 0, 2 }),
+        };
+        DnsCache dnsCache = new DnsCache(vertx, 60000, host -> addresses);
+
+        dnsCache.resolve("auth.example.com").toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals("10.0.0.1", dnsCache.address("auth.example.com", 443).hostAddress());
+        Assert.assertEquals("10.0.0.2", dnsCache.address("auth.example.com", 443).hostAddress());
+        Assert.assertEquals("10.0.0.1", dnsCache.address("auth.example.com", 443).hostAddress());
+    }
+
+    @Test
+    public void shouldResolveUnknownHostInBackground() throws Exception {
+        DnsCache dnsCache = new DnsCache(vertx, 60000);
+
+        // The client resolves the host itself until the address is known
+        Assert.assertNull(dnsCache.address("localhost", 8080));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dnsCache.address("localhost", 8080) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertNotNull(dnsCache.address("localhost", 8080));
+    }
+
+    @Test
+    public void shouldLetClientResolveUnknownHost() throws Exception {
+        DnsCache dnsCache = new DnsCache(vertx, 60000);
+
+        CompletableFuture<List<InetAddress>> resolution = dnsCache.resolve("unknown.invalid").toCompletionStage().toCompletableFuture();
+        try {
+            resolution.get(10, TimeUnit.SECONDS);
+            Assert.fail("Resolution of an unknown host should fail");
+        } catch (ExecutionException ee) {
+            Assert.assertTrue(ee.getCause() instanceof UnknownHostException);
+        }
+
+        Assert.assertNull(dnsCache.address("unknown.invalid", 8080));
+    }
+}
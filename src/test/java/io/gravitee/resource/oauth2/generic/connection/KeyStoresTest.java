@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.connection;
+
+import io.vertx.core.net.JksOptions;
+import io.vertx.core.net.PemKeyCertOptions;
+import io.vertx.core.net.PemTrustOptions;
+import io.vertx.core.net.PfxOptions;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class KeyStoresTest {
+
+    @Test
+    public void shouldNotConfigureMissingStores() {
+        Assert.assertNull(KeyStores.trustOptions(null, "/path/to/truststore", null, null));
+        Assert.assertNull(KeyStores.keyCertOptions("", "/path/to/keystore", null, null, null, null));
+    }
+
+    @Test
+    public void shouldReadPemStores() {
+        PemTrustOptions trustOptions = (PemTrustOptions) KeyStores.trustOptions("pem", "/path/to/ca.crt", null, null);
+        Assert.assertEquals("/path/to/ca.crt", trustOptions.getCertPaths().get(0));
+
+        PemKeyCertOptions keyCertOptions = (PemKeyCertOptions) KeyStores.keyCertOptions(
+            "PEM",
+            null,
+            "-----BEGIN CERTIFICATE-----",
+            null,
+            "/path/to/client.key",
+            null
+        );
+        Assert.assertEquals("-----BEGIN CERTIFICATE-----", keyCertOptions.getCertValue().toString());
+        Assert.assertEquals("/path/to/client.key", keyCertOptions.getKeyPath());
+    }
+
+    @Test
+    public void shouldReadBase64Stores() {
+        String content = Base64.getEncoder().encodeToString("store".getBytes(StandardCharsets.UTF_8));
+
+        JksOptions trustOptions = (JksOptions) KeyStores.trustOptions("JKS", null, content, "secret");
+        Assert.assertEquals("store", trustOptions.getValue().toString());
+        Assert.assertEquals("secret", trustOptions.getPassword());
+
+        PfxOptions keyCertOptions = (PfxOptions) KeyStores.keyCertOptions("PKCS12", "/path/to/client.p12", null, "secret", null, null);
+        Assert.assertEquals("/path/to/client.p12", keyCertOptions.getPath());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnsupportedStore() {
+        KeyStores.trustOptions("BKS", "/path/to/truststore", null, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRequireStoreLocation() {
+        KeyStores.keyCertOptions("PEM", "/path/to/client.crt", null, null, null, null);
+    }
+}
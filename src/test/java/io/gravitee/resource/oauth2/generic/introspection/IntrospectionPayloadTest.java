@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.introspection;
+
+import io.vertx.core.buffer.Buffer;
+import java.io.IOException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class IntrospectionPayloadTest {
+
+    @Test
+    public void shouldReadClaims() throws Exception {
+        IntrospectionPayload payload = IntrospectionPayload.parse(
+            Buffer.buffer(
+                "{\"active\": true, \"ext\": {\"exp\": 1, \"scope\": \"nested\"}, \"aud\": [\"api\"], " +
+                "\"exp\": 1700000000, \"scope\": \"read write\", \"username\": \"john\"}"
+            ),
+            "username"
+        );
+
+        Assert.assertTrue(payload.isActive());
+        Assert.assertEquals(1700000000L, payload.getExpirationTime());
+        Assert.assertEquals("read write", payload.getScope());
+        Assert.assertEquals("john", payload.getUser());
+    }
+
+    @Test
+    public void shouldReadClientAndSubject() throws Exception {
+        IntrospectionPayload payload = IntrospectionPayload.parse(
+            "{\"client_id\": \"my-app\", \"sub\": \"john\", \"iat\": 1893452400}",
+            "sub"
+        );
+
+        Assert.assertEquals("my-app", payload.getClientId());
+        Assert.assertEquals("john", payload.getSubject());
+        Assert.assertEquals("john", payload.getUser());
+        Assert.assertEquals(1893452400L, payload.getIssuedAt());
+    }
+
+    @Test
+    public void shouldBeActiveWithoutActiveClaim() throws Exception {
+        IntrospectionPayload payload = IntrospectionPayload.parse(Buffer.buffer("{\"key\": \"value\"}"), "sub");
+
+        Assert.assertTrue(payload.isActive());
+        Assert.assertEquals(-1L, payload.getExpirationTime());
+        Assert.assertEquals(-1L, payload.getIssuedAt());
+        Assert.assertNull(payload.getScope());
+        Assert.assertNull(payload.getUser());
+    }
+
+    @Test
+    public void shouldReadActiveClaimAsString() throws Exception {
+        Assert.assertFalse(IntrospectionPayload.parse(Buffer.buffer("{\"active\": \"false\"}"), "sub").isActive());
+        Assert.assertTrue(IntrospectionPayload.parse(Buffer.buffer("{\"active\": \"true\"}"), "sub").isActive());
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnInvalidJson() throws Exception {
+        IntrospectionPayload.parse(Buffer.buffer("{\"active\": tru"), "sub");
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.introspection;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class ScopeDictionaryTest {
+
+    @Test
+    public void shouldParseScopes() {
+        ScopeDictionary scopeDictionary = new ScopeDictionary();
+
+        ScopeSet scopes = scopeDictionary.parse("read  write", " ");
+
+        Assert.assertTrue(scopes.hasScope("read"));
+        Assert.assertTrue(scopes.hasScope("write"));
+        Assert.assertFalse(scopes.hasScope("admin"));
+        Assert.assertFalse(scopes.hasScope(""));
+        Assert.assertTrue(scopes.hasAllScopes(Arrays.asList("write", "read")));
+        Assert.assertFalse(scopes.hasAllScopes(Arrays.asList("read", "admin")));
+        Assert.assertEquals(2, scopeDictionary.size());
+    }
+
+    @Test
+    public void shouldParseScopesWithCustomSeparator() {
+        ScopeSet scopes = new ScopeDictionary().parse("read,write,", ",");
+
+        Assert.assertTrue(scopes.hasAllScopes(Arrays.asList("read", "write")));
+        Assert.assertFalse(scopes.hasScope("read,write"));
+    }
+
+    @Test
+    public void shouldShareScopeNumbers() {
+        ScopeDictionary scopeDictionary = new ScopeDictionary();
+
+        ScopeSet first = scopeDictionary.parse("read write", " ");
+        ScopeSet second = scopeDictionary.parse("write admin", " ");
+
+        Assert.assertEquals(3, scopeDictionary.size());
+        Assert.assertEquals(scopeDictionary.indexOf("write"), scopeDictionary.indexOf("write"));
+        Assert.assertFalse(first.hasScope("admin"));
+        Assert.assertTrue(second.hasScope("admin"));
+    }
+
+    @Test
+    public void shouldCompareScopeSets() {
+        ScopeDictionary scopeDictionary = new ScopeDictionary();
+        for (int i = 0; i < 200; i++) {
+            scopeDictionary.parse("scope-" + i, " ");
+        }
+
+        ScopeSet granted = scopeDictionary.parse("scope-1 scope-150 read", " ");
+
+        Assert.assertTrue(granted.hasAllScopes(scopeDictionary.of(Arrays.asList("scope-150", "read"))));
+        Assert.assertTrue(granted.hasAllScopes(ScopeSet.EMPTY));
+        Assert.assertFalse(granted.hasAllScopes(scopeDictionary.of(Arrays.asList("scope-1", "scope-199"))));
+        Assert.assertFalse(ScopeSet.EMPTY.hasAllScopes(granted));
+    }
+
+    @Test
+    public void shouldKeepScopesByNameOnceFull() {
+        ScopeDictionary scopeDictionary = new ScopeDictionary(1);
+
+        ScopeSet scopes = scopeDictionary.parse("read write", " ");
+
+        Assert.assertEquals(1, scopeDictionary.size());
+        Assert.assertTrue(scopes.hasAllScopes(Arrays.asList("read", "write")));
+        Assert.assertEquals(Collections.singleton("write"), scopes.getUnindexedScopes());
+        Assert.assertTrue(scopes.hasAllScopes(scopeDictionary.of(Collections.singleton("write"))));
+        Assert.assertFalse(scopes.hasAllScopes(scopeDictionary.of(Collections.singleton("admin"))));
+    }
+
+    @Test
+    public void shouldNotHaveScopesWithoutScopeClaim() {
+        ScopeDictionary scopeDictionary = new ScopeDictionary();
+
+        Assert.assertSame(ScopeSet.EMPTY, scopeDictionary.parse(null, " "));
+        Assert.assertSame(ScopeSet.EMPTY, scopeDictionary.parse("", " "));
+        Assert.assertFalse(ScopeSet.EMPTY.hasScope("read"));
+        Assert.assertTrue(ScopeSet.EMPTY.isEmpty());
+    }
+}
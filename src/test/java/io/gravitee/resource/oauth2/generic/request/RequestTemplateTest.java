@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.request;
+
+import io.gravitee.common.http.HttpHeaders;
+import io.gravitee.common.http.MediaType;
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.RequestOptions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+/**
+ * @author GraviteeSource Team
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class RequestTemplateTest {
+
+    @Mock
+    private HttpClientRequest request;
+
+    @Test
+    public void shouldCreateRequestOptions() {
+        RequestTemplate template = RequestTemplate
+            .builder(HttpMethod.POST, "https://authorization.server:8443/oauth/introspect")
+            .timeout(1000)
+            .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON)
+            .build();
+
+        RequestOptions options = template.options("xxxx-xxxx-xxxx-xxxx");
+
+        Assert.assertEquals(HttpMethod.POST, options.getMethod());
+        Assert.assertEquals("authorization.server", options.getHost());
+        Assert.assertEquals(8443, options.getPort().intValue());
+        Assert.assertTrue(options.isSsl());
+        Assert.assertEquals("/oauth/introspect", options.getURI());
+        Assert.assertEquals(1000, options.getTimeout());
+        Assert.assertEquals(MediaType.APPLICATION_JSON, options.getHeaders().get(HttpHeaders.ACCEPT));
+        Assert.assertNull(template.body("xxxx-xxxx-xxxx-xxxx"));
+    }
+
+    @Test
+    public void shouldSendTokenAsQueryParam() {
+        RequestTemplate template = RequestTemplate
+            .builder(HttpMethod.GET, "http://authorization.server/oauth/introspect")
+            .tokenQueryParam("token")
+            .build();
+
+        RequestOptions options = template.options("xxxx-xxxx-xxxx-xxxx");
+
+        Assert.assertEquals(80, options.getPort().intValue());
+        Assert.assertFalse(options.isSsl());
+        Assert.assertEquals("/oauth/introspect?token=xxxx-xxxx-xxxx-xxxx", options.getURI());
+    }
+
+    @Test
+    public void shouldSendTokenAsFormParam() {
+        RequestTemplate template = RequestTemplate
+            .builder(HttpMethod.POST, "http://authorization.server/oauth/introspect")
+            .tokenFormParam("token")
+            .build();
+
+        RequestOptions options = template.options("xxxx-xxxx-xxxx-xxxx");
+
+        Assert.assertEquals(MediaType.APPLICATION_FORM_URLENCODED, options.getHeaders().get(HttpHeaders.CONTENT_TYPE));
+        Assert.assertEquals("token=xxxx-xxxx-xxxx-xxxx", template.body("xxxx-xxxx-xxxx-xxxx"));
+    }
+
+    @Test
+    public void shouldAddTokenHeaderToRequestOnly() {
+        MultiMap requestHeaders = MultiMap.caseInsensitiveMultiMap();
+        Mockito.when(request.headers()).thenReturn(requestHeaders);
+
+        RequestTemplate template = RequestTemplate
+            .builder(HttpMethod.GET, "http://authorization.server/userinfo")
+            .tokenHeader(HttpHeaders.AUTHORIZATION, "Bearer ")
+            .build();
+
+        RequestOptions options = template.options("xxxx-xxxx-xxxx-xxxx");
+        template.prepare(request, "xxxx-xxxx-xxxx-xxxx");
+
+        Assert.assertEquals("Bearer xxxx-xxxx-xxxx-xxxx", requestHeaders.get(HttpHeaders.AUTHORIZATION));
+        Assert.assertNotNull(requestHeaders.get(RequestTemplate.REQUEST_ID_HEADER));
+        // Static headers are shared by all the requests and must be left untouched
+        Assert.assertNull(options.getHeaders().get(HttpHeaders.AUTHORIZATION));
+        Assert.assertNull(template.options("yyyy-yyyy-yyyy-yyyy").getHeaders().get(RequestTemplate.REQUEST_ID_HEADER));
+    }
+}
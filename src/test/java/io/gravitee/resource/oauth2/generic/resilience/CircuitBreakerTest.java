@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.resilience;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class CircuitBreakerTest {
+
+    private static final long FAST_CALL = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long SLOW_CALL = TimeUnit.SECONDS.toNanos(2);
+
+    @Test
+    public void shouldOpenWhenFailureRateIsReached() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(50, 100, 1000, 4, 4, 60000, 1);
+
+        record(circuitBreaker, FAST_CALL, false);
+        record(circuitBreaker, FAST_CALL, true);
+        record(circuitBreaker, FAST_CALL, false);
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        record(circuitBreaker, FAST_CALL, true);
+        Assert.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assert.assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void shouldNotOpenBeforeMinimumNumberOfCalls() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(50, 100, 1000, 10, 5, 60000, 1);
+
+        for (int i = 0; i < 4; i++) {
+            record(circuitBreaker, FAST_CALL, true);
+        }
+
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void shouldOnlyConsiderLastCalls() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(50, 100, 1000, 4, 4, 60000, 1);
+
+        record(circuitBreaker, FAST_CALL, true);
+        for (int i = 0; i < 10; i++) {
+            record(circuitBreaker, FAST_CALL, false);
+        }
+        record(circuitBreaker, FAST_CALL, true);
+
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void shouldOpenWhenSlowCallRateIsReached() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(50, 50, 1000, 2, 2, 60000, 1);
+
+        record(circuitBreaker, FAST_CALL, false);
+        record(circuitBreaker, SLOW_CALL, false);
+
+        Assert.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void shouldCloseAfterSuccessfulProbeCalls() throws InterruptedException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(50, 100, 1000, 2, 2, 50, 2);
+        record(circuitBreaker, FAST_CALL, true);
+        record(circuitBreaker, FAST_CALL, true);
+
+        Thread.sleep(100);
+
+        Assert.assertTrue(circuitBreaker.tryAcquirePermission());
+        Assert.assertTrue(circuitBreaker.tryAcquirePermission());
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        // Only the probe calls are permitted until their results are known
+        Assert.assertFalse(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onResult(FAST_CALL, false);
+        circuitBreaker.onResult(FAST_CALL, false);
+
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        Assert.assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void shouldOpenAgainAfterFailedProbeCall() throws InterruptedException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(50, 100, 1000, 2, 2, 50, 1);
+        record(circuitBreaker, FAST_CALL, true);
+        record(circuitBreaker, FAST_CALL, true);
+
+        Thread.sleep(100);
+
+        Assert.assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onResult(FAST_CALL, true);
+
+        Assert.assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assert.assertFalse(circuitBreaker.tryAcquirePermission());
+    }
+
+    private static void record(CircuitBreaker circuitBreaker, long duration, boolean failure) {
+        Assert.assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onResult(duration, failure);
+    }
+}
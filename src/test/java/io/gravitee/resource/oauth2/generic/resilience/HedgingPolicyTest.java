@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.resilience;
+
+import io.gravitee.resource.oauth2.generic.metrics.Outcome;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class HedgingPolicyTest {
+
+    @Test
+    public void shouldUseMinDelayUntilEnoughCallsAreAnswered() {
+        HedgingPolicy hedgingPolicy = new HedgingPolicy(95, 50, 10);
+
+        record(hedgingPolicy, 10, 500, Outcome.ACTIVE);
+        Assert.assertEquals(50, hedgingPolicy.delay());
+    }
+
+    @Test
+    public void shouldHedgeAfterPercentileOfLatencies() {
+        HedgingPolicy p95 = new HedgingPolicy(95, 1, 10);
+        HedgingPolicy p99 = new HedgingPolicy(99, 1, 10);
+
+        // 5% of the calls are slow
+        for (HedgingPolicy hedgingPolicy : new HedgingPolicy[] { p95, p99 }) {
+            record(hedgingPolicy, 152, 10, Outcome.ACTIVE);
+            record(hedgingPolicy, 8, 1000, Outcome.INACTIVE);
+        }
+        Assert.assertEquals(10, p95.delay());
+        Assert.assertEquals(1000, p99.delay());
+
+        // Failures do not tell how long an answer takes
+        record(p95, 200, 30000, Outcome.TIMEOUT);
+        Assert.assertEquals(10, p95.delay());
+    }
+
+    @Test
+    public void shouldNotHedgeBeforeMinDelay() {
+        HedgingPolicy hedgingPolicy = new HedgingPolicy(95, 50, 10);
+
+        record(hedgingPolicy, 100, 5, Outcome.ACTIVE);
+        Assert.assertEquals(50, hedgingPolicy.delay());
+    }
+
+    @Test
+    public void shouldCapSecondRequestsToRatioOfCalls() {
+        HedgingPolicy hedgingPolicy = new HedgingPolicy(95, 50, 10);
+
+        int hedged = 0;
+        while (hedgingPolicy.tryHedge()) {
+            hedged++;
+        }
+        Assert.assertEquals(25, hedged);
+
+        // One call out of ten may be sent twice, whatever its outcome
+        while (!hedgingPolicy.tryHedge()) {
+            record(hedgingPolicy, 1, 10, Outcome.ACTIVE);
+        }
+        record(hedgingPolicy, 9, 30000, Outcome.TIMEOUT);
+        Assert.assertFalse(hedgingPolicy.tryHedge());
+        record(hedgingPolicy, 1, 10, Outcome.ACTIVE);
+        Assert.assertTrue(hedgingPolicy.tryHedge());
+        Assert.assertFalse(hedgingPolicy.tryHedge());
+    }
+
+    private static void record(HedgingPolicy hedgingPolicy, int calls, long latency, Outcome outcome) {
+        for (int i = 0; i < calls; i++) {
+            hedgingPolicy.onCallEnd(TimeUnit.MILLISECONDS.toNanos(latency), outcome);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.resilience;
+
+import io.gravitee.resource.oauth2.generic.metrics.Outcome;
+import io.vertx.core.Vertx;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class RateLimiterTest {
+
+    private Vertx vertx;
+
+    @Before
+    public void init() {
+        vertx = Vertx.vertx();
+    }
+
+    @After
+    public void close() {
+        vertx.close();
+    }
+
+    @Test
+    public void shouldQueueCallsBeyondBurst() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter(vertx, 10, 2, 10, 1000);
+
+        Assert.assertNull(acquire(rateLimiter, RateLimiter.Priority.HIGH).getNow(Outcome.THROTTLED));
+        Assert.assertNull(acquire(rateLimiter, RateLimiter.Priority.HIGH).getNow(Outcome.THROTTLED));
+
+        long start = System.nanoTime();
+        CompletableFuture<Outcome> queued = acquire(rateLimiter, RateLimiter.Priority.HIGH);
+        Assert.assertEquals(1, rateLimiter.waiting());
+        Assert.assertNull(queued.get(1, TimeUnit.SECONDS));
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(90));
+        Assert.assertEquals(0, rateLimiter.waiting());
+    }
+
+    @Test
+    public void shouldGrantHighPriorityCallsFirst() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter(vertx, 20, 1, 10, 1000);
+        Assert.assertNull(acquire(rateLimiter, RateLimiter.Priority.HIGH).getNow(Outcome.THROTTLED));
+
+        List<RateLimiter.Priority> granted = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(3);
+        for (RateLimiter.Priority priority : new RateLimiter.Priority[] {
+            RateLimiter.Priority.LOW,
+            RateLimiter.Priority.HIGH,
+            RateLimiter.Priority.HIGH,
+        }) {
+            rateLimiter.acquire(
+                priority,
+                rejection -> {
+                    Assert.assertNull(rejection);
+                    granted.add(priority);
+                    latch.countDown();
+                }
+            );
+        }
+
+        Assert.assertTrue(latch.await(1, TimeUnit.SECONDS));
+        Assert.assertEquals(List.of(RateLimiter.Priority.HIGH, RateLimiter.Priority.HIGH, RateLimiter.Priority.LOW), granted);
+    }
+
+    @Test
+    public void shouldRejectCallsWhichCanNotBeGrantedInTime() {
+        RateLimiter rateLimiter = new RateLimiter(vertx, 1, 1, 10, 100);
+
+        Assert.assertNull(acquire(rateLimiter, RateLimiter.Priority.HIGH).getNow(Outcome.THROTTLED));
+        Assert.assertEquals(Outcome.THROTTLED, acquire(rateLimiter, RateLimiter.Priority.HIGH).getNow(null));
+        Assert.assertEquals(0, rateLimiter.waiting());
+    }
+
+    @Test
+    public void shouldRejectLowPriorityCallsStarvedByHighPriorityOnes() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter(vertx, 10, 1, 100, 300);
+        Assert.assertNull(acquire(rateLimiter, RateLimiter.Priority.HIGH).getNow(Outcome.THROTTLED));
+
+        long start = System.nanoTime();
+        CompletableFuture<Outcome> low = acquire(rateLimiter, RateLimiter.Priority.LOW);
+
+        // More high priority calls than permits, for longer than the low priority call may wait
+        long timerId = vertx.setPeriodic(50, id -> acquire(rateLimiter, RateLimiter.Priority.HIGH));
+        try {
+            Assert.assertEquals(Outcome.THROTTLED, low.get(1, TimeUnit.SECONDS));
+            Assert.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(600));
+        } finally {
+            vertx.cancelTimer(timerId);
+        }
+    }
+
+    @Test
+    public void shouldDisplaceLowPriorityCallsWhenQueueIsFull() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter(vertx, 10, 1, 1, 1000);
+        Assert.assertNull(acquire(rateLimiter, RateLimiter.Priority.HIGH).getNow(Outcome.THROTTLED));
+
+        CompletableFuture<Outcome> low = acquire(rateLimiter, RateLimiter.Priority.LOW);
+        Assert.assertEquals(Outcome.THROTTLED, acquire(rateLimiter, RateLimiter.Priority.LOW).getNow(null));
+        CompletableFuture<Outcome> high = acquire(rateLimiter, RateLimiter.Priority.HIGH);
+
+        Assert.assertEquals(Outcome.THROTTLED, low.get(1, TimeUnit.SECONDS));
+        Assert.assertNull(high.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldPauseWhenAskedToRetryLater() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter(vertx, 0, 0, 10, 1000);
+        Assert.assertNull(acquire(rateLimiter, RateLimiter.Priority.HIGH).getNow(Outcome.THROTTLED));
+
+        rateLimiter.pause(200);
+        long start = System.nanoTime();
+        CompletableFuture<Outcome> queued = acquire(rateLimiter, RateLimiter.Priority.HIGH);
+        Assert.assertFalse(queued.isDone());
+        Assert.assertNull(queued.get(1, TimeUnit.SECONDS));
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(150));
+
+        // Calls which would wait longer than allowed are rejected, including the queued ones
+        queued = acquire(rateLimiter, RateLimiter.Priority.LOW);
+        Assert.assertNull(queued.get(1, TimeUnit.SECONDS));
+        rateLimiter.pause(500);
+        queued = acquire(rateLimiter, RateLimiter.Priority.LOW);
+        rateLimiter.pause(5000);
+        Assert.assertEquals(Outcome.THROTTLED, queued.get(1, TimeUnit.SECONDS));
+        Assert.assertEquals(Outcome.THROTTLED, acquire(rateLimiter, RateLimiter.Priority.HIGH).getNow(null));
+    }
+
+    @Test
+    public void shouldParseRetryAfter() {
+        Assert.assertEquals(120000, RateLimiter.parseRetryAfter("120"));
+        Assert.assertEquals(-1, RateLimiter.parseRetryAfter("soon"));
+        Assert.assertEquals(-1, RateLimiter.parseRetryAfter(null));
+
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(60));
+        long delay = RateLimiter.parseRetryAfter(date);
+        Assert.assertTrue(delay > 55000 && delay <= 60000);
+    }
+
+    private static CompletableFuture<Outcome> acquire(RateLimiter rateLimiter, RateLimiter.Priority priority) {
+        CompletableFuture<Outcome> outcome = new CompletableFuture<>();
+        rateLimiter.acquire(priority, outcome::complete);
+        return outcome;
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.resource.oauth2.generic.revocation;
+
+import io.gravitee.resource.oauth2.api.OAuth2Response;
+import io.gravitee.resource.oauth2.generic.introspection.IntrospectionPayload;
+import io.gravitee.resource.oauth2.generic.introspection.IntrospectionResponse;
+import io.gravitee.resource.oauth2.generic.introspection.ScopeSet;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import java.io.IOException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class RevokedTokensTest {
+
+    @Test
+    public void shouldReadRevocationEvents() {
+        RevocationEvent event = RevocationEvent.of(new JsonObject().put("client_id", "my-app").put("sub", "john"));
+        Assert.assertNull(event.getToken());
+        Assert.assertEquals("my-app", event.getClientId());
+        Assert.assertEquals("john", event.getSubject());
+
+        Assert.assertEquals("xxxx", RevocationEvent.of("{\"token\": \"xxxx\"}").getToken());
+        Assert.assertEquals("abcd", RevocationEvent.of(Buffer.buffer("{\"token_digest\": \"abcd\"}")).getTokenDigest());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectEventWithoutRevokedItem() {
+        RevocationEvent.of("{\"token\": \"\", \"aud\": \"api\"}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidEvent() {
+        RevocationEvent.of("{\"token\": ");
+    }
+
+    @Test
+    public void shouldRevokeTokensOfClientsAndSubjects() throws IOException {
+        RevokedTokens revokedTokens = new RevokedTokens(60000);
+        OAuth2Response response = response("{\"active\": true, \"client_id\": \"my-app\", \"sub\": \"john\", \"iat\": 1}");
+
+        Assert.assertFalse(revokedTokens.isRevoked(response));
+
+        revokedTokens.revokeSubject("jane");
+        Assert.assertFalse(revokedTokens.isRevoked(response));
+
+        revokedTokens.revokeClient("my-app");
+        Assert.assertTrue(revokedTokens.isRevoked(response));
+        Assert.assertFalse(revokedTokens.isRevoked(response("{\"active\": true, \"sub\": \"john\"}")));
+        Assert.assertEquals(2, revokedTokens.size());
+    }
+
+    @Test
+    public void shouldNotRevokeTokensIssuedAfterRevocation() throws IOException, InterruptedException {
+        RevokedTokens revokedTokens = new RevokedTokens(60000);
+        long now = System.currentTimeMillis();
+        OAuth2Response issuedBefore = response("{\"active\": true, \"sub\": \"john\", \"iat\": " + (now / 1000 - 60) + "}");
+        OAuth2Response introspectedBefore = response("{\"active\": true, \"sub\": \"john\"}");
+
+        Thread.sleep(10);
+        revokedTokens.revokeSubject("john");
+        Thread.sleep(10);
+
+        Assert.assertTrue(revokedTokens.isRevoked(issuedBefore));
+        Assert.assertTrue(revokedTokens.isRevoked(introspectedBefore));
+        Assert.assertFalse(revokedTokens.isRevoked(response("{\"active\": true, \"sub\": \"john\", \"iat\": " + (now / 1000 + 60) + "}")));
+        Assert.assertFalse(revokedTokens.isRevoked(response("{\"active\": true, \"sub\": \"john\"}")));
+        Assert.assertFalse(revokedTokens.isRevoked(new OAuth2Response(true, "{\"active\": true, \"sub\": \"john\"}")));
+    }
+
+    @Test
+    public void shouldRevokeTokens() {
+        RevokedTokens revokedTokens = new RevokedTokens(60000);
+        Assert.assertFalse(revokedTokens.isRevoked("abcd"));
+
+        revokedTokens.revokeToken("abcd");
+        Assert.assertTrue(revokedTokens.isRevoked("abcd"));
+        Assert.assertFalse(revokedTokens.isRevoked("efgh"));
+        Assert.assertEquals(1, revokedTokens.size());
+    }
+
+    @Test
+    public void shouldForgetRevocationsOnceResultsAreExpired() throws IOException, InterruptedException {
+        RevokedTokens revokedTokens = new RevokedTokens(50);
+        OAuth2Response response = response("{\"active\": true, \"sub\": \"john\", \"iat\": 1}");
+
+        revokedTokens.revokeSubject("john");
+        revokedTokens.revokeToken("abcd");
+        revokedTokens.purge();
+        Assert.assertTrue(revokedTokens.isRevoked(response));
+        Assert.assertTrue(revokedTokens.isRevoked("abcd"));
+
+        Thread.sleep(100);
+        revokedTokens.purge();
+
+        Assert.assertFalse(revokedTokens.isRevoked(response));
+        Assert.assertFalse(revokedTokens.isRevoked("abcd"));
+        Assert.assertEquals(0, revokedTokens.size());
+    }
+
+    @Test
+    public void shouldKeepRevocationsAsLongAsTokensValidatedLocally() throws IOException, InterruptedException {
+        RevokedTokens revokedTokens = new RevokedTokens(50);
+        long now = System.currentTimeMillis() / 1000;
+        IntrospectionResponse jwt = response("{\"active\": true, \"sub\": \"john\", \"iat\": " + now + ", \"exp\": " + (now + 60) + "}");
+
+        revokedTokens.retain(jwt);
+        revokedTokens.revokeSubject("john");
+
+        Thread.sleep(100);
+        revokedTokens.purge();
+
+        Assert.assertEquals(1, revokedTokens.size());
+    }
+
+    private static IntrospectionResponse response(String content) throws IOException {
+        return new IntrospectionResponse(IntrospectionPayload.parse(content, null), content, ScopeSet.EMPTY);
+    }
+}